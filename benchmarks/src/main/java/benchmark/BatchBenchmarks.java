@@ -0,0 +1,60 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import representation.CubeStateBatch;
+import representation.PackedCubeStateRepresentation;
+import representation.moves.MoveTables;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves applied to a batch of scrambled states at once, one operation per move or scramble.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+public class BatchBenchmarks {
+    private CubeStateBatch batch;
+    private int[][] scrambles20;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(Scrambles.SEED);
+        int[][] scrambles25 = Scrambles.random(random, 25);
+        scrambles20 = Scrambles.random(random, 20);
+        PackedCubeStateRepresentation[] states = new PackedCubeStateRepresentation[Scrambles.COUNT];
+        for (int i = 0; i < Scrambles.COUNT; i++) {
+            states[i] = new PackedCubeStateRepresentation();
+            for (int move : scrambles25[i]) {
+                states[i].makeMove(move);
+            }
+        }
+        batch = new CubeStateBatch(states);
+    }
+
+    @Benchmark
+    public int scramble20() {
+        batch.makeMoves(scrambles20[next++ & (Scrambles.COUNT - 1)]);
+        return batch.getCornerId(0, 0);
+    }
+
+    @Benchmark
+    public int singleMove() {
+        batch.makeMove(next++ % MoveTables.MOVES);
+        return batch.getCornerId(0, 0);
+    }
+}
@@ -0,0 +1,67 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import representation.PackedCubeStateRepresentation;
+import representation.coordinates.CoordinateCubeState;
+import representation.coordinates.Coordinates;
+import representation.moves.MoveTables;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The coordinates a solver needs after a move, computed from the pieces of a packed state
+ * or tracked by a coordinate state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+public class CoordinateBenchmarks {
+    @Param({"packed", "coordinate"})
+    private String implementation;
+
+    private final PackedCubeStateRepresentation[] packed = new PackedCubeStateRepresentation[Scrambles.COUNT];
+    private final CoordinateCubeState[] coordinate = new CoordinateCubeState[Scrambles.COUNT];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int[][] scrambles = Scrambles.random(new Random(Scrambles.SEED), 25);
+        for (int i = 0; i < Scrambles.COUNT; i++) {
+            packed[i] = new PackedCubeStateRepresentation();
+            for (int move : scrambles[i]) {
+                packed[i].makeMove(move);
+            }
+            coordinate[i] = new CoordinateCubeState(packed[i]);
+        }
+    }
+
+    @Benchmark
+    public int moveAndCoordinates() {
+        int i = next++;
+        int move = i % MoveTables.MOVES;
+        if (implementation.equals("packed")) {
+            PackedCubeStateRepresentation state = packed[i & (Scrambles.COUNT - 1)];
+            state.makeMove(move);
+            return Coordinates.getCornerOrientation(state) + Coordinates.getEdgeOrientation(state)
+                    + Coordinates.getUdSlice(state) + Coordinates.getCornerPermutation(state);
+        }
+        CoordinateCubeState state = coordinate[i & (Scrambles.COUNT - 1)];
+        state.makeMove(move);
+        return state.getCornerOrientation() + state.getEdgeOrientation()
+                + state.getUdSlice() + state.getCornerPermutation();
+    }
+}
@@ -0,0 +1,268 @@
+package benchmark;
+
+import interaction.parsing.CompactScrambleParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import representation.ArrayCubeStateRepresentation;
+import representation.ImmutableCubeStateRepresentation;
+import representation.PackedCubeStateRepresentation;
+import representation.coordinates.CoordinateCubeState;
+import representation.moves.MoveTables;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks of the move engine and the compact parser, run for every state representation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+public class CubeStateBenchmarks {
+    @Param({"array", "packed", "immutable", "coordinate"})
+    private String implementation;
+
+    private Supplier<BenchmarkedState> solved;
+    private int[][] scrambles20;
+    private int[][] scrambles25;
+    private String[] notations;
+    private BenchmarkedState moved;
+    private BenchmarkedState scrambled;
+    private BenchmarkedState equal;
+    private final byte[] parsed = new byte[64];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        solved = switch (implementation) {
+            case "array" -> () -> new ArrayState(new ArrayCubeStateRepresentation());
+            case "packed" -> () -> new PackedState(new PackedCubeStateRepresentation());
+            case "immutable" -> () -> new ImmutableState(ImmutableCubeStateRepresentation.SOLVED);
+            case "coordinate" -> () -> new CoordinateState(new CoordinateCubeState());
+            default -> throw new IllegalArgumentException("Unknown implementation " + implementation);
+        };
+        Random random = new Random(Scrambles.SEED);
+        scrambles20 = Scrambles.random(random, 20);
+        scrambles25 = Scrambles.random(random, 25);
+        notations = Scrambles.notations(scrambles25);
+        moved = solved.get();
+        scrambled = solved.get();
+        for (int move : scrambles25[0]) {
+            scrambled.makeMove(move);
+        }
+        equal = scrambled.copy();
+    }
+
+    @Benchmark
+    public long singleMove() {
+        int move = next;
+        next = move == MoveTables.MOVES - 1 ? 0 : move + 1;
+        moved.makeMove(move);
+        return moved.checksum();
+    }
+
+    @Benchmark
+    public long scramble20() {
+        return applyScramble(scrambles20);
+    }
+
+    @Benchmark
+    public long scramble25() {
+        return applyScramble(scrambles25);
+    }
+
+    @Benchmark
+    public BenchmarkedState copy() {
+        return scrambled.copy();
+    }
+
+    @Benchmark
+    public int hashCodeOfState() {
+        return scrambled.stateHashCode();
+    }
+
+    @Benchmark
+    public boolean equalsOfStates() {
+        return scrambled.stateEquals(equal);
+    }
+
+    @Benchmark
+    public long compactParseAndApply25() {
+        String notation = notations[next++ & (Scrambles.COUNT - 1)];
+        int length = CompactScrambleParser.parse(notation, parsed);
+        BenchmarkedState state = solved.get();
+        for (int i = 0; i < length; i++) {
+            state.makeMove(parsed[i]);
+        }
+        return state.checksum();
+    }
+
+    private long applyScramble(int[][] scrambles) {
+        for (int move : scrambles[next++ & (Scrambles.COUNT - 1)]) {
+            moved.makeMove(move);
+        }
+        return moved.checksum();
+    }
+
+    /**
+     * Common view of the benchmarked state representations.
+     */
+    public interface BenchmarkedState {
+        void makeMove(int move);
+
+        BenchmarkedState copy();
+
+        int stateHashCode();
+
+        boolean stateEquals(BenchmarkedState other);
+
+        // cheap value depending on the whole state, fed to the benchmark sink
+        long checksum();
+    }
+
+    private static class ArrayState implements BenchmarkedState {
+        private final ArrayCubeStateRepresentation state;
+
+        ArrayState(ArrayCubeStateRepresentation state) {
+            this.state = state;
+        }
+
+        @Override
+        public void makeMove(int move) {
+            state.makeMove(move);
+        }
+
+        @Override
+        public BenchmarkedState copy() {
+            return new ArrayState(new ArrayCubeStateRepresentation(state));
+        }
+
+        @Override
+        public int stateHashCode() {
+            return state.hashCode();
+        }
+
+        @Override
+        public boolean stateEquals(BenchmarkedState other) {
+            return state.equals(((ArrayState) other).state);
+        }
+
+        @Override
+        public long checksum() {
+            return state.getCorners()[0][0].getId() + state.getEdges()[0][0].getId();
+        }
+    }
+
+    private static class PackedState implements BenchmarkedState {
+        private final PackedCubeStateRepresentation state;
+
+        PackedState(PackedCubeStateRepresentation state) {
+            this.state = state;
+        }
+
+        @Override
+        public void makeMove(int move) {
+            state.makeMove(move);
+        }
+
+        @Override
+        public BenchmarkedState copy() {
+            return new PackedState(new PackedCubeStateRepresentation(state));
+        }
+
+        @Override
+        public int stateHashCode() {
+            return state.hashCode();
+        }
+
+        @Override
+        public boolean stateEquals(BenchmarkedState other) {
+            return state.equals(((PackedState) other).state);
+        }
+
+        @Override
+        public long checksum() {
+            return state.getPackedCorners() ^ state.getPackedEdges();
+        }
+    }
+
+    // the wrapper is mutable for the common interface, every move still creates a new state
+    private static class ImmutableState implements BenchmarkedState {
+        private ImmutableCubeStateRepresentation state;
+
+        ImmutableState(ImmutableCubeStateRepresentation state) {
+            this.state = state;
+        }
+
+        @Override
+        public void makeMove(int move) {
+            state = state.move(move);
+        }
+
+        @Override
+        public BenchmarkedState copy() {
+            return new ImmutableState(state);
+        }
+
+        @Override
+        public int stateHashCode() {
+            return state.hashCode();
+        }
+
+        @Override
+        public boolean stateEquals(BenchmarkedState other) {
+            return state.equals(((ImmutableState) other).state);
+        }
+
+        @Override
+        public long checksum() {
+            return state.corners() ^ state.edges();
+        }
+    }
+
+    private static class CoordinateState implements BenchmarkedState {
+        private final CoordinateCubeState state;
+
+        CoordinateState(CoordinateCubeState state) {
+            this.state = state;
+        }
+
+        @Override
+        public void makeMove(int move) {
+            state.makeMove(move);
+        }
+
+        @Override
+        public BenchmarkedState copy() {
+            return new CoordinateState(new CoordinateCubeState(state));
+        }
+
+        @Override
+        public int stateHashCode() {
+            return state.hashCode();
+        }
+
+        @Override
+        public boolean stateEquals(BenchmarkedState other) {
+            return state.equals(((CoordinateState) other).state);
+        }
+
+        @Override
+        public long checksum() {
+            return state.getCornerPermutation() ^ state.getUdSlice();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package benchmark;
+
+import interaction.parsing.ScrambleParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import representation.ArrayCubeStateRepresentation;
+import representation.PackedCubeStateRepresentation;
+import solving.ScrambleGenerator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scrambles read from notation into the object model, states drawn for random-state scrambles,
+ * and states reduced to their symmetry class representative.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(2)
+public class ScrambleBenchmarks {
+    private String[] notations;
+    private final PackedCubeStateRepresentation[] scrambled = new PackedCubeStateRepresentation[Scrambles.COUNT];
+    private ScrambleGenerator generator;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int[][] scrambles = Scrambles.random(new Random(Scrambles.SEED), 25);
+        notations = Scrambles.notations(scrambles);
+        for (int i = 0; i < Scrambles.COUNT; i++) {
+            scrambled[i] = new PackedCubeStateRepresentation();
+            for (int move : scrambles[i]) {
+                scrambled[i].makeMove(move);
+            }
+        }
+        generator = new ScrambleGenerator(Scrambles.SEED);
+    }
+
+    @Benchmark
+    public ArrayCubeStateRepresentation scrambleParserParseAndApply25() {
+        return new ScrambleParser(notations[next++ & (Scrambles.COUNT - 1)]).getScrambleStateInstance();
+    }
+
+    // drawing the random state of a random-state scramble, without solving it
+    @Benchmark
+    public PackedCubeStateRepresentation generatorNextState() {
+        return generator.nextState();
+    }
+
+    @Benchmark
+    public int canonicalize() {
+        PackedCubeStateRepresentation state = new PackedCubeStateRepresentation(scrambled[next++ & (Scrambles.COUNT - 1)]);
+        return state.canonicalize();
+    }
+}
@@ -0,0 +1,46 @@
+package benchmark;
+
+import representation.moves.MoveTables;
+
+import java.util.Random;
+
+/**
+ * Random scrambles shared by the benchmarks, the same for every run.
+ */
+final class Scrambles {
+    // a power of two, so that benchmarks can cycle through them with a mask
+    static final int COUNT = 1024;
+    static final long SEED = 42;
+
+    private Scrambles() {
+    }
+
+    // random sequences without consecutive turns of the same face
+    static int[][] random(Random random, int length) {
+        int[][] scrambles = new int[COUNT][length];
+        for (int[] scramble : scrambles) {
+            int previous = -1;
+            for (int j = 0; j < length; j++) {
+                int move;
+                do {
+                    move = random.nextInt(MoveTables.MOVES);
+                } while (previous >= 0 && move / 3 == previous / 3);
+                scramble[j] = move;
+                previous = move;
+            }
+        }
+        return scrambles;
+    }
+
+    static String[] notations(int[][] scrambles) {
+        String[] notations = new String[scrambles.length];
+        for (int i = 0; i < scrambles.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int move : scrambles[i]) {
+                sb.append(MoveTables.toNotation(move)).append(' ');
+            }
+            notations[i] = sb.toString();
+        }
+        return notations;
+    }
+}
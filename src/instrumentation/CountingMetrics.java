@@ -0,0 +1,150 @@
+package instrumentation;
+
+import interaction.batch.LatencyHistogram;
+import representation.moves.Face;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics summing up all the events: moves made per face, parsing time, nodes expanded per depth,
+ * distances returned by pruning tables and solve latencies. Thread-safe.
+ */
+public class CountingMetrics implements Metrics {
+    private static final Face[] FACES = Face.values();
+
+    private final LongAdder[] movesPerFace = new LongAdder[FACES.length];
+    private final LongAdder scrambles = new LongAdder();
+    private final LongAdder parsedMoves = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder solves = new LongAdder();
+    private final LongAdder unsolved = new LongAdder();
+    private final AtomicLongArray nodesPerDepth = new AtomicLongArray(SearchStatistics.DEPTHS);
+    private final AtomicLongArray pruningDistances = new AtomicLongArray(SearchStatistics.DISTANCES);
+    private final LatencyHistogram solveLatencies = new LatencyHistogram();
+
+    public CountingMetrics() {
+        for (int i = 0; i < FACES.length; i++) {
+            movesPerFace[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void moveMade(int move) {
+        movesPerFace[move / 3].increment();
+    }
+
+    @Override
+    public void scrambleParsed(int moves, long nanos) {
+        scrambles.increment();
+        parsedMoves.add(moves);
+        parseNanos.add(nanos);
+    }
+
+    @Override
+    public void solved(SearchStatistics statistics) {
+        solves.increment();
+        if (statistics.getSolutionLength() < 0) {
+            unsolved.increment();
+        }
+        long[] nodes = statistics.getNodesPerDepth();
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i] != 0) {
+                nodesPerDepth.addAndGet(i, nodes[i]);
+            }
+        }
+        long[] distances = statistics.getPruningDistances();
+        for (int i = 0; i < distances.length; i++) {
+            if (distances[i] != 0) {
+                pruningDistances.addAndGet(i, distances[i]);
+            }
+        }
+        solveLatencies.record(statistics.getElapsedNanos());
+    }
+
+    /**
+     * Returns the amount of moves made on the given face, in any direction.
+     *
+     * @param face the turned face
+     * @return the amount of moves
+     */
+    public long getMoves(Face face) {
+        return movesPerFace[face.ordinal()].sum();
+    }
+
+    public long getScrambles() {
+        return scrambles.sum();
+    }
+
+    /**
+     * Returns the total time spent parsing scrambles.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getParseNanos() {
+        return parseNanos.sum();
+    }
+
+    public long getSolves() {
+        return solves.sum();
+    }
+
+    /**
+     * Returns the amount of expanded nodes at the given depth, over all the solves.
+     *
+     * @param depth amount of moves made to reach the nodes
+     * @return the amount of nodes
+     */
+    public long getNodes(int depth) {
+        return nodesPerDepth.get(Math.min(depth, SearchStatistics.DEPTHS - 1));
+    }
+
+    /**
+     * Returns how many times the given distance was returned by pruning tables, over all the solves.
+     *
+     * @param distance the distance
+     * @return the amount of lookups
+     */
+    public long getPruningLookups(int distance) {
+        return pruningDistances.get(Math.min(distance, SearchStatistics.DISTANCES - 1));
+    }
+
+    /**
+     * Returns the latency of a single solve at the given percentile.
+     *
+     * @param percentile fraction between 0 and 100
+     * @return the latency in microseconds
+     */
+    public long getSolveLatencyPercentile(double percentile) {
+        return solveLatencies.getPercentile(percentile);
+    }
+
+    /**
+     * Returns a multi-line summary of all the counters, omitting empty ones.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("moves:");
+        for (Face face : FACES) {
+            sb.append(' ').append(face.getNotation()).append('=').append(getMoves(face));
+        }
+        long scrambleCount = getScrambles();
+        sb.append(String.format("%nscrambles: %d, %d moves, %.1f us per scramble",
+                scrambleCount, parsedMoves.sum(), scrambleCount == 0 ? 0 : getParseNanos() / 1e3 / scrambleCount));
+        sb.append(String.format("%nsolves: %d, %d unsolved, latency p50 %d us, p99 %d us",
+                getSolves(), unsolved.sum(), getSolveLatencyPercentile(50), getSolveLatencyPercentile(99)));
+        sb.append(String.format("%nnodes per depth:"));
+        for (int depth = 0; depth < SearchStatistics.DEPTHS; depth++) {
+            if (getNodes(depth) != 0) {
+                sb.append(' ').append(depth).append('=').append(getNodes(depth));
+            }
+        }
+        sb.append(String.format("%npruning distances:"));
+        for (int distance = 0; distance < SearchStatistics.DISTANCES; distance++) {
+            if (getPruningLookups(distance) != 0) {
+                sb.append(' ').append(distance).append('=').append(getPruningLookups(distance));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package instrumentation;
+
+/**
+ * Switch and entry point of the opt-in instrumentation.
+ * <p>
+ * Instrumentation is enabled by starting the virtual machine with -Dnonsolve.instrumentation=true.
+ * The call sites are guarded by the ENABLED constant, so when it is false the JIT removes them
+ * and the hot paths cost the same as without instrumentation.
+ * <p>
+ * Enabled, every event goes to the installed Metrics, and parsing, solves and search iterations
+ * are also recorded as JFR events (category "nonsolve") whenever a flight recording is running.
+ */
+public final class Instrumentation {
+    public static final String PROPERTY = "nonsolve.instrumentation";
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static volatile Metrics metrics = new Metrics() {
+    };
+
+    private Instrumentation() {
+    }
+
+    /**
+     * Installs the receiver of all the following events.
+     *
+     * @param metrics the receiver of events
+     */
+    public static void setMetrics(Metrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics must not be null");
+        }
+        Instrumentation.metrics = metrics;
+    }
+
+    public static Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Reports a move made on a cube state. Must only be called if ENABLED.
+     *
+     * @param move index of the move, as in MoveTables
+     */
+    public static void moveMade(int move) {
+        metrics.moveMade(move);
+    }
+
+    /**
+     * Reports a parsed scramble. Must only be called if ENABLED.
+     *
+     * @param moves      amount of parsed moves
+     * @param startNanos System.nanoTime() when parsing started
+     */
+    public static void scrambleParsed(int moves, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        ScrambleParseEvent event = new ScrambleParseEvent();
+        if (event.isEnabled()) {
+            event.moves = moves;
+            event.nanos = nanos;
+            event.commit();
+        }
+        metrics.scrambleParsed(moves, nanos);
+    }
+
+    /**
+     * Starts collecting statistics of a solve. Must only be called if ENABLED.
+     *
+     * @param solver name of the solver, recorded with the statistics
+     * @return statistics to be filled in by the solver and passed to solved
+     */
+    public static SearchStatistics startSolve(String solver) {
+        SearchStatistics statistics = new SearchStatistics(solver);
+        statistics.startEvent();
+        return statistics;
+    }
+
+    /**
+     * Reports a finished solve. Must only be called if ENABLED.
+     *
+     * @param statistics     statistics of the solve, as returned by startSolve
+     * @param solutionLength amount of moves of the found solution, or -1 if none was found
+     */
+    public static void solved(SearchStatistics statistics, int solutionLength) {
+        statistics.finish(solutionLength);
+        metrics.solved(statistics);
+    }
+}
@@ -0,0 +1,33 @@
+package instrumentation;
+
+/**
+ * Receiver of instrumentation events, installed with Instrumentation.setMetrics.
+ * Methods are called on the threads doing the work, possibly concurrently, so implementations must be thread-safe
+ * and cheap. Every method does nothing by default.
+ */
+public interface Metrics {
+    /**
+     * Called for every move made on a cube state.
+     *
+     * @param move index of the move, as in MoveTables
+     */
+    default void moveMade(int move) {
+    }
+
+    /**
+     * Called after a scramble was parsed.
+     *
+     * @param moves amount of parsed moves
+     * @param nanos time spent parsing, in nanoseconds
+     */
+    default void scrambleParsed(int moves, long nanos) {
+    }
+
+    /**
+     * Called after a solve finished, whether a solution was found or not.
+     *
+     * @param statistics statistics of the solve, not modified after the call
+     */
+    default void solved(SearchStatistics statistics) {
+    }
+}
@@ -0,0 +1,25 @@
+package instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of a parsed scramble. The parse time is a field measured by the parser,
+ * the event itself is only created and committed once parsing is over.
+ */
+@Name("nonsolve.ScrambleParse")
+@Label("Scramble Parse")
+@Category({"nonsolve", "Parsing"})
+@StackTrace(false)
+class ScrambleParseEvent extends Event {
+    @Label("Moves")
+    int moves;
+
+    @Label("Parse Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+}
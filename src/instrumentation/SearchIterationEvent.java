@@ -0,0 +1,25 @@
+package instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning a single iteration of an iterative deepening search, nested in a solve event.
+ */
+@Name("nonsolve.SearchIteration")
+@Label("Search Iteration")
+@Category({"nonsolve", "Solving"})
+@StackTrace(false)
+class SearchIterationEvent extends Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Depth Bound")
+    int bound;
+
+    @Label("Nodes")
+    long nodes;
+}
@@ -0,0 +1,195 @@
+package instrumentation;
+
+/**
+ * Counters of a single solve: nodes expanded at every depth and in every phase, and distances returned by pruning tables.
+ * Depths and distances beyond the counted range are added to the last counter.
+ * <p>
+ * Filled in by a single thread, except for add, which may be called concurrently by the parts of a parallel search.
+ */
+public class SearchStatistics {
+    public static final int DEPTHS = 32;
+    public static final int DISTANCES = 32;
+    public static final int PHASES = 2;
+
+    private final String solver;
+    private final long startNanos;
+    private final long[] nodesPerDepth = new long[DEPTHS];
+    private final long[] nodesPerPhase = new long[PHASES];
+    private final long[] pruningDistances = new long[DISTANCES];
+
+    private SolveEvent event;
+    private SearchIterationEvent iteration;
+    private long iterationStartNodes;
+    private long elapsedNanos;
+    private int solutionLength = -1;
+
+    /**
+     * Creates empty counters. Statistics of a whole solve are created by Instrumentation.startSolve,
+     * this is for the parts of a parallel search, to be added to them.
+     *
+     * @param solver name of the solver
+     */
+    public SearchStatistics(String solver) {
+        this.solver = solver;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Counts a node expanded in the first phase.
+     *
+     * @param depth amount of moves made to reach the node
+     */
+    public void nodeExpanded(int depth) {
+        nodeExpanded(0, depth);
+    }
+
+    /**
+     * Counts a node expanded in the given phase.
+     *
+     * @param phase index of the search phase, 0 or 1
+     * @param depth amount of moves made to reach the node, including the moves of earlier phases
+     */
+    public void nodeExpanded(int phase, int depth) {
+        nodesPerDepth[Math.min(depth, DEPTHS - 1)]++;
+        nodesPerPhase[phase]++;
+    }
+
+    /**
+     * Counts a distance looked up in a pruning table.
+     *
+     * @param distance the distance returned by the table
+     */
+    public void pruningLookup(int distance) {
+        pruningDistances[Math.min(distance, DISTANCES - 1)]++;
+    }
+
+    /**
+     * Starts an iteration of iterative deepening, ending the previous one.
+     *
+     * @param bound the depth bound of the iteration
+     */
+    public void startIteration(int bound) {
+        endIteration();
+        iteration = new SearchIterationEvent();
+        iteration.begin();
+        iteration.solver = solver;
+        iteration.bound = bound;
+        iterationStartNodes = getNodes();
+    }
+
+    /**
+     * Ends the current iteration of iterative deepening, if there is one.
+     */
+    public void endIteration() {
+        if (iteration == null) {
+            return;
+        }
+        iteration.end();
+        if (iteration.shouldCommit()) {
+            iteration.nodes = getNodes() - iterationStartNodes;
+            iteration.commit();
+        }
+        iteration = null;
+    }
+
+    /**
+     * Adds the counters of a part of this search.
+     *
+     * @param part statistics of the part, not modified
+     */
+    public synchronized void add(SearchStatistics part) {
+        for (int i = 0; i < DEPTHS; i++) {
+            nodesPerDepth[i] += part.nodesPerDepth[i];
+        }
+        for (int i = 0; i < PHASES; i++) {
+            nodesPerPhase[i] += part.nodesPerPhase[i];
+        }
+        for (int i = 0; i < DISTANCES; i++) {
+            pruningDistances[i] += part.pruningDistances[i];
+        }
+    }
+
+    void startEvent() {
+        event = new SolveEvent();
+        event.begin();
+    }
+
+    void finish(int solutionLength) {
+        endIteration();
+        this.solutionLength = solutionLength;
+        elapsedNanos = System.nanoTime() - startNanos;
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.solver = solver;
+                event.solutionLength = solutionLength;
+                event.nodes = getNodes();
+                event.phaseOneNodes = nodesPerPhase[0];
+                event.phaseTwoNodes = nodesPerPhase[1];
+                event.commit();
+            }
+        }
+    }
+
+    public String getSolver() {
+        return solver;
+    }
+
+    /**
+     * Returns the time the solve took.
+     *
+     * @return time from the creation of the statistics until the end of the solve, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the length of the found solution.
+     *
+     * @return the amount of moves of the solution, or -1 if none was found
+     */
+    public int getSolutionLength() {
+        return solutionLength;
+    }
+
+    /**
+     * Returns the amount of expanded nodes.
+     *
+     * @return the amount of expanded nodes, in all the phases
+     */
+    public synchronized long getNodes() {
+        long nodes = 0;
+        for (long phaseNodes : nodesPerPhase) {
+            nodes += phaseNodes;
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the amount of expanded nodes at every depth.
+     *
+     * @return copy of the counters, indexed by depth
+     */
+    public synchronized long[] getNodesPerDepth() {
+        return nodesPerDepth.clone();
+    }
+
+    /**
+     * Returns the amount of expanded nodes in every phase.
+     *
+     * @return copy of the counters, indexed by phase
+     */
+    public synchronized long[] getNodesPerPhase() {
+        return nodesPerPhase.clone();
+    }
+
+    /**
+     * Returns how many times every distance was returned by pruning tables.
+     *
+     * @return copy of the counters, indexed by distance
+     */
+    public synchronized long[] getPruningDistances() {
+        return pruningDistances.clone();
+    }
+}
@@ -0,0 +1,31 @@
+package instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning a whole solve.
+ */
+@Name("nonsolve.Solve")
+@Label("Solve")
+@Category({"nonsolve", "Solving"})
+@StackTrace(false)
+class SolveEvent extends Event {
+    @Label("Solver")
+    String solver;
+
+    @Label("Solution Length")
+    int solutionLength;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Phase One Nodes")
+    long phaseOneNodes;
+
+    @Label("Phase Two Nodes")
+    long phaseTwoNodes;
+}
@@ -0,0 +1,209 @@
+package interaction.batch;
+
+import interaction.parsing.CompactScrambleParser;
+import representation.PackedCubeStateRepresentation;
+import representation.moves.MoveSequences;
+import solving.Solution;
+import solving.SolutionCache;
+import solving.TwoPhaseSolver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves a stream of scrambles, one per line, on a pool of workers.
+ * At most a fixed amount of scrambles is in flight: reading waits for the oldest one to be written,
+ * which keeps the output in input order and memory use independent of the input size.
+ * Every input line yields one output line: the solution, "unsolved" if none was found within the limits,
+ * or "error: " followed by the reason the scramble was rejected.
+ * With a cache, scrambles reaching an already solved state (or a symmetric one) are answered without solving.
+ */
+public class BatchSolvePipeline {
+    public static final int DEFAULT_IN_FLIGHT_PER_WORKER = 64;
+    public static final int DEFAULT_CACHE_SIZE = 1 << 16;
+
+    private final int workers;
+    private final int maxInFlight;
+    private final int maxLength;
+    private final long timeoutMillis;
+    private final SolutionCache cache;
+
+    /**
+     * Creates a pipeline with the given limits.
+     *
+     * @param workers       amount of threads solving the scrambles
+     * @param maxInFlight   the maximal amount of scrambles read but not written yet
+     * @param maxLength     the maximal amount of moves of a solution
+     * @param timeoutMillis time budget of a single solve, in milliseconds
+     */
+    public BatchSolvePipeline(int workers, int maxInFlight, int maxLength, long timeoutMillis) {
+        this(workers, maxInFlight, maxLength, timeoutMillis, null);
+    }
+
+    /**
+     * Creates a pipeline with the given limits, looking solutions up in the given cache first.
+     *
+     * @param workers       amount of threads solving the scrambles
+     * @param maxInFlight   the maximal amount of scrambles read but not written yet
+     * @param maxLength     the maximal amount of moves of a solution
+     * @param timeoutMillis time budget of a single solve, in milliseconds
+     * @param cache         cache of solutions, shared with other users, or null to solve every scramble
+     */
+    public BatchSolvePipeline(int workers, int maxInFlight, int maxLength, long timeoutMillis, SolutionCache cache) {
+        if (workers < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Amounts of workers and scrambles in flight must be positive");
+        }
+        this.workers = workers;
+        this.maxInFlight = maxInFlight;
+        this.maxLength = maxLength;
+        this.timeoutMillis = timeoutMillis;
+        this.cache = cache;
+    }
+
+    /**
+     * Solves every scramble read from the input and writes the results to the output, in input order.
+     *
+     * @param input  scrambles, one per line
+     * @param output results, one per line
+     * @return statistics of the run
+     * @throws IOException if reading or writing failed
+     */
+    public Report run(BufferedReader input, Writer output) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        // every worker thread keeps its own solver, as solvers hold search state
+        ThreadLocal<TwoPhaseSolver> solvers = ThreadLocal.withInitial(() -> new TwoPhaseSolver(maxLength, timeoutMillis));
+        LatencyHistogram latencies = new LatencyHistogram();
+        Deque<Future<String>> inFlight = new ArrayDeque<>(maxInFlight);
+        long start = System.nanoTime();
+        long scrambles = 0;
+        try {
+            String line;
+            while ((line = input.readLine()) != null) {
+                if (inFlight.size() == maxInFlight) {
+                    writeResult(inFlight.removeFirst(), output);
+                }
+                String scramble = line;
+                inFlight.addLast(executor.submit(() -> solve(scramble, solvers.get(), latencies)));
+                scrambles++;
+            }
+            while (!inFlight.isEmpty()) {
+                writeResult(inFlight.removeFirst(), output);
+            }
+            output.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Report(scrambles, System.nanoTime() - start, latencies);
+    }
+
+    private String solve(String scramble, TwoPhaseSolver solver, LatencyHistogram latencies) {
+        long start = System.nanoTime();
+        try {
+            byte[] moves = CompactScrambleParser.parse(scramble);
+            int length = MoveSequences.simplify(moves, moves.length);
+            PackedCubeStateRepresentation state = new PackedCubeStateRepresentation();
+            CompactScrambleParser.apply(moves, length, state);
+            Solution solution = cache == null ? solver.solve(state) : cache.get(state, solver::solve);
+            return solution == null ? "unsolved" : solution.toString();
+        } catch (IllegalArgumentException e) {
+            return "error: " + e.getMessage();
+        } finally {
+            latencies.record(System.nanoTime() - start);
+        }
+    }
+
+    private static void writeResult(Future<String> result, Writer output) throws IOException {
+        try {
+            output.write(result.get());
+            output.write('\n');
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a result", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Solving failed", e.getCause());
+        }
+    }
+
+    /**
+     * Statistics of a single run.
+     */
+    public static class Report {
+        private final long scrambles;
+        private final long elapsedNanos;
+        private final LatencyHistogram latencies;
+
+        private Report(long scrambles, long elapsedNanos, LatencyHistogram latencies) {
+            this.scrambles = scrambles;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+        }
+
+        public long getScrambles() {
+            return scrambles;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the amount of scrambles processed per second.
+         *
+         * @return the throughput
+         */
+        public double getThroughput() {
+            return elapsedNanos == 0 ? 0 : scrambles * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Returns the latency of a single scramble (parsing, applying and solving) at the given percentile.
+         *
+         * @param percentile fraction between 0 and 100
+         * @return the latency in microseconds
+         */
+        public long getLatencyPercentile(double percentile) {
+            return latencies.getPercentile(percentile);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d scrambles in %.3f s, %.1f scrambles/s, latency p50 %d us, p90 %d us, p99 %d us, p99.9 %d us",
+                    scrambles, elapsedNanos / 1e9, getThroughput(),
+                    getLatencyPercentile(50), getLatencyPercentile(90),
+                    getLatencyPercentile(99), getLatencyPercentile(99.9));
+        }
+    }
+
+    /**
+     * Solves scrambles from the file given as the first argument, or the standard input if there is none or it is "-".
+     * Results go to the standard output, statistics to the standard error.
+     */
+    public static void main(String[] args) throws IOException {
+        int workers = Runtime.getRuntime().availableProcessors();
+        SolutionCache cache = new SolutionCache(DEFAULT_CACHE_SIZE, 0);
+        BatchSolvePipeline pipeline = new BatchSolvePipeline(workers, workers * DEFAULT_IN_FLIGHT_PER_WORKER,
+                TwoPhaseSolver.DEFAULT_MAX_LENGTH, TwoPhaseSolver.DEFAULT_TIMEOUT_MILLIS, cache);
+        try (BufferedReader input = args.length == 0 || args[0].equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+             Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            Report report = pipeline.run(input, output);
+            System.err.println(report);
+            System.err.printf("cache: %d hits, %d misses, %d evictions%n",
+                    cache.getHits(), cache.getMisses(), cache.getEvictions());
+        }
+    }
+}
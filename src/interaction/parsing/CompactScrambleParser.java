@@ -0,0 +1,296 @@
+package interaction.parsing;
+
+import instrumentation.Instrumentation;
+import representation.ArrayCubeStateRepresentation;
+import representation.PackedCubeStateRepresentation;
+import representation.moves.Face;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Parses scrambles into arrays of move indices (as in MoveTables) without creating an object per move.
+ * <p>
+ * Supports face moves (R), wide moves (Rw, r), slices (M, E, S) and rotations (x, y, z),
+ * each optionally followed by 2, ' or 2'. Moves may be separated by whitespace or written back to back.
+ * The cube representations keep centres fixed, so rotations are tracked as a change of the frame
+ * the following moves are read in, and wide moves and slices become face moves plus a rotation.
+ * A slice yields two face moves, every other move at most one.
+ */
+public final class CompactScrambleParser {
+    private static final int FACES = 6;
+    private static final int ORIENTATIONS = 24;
+
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int Z = 2;
+
+    // [rotation][position] - position whose contents move to the given position after a quarter rotation
+    private static final int[][] ROTATION_SOURCE = {
+            {0, 1, 4, 5, 3, 2}, // x - like R: F goes up
+            {5, 4, 2, 3, 0, 1}, // y - like U: R goes front
+            {2, 3, 1, 0, 4, 5}, // z - like F: L goes up
+    };
+
+    // [orientation][face as written] - face of the fixed frame it turns
+    private static final byte[][] ORIENTATION_FACES = new byte[ORIENTATIONS][FACES];
+    // [orientation][rotation] - orientation after a quarter rotation
+    private static final byte[][] ORIENTATION_ROTATIONS = new byte[ORIENTATIONS][3];
+
+    static {
+        // breadth-first search over the frames reachable by rotations, the identity gets index 0
+        int found = 1;
+        for (int face = 0; face < FACES; face++) {
+            ORIENTATION_FACES[0][face] = (byte) face;
+        }
+        for (int orientation = 0; orientation < found; orientation++) {
+            for (int rotation = X; rotation <= Z; rotation++) {
+                byte[] rotated = new byte[FACES];
+                for (int position = 0; position < FACES; position++) {
+                    rotated[position] = ORIENTATION_FACES[orientation][ROTATION_SOURCE[rotation][position]];
+                }
+                int index = 0;
+                while (index < found && !Arrays.equals(ORIENTATION_FACES[index], rotated)) {
+                    index++;
+                }
+                if (index == found) {
+                    ORIENTATION_FACES[found++] = rotated;
+                }
+                ORIENTATION_ROTATIONS[orientation][rotation] = (byte) index;
+            }
+        }
+    }
+
+    private CompactScrambleParser() {
+    }
+
+    /**
+     * Parses the scramble into a new array of move indices.
+     *
+     * @param scramble the scramble to be parsed
+     * @return indices of the moves, as in MoveTables
+     * @throws ScrambleParseException if the scramble is not valid notation
+     */
+    public static byte[] parse(CharSequence scramble) {
+        byte[] moves = new byte[2 * scramble.length()];
+        int length = parse(scramble, moves);
+        byte[] result = new byte[length];
+        System.arraycopy(moves, 0, result, 0, length);
+        return result;
+    }
+
+    /**
+     * Parses the scramble into the given array, without allocating.
+     *
+     * @param scramble the scramble to be parsed
+     * @param moves    array to be filled with indices of the moves, as in MoveTables
+     * @return the amount of moves written
+     * @throws ScrambleParseException if the scramble is not valid notation or the moves don't fit in the array
+     */
+    public static int parse(CharSequence scramble, byte[] moves) {
+        long startNanos = Instrumentation.ENABLED ? System.nanoTime() : 0;
+        int length = 0;
+        int orientation = 0;
+        int end = scramble.length();
+        int i = 0;
+        while (i < end) {
+            char c = scramble.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            int start = i++;
+            boolean wide = false;
+            int face = faceIndex(c);
+            if (face < 0) {
+                face = faceIndex(Character.toUpperCase(c));
+                wide = face >= 0 && Character.isLowerCase(c);
+            } else if (i < end && scramble.charAt(i) == 'w') {
+                wide = true;
+                i++;
+            }
+
+            int amount = 1;
+            if (i < end && scramble.charAt(i) == '2') {
+                amount = 2;
+                i++;
+                if (i < end && isPrime(scramble.charAt(i))) {
+                    i++; // 2' is the same as 2
+                }
+            } else if (i < end && isPrime(scramble.charAt(i))) {
+                amount = 3;
+                i++;
+            }
+            if (i < end && (Character.isDigit(scramble.charAt(i)) || isPrime(scramble.charAt(i)))) {
+                throw new ScrambleParseException("Invalid amount '" + scramble.charAt(i) + "'", i);
+            }
+
+            int needed = face >= 0 ? 1 : isSlice(c) ? 2 : 0;
+            if (length + needed > moves.length) {
+                throw new ScrambleParseException("Too many moves", start);
+            }
+            if (face >= 0) {
+                if (wide) {
+                    // a wide move is the opposite face turned the same way, followed by a rotation
+                    length = emit(moves, length, orientation, face ^ 1, amount);
+                    orientation = rotate(orientation, axis(face), isPositive(face) ? amount : 4 - amount);
+                } else {
+                    length = emit(moves, length, orientation, face, amount);
+                }
+            } else {
+                switch (c) {
+                    case 'M' -> { // like L
+                        length = emit(moves, length, orientation, Face.RIGHT.ordinal(), amount);
+                        length = emit(moves, length, orientation, Face.LEFT.ordinal(), 4 - amount);
+                        orientation = rotate(orientation, X, 4 - amount);
+                    }
+                    case 'E' -> { // like D
+                        length = emit(moves, length, orientation, Face.UP.ordinal(), amount);
+                        length = emit(moves, length, orientation, Face.DOWN.ordinal(), 4 - amount);
+                        orientation = rotate(orientation, Y, 4 - amount);
+                    }
+                    case 'S' -> { // like F
+                        length = emit(moves, length, orientation, Face.FRONT.ordinal(), 4 - amount);
+                        length = emit(moves, length, orientation, Face.BACK.ordinal(), amount);
+                        orientation = rotate(orientation, Z, amount);
+                    }
+                    case 'x' -> orientation = rotate(orientation, X, amount);
+                    case 'y' -> orientation = rotate(orientation, Y, amount);
+                    case 'z' -> orientation = rotate(orientation, Z, amount);
+                    default -> throw new ScrambleParseException("Invalid move '" + c + "'", start);
+                }
+            }
+        }
+        if (Instrumentation.ENABLED) {
+            Instrumentation.scrambleParsed(length, startNanos);
+        }
+        return length;
+    }
+
+    /**
+     * Parses the ASCII scramble between the position and the limit of the buffer into the given array,
+     * without allocating per move. The position of the buffer is not changed.
+     *
+     * @param scramble the scramble to be parsed, in ASCII
+     * @param moves    array to be filled with indices of the moves, as in MoveTables
+     * @return the amount of moves written
+     * @throws ScrambleParseException if the scramble is not valid notation or the moves don't fit in the array
+     */
+    public static int parse(ByteBuffer scramble, byte[] moves) {
+        return parse(new AsciiSequence(scramble), moves);
+    }
+
+    /**
+     * Applies the parsed moves to the given state.
+     *
+     * @param moves  indices of the moves, as in MoveTables
+     * @param length the amount of moves to be applied
+     * @param state  the state the moves are applied to
+     */
+    public static void apply(byte[] moves, int length, PackedCubeStateRepresentation state) {
+        for (int i = 0; i < length; i++) {
+            state.makeMove(moves[i]);
+        }
+    }
+
+    /**
+     * Applies the parsed moves to the given state.
+     *
+     * @param moves  indices of the moves, as in MoveTables
+     * @param length the amount of moves to be applied
+     * @param state  the state the moves are applied to
+     */
+    public static void apply(byte[] moves, int length, ArrayCubeStateRepresentation state) {
+        for (int i = 0; i < length; i++) {
+            state.makeMove(moves[i]);
+        }
+    }
+
+    // writes the move index, 3 * face + amount - 1 as in MoveTables
+    private static int emit(byte[] moves, int length, int orientation, int face, int amount) {
+        int actualFace = ORIENTATION_FACES[orientation][face];
+        moves[length] = (byte) (3 * actualFace + amount - 1);
+        return length + 1;
+    }
+
+    private static int rotate(int orientation, int rotation, int amount) {
+        for (int i = 0; i < amount % 4; i++) {
+            orientation = ORIENTATION_ROTATIONS[orientation][rotation];
+        }
+        return orientation;
+    }
+
+    private static int faceIndex(char c) {
+        return switch (c) {
+            case 'R' -> 0;
+            case 'L' -> 1;
+            case 'U' -> 2;
+            case 'D' -> 3;
+            case 'F' -> 4;
+            case 'B' -> 5;
+            default -> -1;
+        };
+    }
+
+    // rotation axis of the face: R, L - x; U, D - y; F, B - z
+    private static int axis(int face) {
+        return face / 2;
+    }
+
+    // whether the face turns the same way as the rotation of its axis
+    private static boolean isPositive(int face) {
+        return face % 2 == 0;
+    }
+
+    private static boolean isSlice(char c) {
+        return c == 'M' || c == 'E' || c == 'S';
+    }
+
+    private static boolean isPrime(char c) {
+        return c == '\'' || c == '’';
+    }
+
+    /**
+     * View of ASCII bytes as characters, reading the buffer with absolute gets.
+     */
+    private static final class AsciiSequence implements CharSequence {
+        private final ByteBuffer buffer;
+        private final int start;
+        private final int length;
+
+        private AsciiSequence(ByteBuffer buffer) {
+            this(buffer, buffer.position(), buffer.remaining());
+        }
+
+        private AsciiSequence(ByteBuffer buffer, int start, int length) {
+            this.buffer = buffer;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            Objects.checkFromToIndex(from, to, length);
+            return new AsciiSequence(buffer, start + from, to - from);
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[length];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
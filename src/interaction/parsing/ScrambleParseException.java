@@ -0,0 +1,30 @@
+package interaction.parsing;
+
+/**
+ * Thrown when a scramble is not valid notation, pointing at the offending character.
+ */
+public class ScrambleParseException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final int offset;
+
+    /**
+     * Creates an exception for the error at the given position of the scramble.
+     *
+     * @param message description of the error
+     * @param offset  index of the offending character in the scramble
+     */
+    public ScrambleParseException(String message, int offset) {
+        super(message + " at offset " + offset);
+        this.offset = offset;
+    }
+
+    /**
+     * Returns the index of the offending character in the scramble.
+     *
+     * @return the index of the offending character
+     */
+    public int getOffset() {
+        return offset;
+    }
+}
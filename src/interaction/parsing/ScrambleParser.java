@@ -1,36 +1,97 @@
 package interaction.parsing;
 
+import instrumentation.Instrumentation;
 import representation.ArrayCubeStateRepresentation;
+import representation.moves.Face;
+import representation.moves.MoveSequences;
+import representation.moves.MoveTables;
+import representation.nxn.NxNCubeState;
+import representation.nxn.NxNMove;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class ScrambleParser {
+    // Largest layer count of a big cube move, far beyond any cube that is turned, and far from overflowing
+    public static final int MAX_DEPTH = 1000;
+
     private final List<Move> moves;
 
+    /**
+     * Parses the scramble.
+     *
+     * @param scramble moves separated by whitespace or not at all
+     * @throws ScrambleParseException if the scramble is not valid notation
+     */
     public ScrambleParser(String scramble) {
+        long startNanos = Instrumentation.ENABLED ? System.nanoTime() : 0;
         moves = new ArrayList<>();
         for (int i = 0; i < scramble.length(); i++) {
             char move = scramble.charAt(i);
-            if (move == ' ') {
+            if (Character.isWhitespace(move)) {
                 continue;
             }
+            // layer prefix of big cube moves, as in 3Rw
+            int start = i;
+            int depth = 0;
+            while (isDigit(move)) {
+                depth = 10 * depth + (move - '0');
+                if (depth > MAX_DEPTH) {
+                    throw new ScrambleParseException("Layer count larger than " + MAX_DEPTH, start);
+                }
+                if (++i == scramble.length()) {
+                    throw new ScrambleParseException("Missing face after layer count", start);
+                }
+                move = scramble.charAt(i);
+            }
+            if (i > start && depth == 0) {
+                throw new ScrambleParseException("Layer count must be positive", start);
+            }
+            if (!Move.isMoveLetter(move)) {
+                throw new ScrambleParseException("Invalid move '" + move + "'", i);
+            }
+            boolean wide = false;
+            if (Move.isFaceLetter(move) && i + 1 < scramble.length() && scramble.charAt(i + 1) == 'w') {
+                wide = true;
+                i++;
+            }
+            int amount = 1;
             if (i + 1 < scramble.length() && scramble.charAt(i + 1) == '2') {
-                moves.add(new Move(move, 2));
+                amount = 2;
                 i++;
-            } else if (i + 1 < scramble.length() && scramble.charAt(i + 1) == '\'') {
-                moves.add(new Move(move, -1));
+                if (i + 1 < scramble.length() && isPrime(scramble.charAt(i + 1))) {
+                    i++; // 2' is the same as 2
+                }
+            } else if (i + 1 < scramble.length() && isPrime(scramble.charAt(i + 1))) {
+                amount = -1;
                 i++;
-            } else {
-                // TODO handle invalid moves
-                moves.add(new Move(move, 1));
             }
+            if (i + 1 < scramble.length()) {
+                char next = scramble.charAt(i + 1);
+                if (isDigit(next) || isPrime(next)) {
+                    throw new ScrambleParseException("Invalid amount '" + next + "'", i + 1);
+                }
+            }
+            moves.add(new Move(move, depth, wide, amount));
+        }
+        if (Instrumentation.ENABLED) {
+            Instrumentation.scrambleParsed(moves.size(), startNanos);
         }
     }
 
+    /**
+     * Applies the scramble to the given state, simplified first so that cancelling moves are not made.
+     *
+     * @param state the state the scramble is applied to
+     */
     public void applyScramble(ArrayCubeStateRepresentation state) {
-        for (Move move : moves) {
-            move.applyMove(state);
+        int[] indices = new int[moves.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = moves.get(i).toMoveIndex();
+        }
+        int length = MoveSequences.simplify(indices, indices.length);
+        for (int i = 0; i < length; i++) {
+            state.makeMove(indices[i]);
         }
     }
 
@@ -40,40 +101,89 @@ public class ScrambleParser {
         return state;
     }
 
+    /**
+     * Applies the scramble to the given NxN cube, wide moves, slices and rotations included.
+     *
+     * @param state the state the scramble is applied to
+     * @throws IllegalArgumentException if a move doesn't exist on a cube of that size
+     */
+    public void applyScramble(NxNCubeState state) {
+        for (Move move : moves) {
+            state.makeMove(move.toNxNMove());
+        }
+    }
+
+    public NxNCubeState getScrambleStateInstance(int size) {
+        NxNCubeState state = new NxNCubeState(size);
+        applyScramble(state);
+        return state;
+    }
+
+    // only ASCII digits, Character.isDigit also takes other scripts' digits, whose value isn't c - '0'
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isPrime(char c) {
+        return c == '\'' || c == '’';
+    }
+
     // static means that it doesn't have access to the outer instance variables
     private static class Move {
         private final char face;
+        // amount of layers of a wide move or the index of a single layer, 0 if not given
+        private final int depth;
+        private final boolean wide;
         private final int amount;
 
-        public Move(char face, int amount) {
+        public Move(char face, int depth, boolean wide, int amount) {
             this.face = face;
+            this.depth = depth;
+            this.wide = wide;
             this.amount = amount;
         }
 
-        public void applyMove(ArrayCubeStateRepresentation state) {
-            switch (face) {
-                case 'R':
-                    state.makeRightMove(amount);
-                    break;
-                case 'L':
-                    state.makeLeftMove(amount);
-                    break;
-                case 'U':
-                    state.makeUpMove(amount);
-                    break;
-                case 'D':
-                    state.makeDownMove(amount);
-                    break;
-                case 'F':
-                    state.makeFrontMove(amount);
-                    break;
-                case 'B':
-                    state.makeBackMove(amount);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Invalid move");
-                    // TODO handle invalid moves
+        public int toMoveIndex() {
+            if (depth > 1 || wide && depth != 1 || !isFaceLetter(face)) {
+                // the 3x3 representations keep their centres fixed, so they only take outer layer turns
+                throw new IllegalArgumentException("Only face moves can be applied to a 3x3 state, not " + this);
             }
+            return MoveTables.moveIndex(Face.fromNotation(face), amount);
+        }
+
+        public NxNMove toNxNMove() {
+            int quarterTurns = amount < 0 ? 4 + amount : amount;
+            return switch (face) {
+                case 'x' -> new NxNMove(Face.RIGHT, NxNMove.ALL_LAYERS, false, quarterTurns);
+                case 'y' -> new NxNMove(Face.UP, NxNMove.ALL_LAYERS, false, quarterTurns);
+                case 'z' -> new NxNMove(Face.FRONT, NxNMove.ALL_LAYERS, false, quarterTurns);
+                case 'M' -> new NxNMove(Face.LEFT, NxNMove.MIDDLE_LAYER, false, quarterTurns);
+                case 'E' -> new NxNMove(Face.DOWN, NxNMove.MIDDLE_LAYER, false, quarterTurns);
+                case 'S' -> new NxNMove(Face.FRONT, NxNMove.MIDDLE_LAYER, false, quarterTurns);
+                default -> {
+                    if (isFaceLetter(Character.toUpperCase(face)) && Character.isLowerCase(face)) {
+                        // r is the same as Rw, the outer 2 layers unless told otherwise
+                        yield new NxNMove(Face.fromNotation(Character.toUpperCase(face)), depth == 0 ? 2 : depth, true, quarterTurns);
+                    }
+                    int layers = depth != 0 ? depth : wide ? 2 : 1;
+                    yield new NxNMove(Face.fromNotation(face), layers, wide, quarterTurns);
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return (depth != 0 ? String.valueOf(depth) : "") + face + (wide ? "w" : "")
+                    + (amount == 2 ? "2" : amount < 0 ? "'" : "");
+        }
+
+        private static boolean isFaceLetter(char c) {
+            return "RLUDFB".indexOf(c) >= 0;
+        }
+
+        // face turns, their lowercase wide forms, slices and rotations
+        private static boolean isMoveLetter(char c) {
+            return isFaceLetter(Character.toUpperCase(c)) || "MESxyz".indexOf(c) >= 0;
         }
     }
 }
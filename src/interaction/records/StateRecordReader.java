@@ -0,0 +1,218 @@
+package interaction.records;
+
+import representation.PackedCubeStateRepresentation;
+import solving.Solution;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads state records in the format described in StateRecords, straight from a byte buffer:
+ * the reader is a cursor over the records and creates no object per record.
+ * <p>
+ * Files are memory-mapped in windows of up to WINDOW_BYTES, as a single mapping is limited to 2 GB,
+ * and the next window is mapped when fewer bytes than the largest record are left in the current one.
+ * Skipping a record only needs its move count, so scanning the states of a file runs at the speed of the disk.
+ * Not thread-safe.
+ */
+public class StateRecordReader implements Closeable {
+    public static final long WINDOW_BYTES = 1L << 30;
+
+    // null when reading a buffer given by the caller
+    private final FileChannel channel;
+    private final long size;
+
+    private ByteBuffer buffer;
+    private long windowStart;
+    // offsets in the buffer: of the current record (-1 before the first one) and of the next one
+    private int current = -1;
+    private int next;
+    private int moveCount;
+    private long index = -1;
+
+    /**
+     * Creates a reader of the records between the position and the limit of the buffer, header included.
+     * The buffer is not copied, and its position is not changed.
+     *
+     * @param records the records
+     * @throws IOException if the buffer doesn't start with a header of this version
+     */
+    public StateRecordReader(ByteBuffer records) throws IOException {
+        this.channel = null;
+        this.buffer = records.slice().order(ByteOrder.BIG_ENDIAN);
+        this.size = buffer.limit();
+        readHeader();
+    }
+
+    private StateRecordReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        map(0);
+        readHeader();
+    }
+
+    /**
+     * Opens a reader of the records of the given file, written by StateRecordWriter.
+     *
+     * @param file the file to be read
+     * @return the reader, to be closed
+     * @throws IOException if the file could not be mapped or doesn't start with a header of this version
+     */
+    public static StateRecordReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new StateRecordReader(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return whether there is one, false at the end of the records
+     * @throws IOException if the record is truncated or the next window could not be mapped
+     */
+    public boolean next() throws IOException {
+        if (channel != null && buffer.limit() - next < StateRecords.MAX_RECORD_BYTES && windowStart + buffer.limit() < size) {
+            map(windowStart + next);
+        }
+        if (next == buffer.limit()) {
+            return false;
+        }
+        if (buffer.limit() - next <= StateRecords.STATE_BYTES) {
+            throw new IOException("Truncated record " + (index + 1));
+        }
+        current = next;
+        moveCount = buffer.get(current + StateRecords.STATE_BYTES) & 0xFF;
+        next = current + StateRecords.recordBytes(moveCount);
+        if (next > buffer.limit()) {
+            throw new IOException("Truncated record " + (index + 1));
+        }
+        index++;
+        return true;
+    }
+
+    /**
+     * Returns the index of the current record, counted from 0.
+     *
+     * @return the index of the record, -1 before the first call to next()
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    public long getPackedCorners() {
+        return buffer.getLong(current);
+    }
+
+    public long getPackedEdges() {
+        return buffer.getLong(current + Long.BYTES);
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Decodes the moves of the current record into the given array.
+     *
+     * @param moves array to be filled with indices of the moves, as in MoveTables, at least getMoveCount() long
+     * @return the amount of moves written
+     * @throws IOException if the record holds an invalid move
+     */
+    public int getMoves(int[] moves) throws IOException {
+        if (moveCount == 0) {
+            return 0;
+        }
+        int offset = current + StateRecords.STATE_BYTES + 1;
+        int move = buffer.get(offset);
+        if (!StateRecords.isMove(move)) {
+            throw new IOException("Invalid move in record " + index);
+        }
+        moves[0] = move;
+        for (int i = 1; i < moveCount; i++) {
+            int packed = buffer.get(offset + 1 + (i - 1) / 2);
+            int nibble = (i - 1) % 2 == 0 ? (packed >> 4) & 0xF : packed & 0xF;
+            move = StateRecords.decode(move / 3, nibble);
+            if (move < 0) {
+                throw new IOException("Invalid move in record " + index);
+            }
+            moves[i] = move;
+        }
+        return moveCount;
+    }
+
+    /**
+     * Returns the state of the current record as a new object, for when it is needed beyond the packed longs.
+     *
+     * @return the state
+     */
+    public PackedCubeStateRepresentation getState() {
+        return new PackedCubeStateRepresentation(getPackedCorners(), getPackedEdges());
+    }
+
+    /**
+     * Returns the moves of the current record as a new object.
+     *
+     * @return the moves
+     * @throws IOException if the record holds an invalid move
+     */
+    public Solution getSolution() throws IOException {
+        int[] moves = new int[moveCount];
+        getMoves(moves);
+        return new Solution(moves);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void readHeader() throws IOException {
+        if (buffer.limit() < StateRecords.HEADER_BYTES || buffer.getInt(0) != StateRecords.MAGIC) {
+            throw new IOException("Not a state record file");
+        }
+        int version = buffer.getInt(Integer.BYTES);
+        if (version != StateRecords.VERSION) {
+            throw new IOException("Unsupported state record file version: " + version);
+        }
+        next = StateRecords.HEADER_BYTES;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_BYTES, size - start));
+        next = 0;
+        current = -1;
+    }
+
+    /**
+     * Scans a state record file and prints the amount of records, moves and the throughput to the standard output.
+     * The argument is the path of the file.
+     */
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        long records = 0;
+        long moves = 0;
+        long checksum = 0;
+        try (StateRecordReader reader = open(Path.of(args[0]))) {
+            while (reader.next()) {
+                records++;
+                moves += reader.getMoveCount();
+                checksum += reader.getPackedCorners() ^ reader.getPackedEdges();
+            }
+            long elapsed = Math.max(1, System.nanoTime() - start);
+            System.out.printf("%d records, %d moves in %.3f s, %.1f MB/s (checksum %x)%n", records, moves,
+                    elapsed / 1e9, reader.size * 1e3 / elapsed, checksum);
+        }
+    }
+}
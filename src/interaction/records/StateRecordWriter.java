@@ -0,0 +1,111 @@
+package interaction.records;
+
+import representation.PackedCubeStateRepresentation;
+import solving.Solution;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes state records in the format described in StateRecords.
+ * Records are buffered, the writer must be closed (or flushed) for them to reach the output.
+ * Not thread-safe.
+ */
+public class StateRecordWriter implements Closeable {
+    private final DataOutputStream out;
+    private final byte[] record = new byte[StateRecords.MAX_RECORD_BYTES];
+    private long count;
+
+    /**
+     * Creates a writer writing the header and then the records to the given stream.
+     *
+     * @param out the stream, closed with the writer
+     * @throws IOException if the header could not be written
+     */
+    public StateRecordWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.out.writeInt(StateRecords.MAGIC);
+        this.out.writeInt(StateRecords.VERSION);
+    }
+
+    /**
+     * Creates a writer replacing the given file.
+     *
+     * @param file the file to be written
+     * @throws IOException if the file could not be created
+     */
+    public StateRecordWriter(Path file) throws IOException {
+        this(Files.newOutputStream(file));
+    }
+
+    /**
+     * Writes a record of the state and the solution.
+     *
+     * @param state    the state, not modified
+     * @param solution the moves, simplified
+     * @throws IOException if the record could not be written
+     */
+    public void write(PackedCubeStateRepresentation state, Solution solution) throws IOException {
+        write(state.getPackedCorners(), state.getPackedEdges(), solution.getMoves(), solution.length());
+    }
+
+    /**
+     * Writes a record of the packed state and the first moves of the array.
+     *
+     * @param packedCorners corners, as returned by PackedCubeStateRepresentation.getPackedCorners()
+     * @param packedEdges   edges, as returned by PackedCubeStateRepresentation.getPackedEdges()
+     * @param moves         indices of the moves, as in MoveTables, no two consecutive ones turning the same face
+     * @param length        the amount of moves to be written, at most StateRecords.MAX_MOVES
+     * @throws IllegalArgumentException if there are too many moves, or they are invalid or not simplified
+     * @throws IOException              if the record could not be written
+     */
+    public void write(long packedCorners, long packedEdges, int[] moves, int length) throws IOException {
+        if (length < 0 || length > StateRecords.MAX_MOVES) {
+            throw new IllegalArgumentException("Amount of moves must be between 0 and " + StateRecords.MAX_MOVES);
+        }
+        // encoded fully before writing, so that an invalid sequence leaves no partial record behind
+        int size = StateRecords.recordBytes(length);
+        record[0] = (byte) length;
+        if (length > 0) {
+            if (!StateRecords.isMove(moves[0])) {
+                throw new IllegalArgumentException("Invalid move: " + moves[0]);
+            }
+            record[1] = (byte) moves[0];
+            for (int i = 1; i < length; i++) {
+                if (!StateRecords.isMove(moves[i])) {
+                    throw new IllegalArgumentException("Invalid move: " + moves[i]);
+                }
+                int nibble = StateRecords.encode(moves[i - 1] / 3, moves[i]);
+                int index = 2 + (i - 1) / 2;
+                record[index] = (byte) ((i - 1) % 2 == 0 ? nibble << 4 | StateRecords.PADDING : (record[index] & 0xF0) | nibble);
+            }
+        }
+        out.writeLong(packedCorners);
+        out.writeLong(packedEdges);
+        out.write(record, 0, size - StateRecords.STATE_BYTES);
+        count++;
+    }
+
+    /**
+     * Returns the amount of records written so far.
+     *
+     * @return the amount of records
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,70 @@
+package interaction.records;
+
+import representation.moves.MoveTables;
+
+/**
+ * Binary format of files of state records, each a cube state with a sequence of moves, usually its solution.
+ * <p>
+ * A file is a header followed by records until its end, big-endian:
+ * <pre>
+ * 4 bytes  magic "NSRF"
+ * int      format version
+ * records, each:
+ *   long   packed corners, as in PackedCubeStateRepresentation
+ *   long   packed edges
+ *   byte   amount of moves n, unsigned
+ *   byte   the first move, index as in MoveTables (only if n > 0)
+ *   bytes  the remaining n - 1 moves, 4 bits each, high nibble first, padded with 0xF
+ * </pre>
+ * A record takes STATE_BYTES + 1 bytes without moves and STATE_BYTES + 2 + n / 2 bytes with them,
+ * so the moves of a state are found by reading one byte and never need to be decoded to skip the record.
+ * <p>
+ * 18 moves don't fit in 4 bits, but a move never turns the same face as the one before it in a simplified sequence
+ * (see MoveSequences), which leaves 15 possible moves after the first one: every other face, turned one of 3 ways.
+ * A nibble holds the index of the face among the 5 other faces times 3 plus the power.
+ */
+public final class StateRecords {
+    public static final int VERSION = 1;
+    public static final int MAGIC = ('N' << 24) | ('S' << 16) | ('R' << 8) | 'F';
+    public static final int HEADER_BYTES = 8;
+    public static final int STATE_BYTES = 16;
+    public static final int MAX_MOVES = 255;
+    public static final int MAX_RECORD_BYTES = recordBytes(MAX_MOVES);
+
+    static final int PADDING = 0xF;
+
+    private StateRecords() {
+    }
+
+    /**
+     * Returns the size of a record with the given amount of moves.
+     *
+     * @param moves the amount of moves
+     * @return the size of the record, in bytes
+     */
+    public static int recordBytes(int moves) {
+        return moves == 0 ? STATE_BYTES + 1 : STATE_BYTES + 2 + moves / 2;
+    }
+
+    // nibble of the move made after a move of the given face
+    static int encode(int previousFace, int move) {
+        int face = move / 3;
+        if (face == previousFace) {
+            throw new IllegalArgumentException("Consecutive moves of the same face, the moves must be simplified");
+        }
+        return (face < previousFace ? face : face - 1) * 3 + move % 3;
+    }
+
+    // move stored in the nibble after a move of the given face, -1 for an invalid nibble
+    static int decode(int previousFace, int nibble) {
+        if (nibble >= PADDING) {
+            return -1;
+        }
+        int face = nibble / 3;
+        return (face < previousFace ? face : face + 1) * 3 + nibble % 3;
+    }
+
+    static boolean isMove(int move) {
+        return move >= 0 && move < MoveTables.MOVES;
+    }
+}
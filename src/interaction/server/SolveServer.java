@@ -0,0 +1,374 @@
+package interaction.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import interaction.parsing.CompactScrambleParser;
+import representation.PackedCubeStateRepresentation;
+import representation.moves.MoveSequences;
+import representation.visual.Facelets;
+import solving.Solution;
+import solving.SolutionCache;
+import solving.TwoPhaseSolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP front end of the solver, on the JDK's built-in server with a virtual thread per request.
+ * Cubes are given as scrambles or as facelet strings (see Facelets), results are JSON.
+ * <pre>
+ * GET  /state?scramble=...        state reached by the scramble
+ * GET  /solve?scramble=...        solution of the state, facelets=... instead of scramble= for a facelet string
+ * POST /state, /solve             the same, the input being the body, ?input=facelets for a facelet string
+ * POST /batch/state, /batch/solve one input per line of the body, a JSON array of results in input order
+ * GET  /health                    status and counters
+ * </pre>
+ * Requests solving a state that is already being solved for another request wait for that solve instead of
+ * starting their own, so a burst of identical requests costs a single search.
+ * Searches run on a fixed pool with a platform thread per core, the virtual threads only handle the exchanges:
+ * a large batch queues its solves instead of oversubscribing the cores, and every search gets its whole time budget.
+ * Invalid inputs get status 400, or an "error" field in batch results. Unsolved states get a null solution.
+ * <p>
+ * shutdown() stops accepting connections and waits for the requests in progress, up to a grace period.
+ */
+public class SolveServer {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_GRACE_SECONDS = 10;
+    public static final int MAX_BODY_BYTES = 1 << 20;
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // searches are CPU-bound, more of them at once than there are cores would only slow each one down
+    private final ExecutorService solveExecutor =
+            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    private final int maxLength;
+    private final long timeoutMillis;
+    private final SolutionCache cache;
+
+    // solves in progress, by state
+    private final Map<StateKey, CompletableFuture<Solution>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder solves = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private volatile boolean stopping;
+
+    /**
+     * Creates a server bound to the given address, not started yet.
+     *
+     * @param address       address to listen on
+     * @param maxLength     the maximal amount of moves of a solution
+     * @param timeoutMillis time budget of a single solve, in milliseconds
+     * @param cache         cache of solutions, or null to solve every state
+     * @throws IOException if the address could not be bound
+     */
+    public SolveServer(InetSocketAddress address, int maxLength, long timeoutMillis, SolutionCache cache) throws IOException {
+        this.maxLength = maxLength;
+        this.timeoutMillis = timeoutMillis;
+        this.cache = cache;
+        server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/state", handler(false, false));
+        server.createContext("/solve", handler(true, false));
+        server.createContext("/batch/state", handler(false, true));
+        server.createContext("/batch/solve", handler(true, true));
+        server.createContext("/health", this::health);
+        server.createContext("/", exchange -> {
+            try (exchange) {
+                send(exchange, 404, error("Not found: " + exchange.getRequestURI().getPath()));
+            }
+        });
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the address the server listens on, with the actual port if it was bound to port 0.
+     *
+     * @return the address
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops accepting connections, waits for the requests in progress to complete and releases the threads.
+     *
+     * @param graceSeconds how long to wait for the requests in progress
+     */
+    public void shutdown(int graceSeconds) {
+        stopping = true;
+        // closes the listener at once, then waits for the exchanges in progress up to the delay
+        server.stop(graceSeconds);
+        executor.shutdownNow();
+        solveExecutor.shutdownNow();
+    }
+
+    private HttpHandler handler(boolean solve, boolean batch) {
+        return exchange -> {
+            requests.increment();
+            try (exchange) {
+                try {
+                    respond(exchange, solve, batch);
+                } catch (RequestException e) {
+                    send(exchange, e.status, error(e.getMessage()));
+                } catch (RuntimeException e) {
+                    send(exchange, 500, error("Internal error: " + e));
+                }
+            }
+        };
+    }
+
+    private void respond(HttpExchange exchange, boolean solve, boolean batch) throws IOException {
+        if (stopping) {
+            throw new RequestException(503, "Shutting down");
+        }
+        String method = exchange.getRequestMethod();
+        if (!method.equals("POST") && (batch || !method.equals("GET"))) {
+            exchange.getResponseHeaders().set("Allow", batch ? "POST" : "GET, POST");
+            throw new RequestException(405, "Method not allowed");
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (batch) {
+            handleBatch(exchange, query, solve);
+        } else {
+            handleSingle(exchange, query, solve);
+        }
+    }
+
+    private void handleSingle(HttpExchange exchange, Map<String, String> query, boolean solve) throws IOException {
+        boolean facelets;
+        String input;
+        if (exchange.getRequestMethod().equals("GET")) {
+            facelets = query.containsKey("facelets");
+            input = facelets ? query.get("facelets") : query.get("scramble");
+            if (input == null) {
+                throw new RequestException(400, "Missing scramble or facelets parameter");
+            }
+        } else {
+            facelets = isFaceletInput(query);
+            input = readBody(exchange).strip();
+        }
+        PackedCubeStateRepresentation state;
+        try {
+            state = toState(input, facelets);
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, e.getMessage());
+        }
+        send(exchange, 200, result(input, state, solve ? solve(state) : null));
+    }
+
+    private void handleBatch(HttpExchange exchange, Map<String, String> query, boolean solve) throws IOException {
+        boolean facelets = isFaceletInput(query);
+        List<String> inputs = readBody(exchange).lines().toList();
+        if (inputs.size() > MAX_BATCH_SIZE) {
+            throw new RequestException(413, "At most " + MAX_BATCH_SIZE + " inputs per batch");
+        }
+        // inputs are parsed here and all their solves queued before the results are collected in input order
+        PackedCubeStateRepresentation[] states = new PackedCubeStateRepresentation[inputs.size()];
+        String[] errors = new String[inputs.size()];
+        List<CompletableFuture<Solution>> solutions = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            try {
+                states[i] = toState(inputs.get(i).strip(), facelets);
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+            }
+            solutions.add(solve && states[i] != null ? solve(states[i]) : null);
+        }
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < inputs.size(); i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            if (errors[i] != null) {
+                body.append("{\"input\":" + quote(inputs.get(i)) + ",\"error\":" + quote(errors[i]) + "}");
+            } else {
+                body.append(result(inputs.get(i), states[i], solutions.get(i)));
+            }
+        }
+        send(exchange, 200, body.append(']').toString());
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            send(exchange, stopping ? 503 : 200, "{\"status\":" + quote(stopping ? "stopping" : "ok")
+                    + ",\"requests\":" + requests.sum() + ",\"solves\":" + solves.sum()
+                    + ",\"coalesced\":" + coalesced.sum() + ",\"inFlight\":" + inFlight.size() + "}");
+        }
+    }
+
+    // solving is null if only the state is asked for
+    private String result(String input, PackedCubeStateRepresentation state, CompletableFuture<Solution> solving) {
+        StringBuilder json = new StringBuilder("{\"input\":").append(quote(input))
+                .append(",\"facelets\":").append(quote(Facelets.toFacelets(state)))
+                .append(",\"solved\":").append(state.isSolved());
+        if (solving != null) {
+            Solution solution;
+            try {
+                solution = solving.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            json.append(",\"solution\":").append(solution == null ? "null" : quote(solution.toString()))
+                    .append(",\"length\":").append(solution == null ? "null" : String.valueOf(solution.length()));
+        }
+        return json.append('}').toString();
+    }
+
+    // queues the solve of the state, or returns the solve of an identical state already in progress
+    private CompletableFuture<Solution> solve(PackedCubeStateRepresentation state) throws RequestException {
+        StateKey key = new StateKey(state.getPackedCorners(), state.getPackedEdges());
+        CompletableFuture<Solution> created = new CompletableFuture<>();
+        CompletableFuture<Solution> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        solves.increment();
+        try {
+            solveExecutor.execute(() -> {
+                try {
+                    // solvers keep search state, and creating one is cheap next to a search
+                    TwoPhaseSolver solver = new TwoPhaseSolver(maxLength, timeoutMillis);
+                    created.complete(cache == null ? solver.solve(state) : cache.get(state, solver::solve));
+                } catch (RuntimeException | Error e) {
+                    // completed either way, or the requests waiting for it would never be answered
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, created);
+            throw new RequestException(503, "Shutting down");
+        }
+        return created;
+    }
+
+    private static PackedCubeStateRepresentation toState(String input, boolean facelets) {
+        if (facelets) {
+            return Facelets.toPackedState(input);
+        }
+        byte[] moves = CompactScrambleParser.parse(input);
+        int length = MoveSequences.simplify(moves, moves.length);
+        PackedCubeStateRepresentation state = new PackedCubeStateRepresentation();
+        CompactScrambleParser.apply(moves, length, state);
+        return state;
+    }
+
+    private static boolean isFaceletInput(Map<String, String> query) throws RequestException {
+        String input = query.getOrDefault("input", "scramble");
+        return switch (input) {
+            case "scramble" -> false;
+            case "facelets" -> true;
+            default -> throw new RequestException(400, "Input must be scramble or facelets, not " + input);
+        };
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new RequestException(413, "Body larger than " + MAX_BODY_BYTES + " bytes");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = equals < 0 ? parameter : parameter.substring(0, equals);
+            String value = equals < 0 ? "" : parameter.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    private static String quote(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private record StateKey(long corners, long edges) {
+    }
+
+    // rejected request, answered with the status
+    private static final class RequestException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Runs the server until the process is terminated, then shuts it down gracefully.
+     * Arguments are the port (DEFAULT_PORT by default) and the size of the solution cache (none by default).
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        SolutionCache cache = args.length > 1 ? new SolutionCache(Integer.parseInt(args[1]), 0) : null;
+        SolveServer server = new SolveServer(new InetSocketAddress(port), TwoPhaseSolver.DEFAULT_MAX_LENGTH,
+                TwoPhaseSolver.DEFAULT_TIMEOUT_MILLIS, cache);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.shutdown(DEFAULT_GRACE_SECONDS)));
+        server.start();
+        System.out.println("Listening on " + server.getAddress());
+    }
+}
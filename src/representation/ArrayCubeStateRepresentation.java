@@ -1,5 +1,8 @@
 package representation;
 
+import instrumentation.Instrumentation;
+import representation.moves.Face;
+import representation.moves.MoveTables;
 import representation.pieces.Corner;
 import representation.pieces.Edge;
 
@@ -18,29 +21,55 @@ public class ArrayCubeStateRepresentation {
         corners = new Corner[2][4];
         for (int i = 0; i < Corner.LAYERS; i++) {
             for (int j = 0; j < Corner.POSITIONS; j++) {
-                corners[i][j] = new Corner(4 * i + j);
+                corners[i][j] = Corner.of(4 * i + j);
             }
         }
 
         edges = new Edge[3][4];
         for (int i = 0; i < Edge.LAYERS; i++) {
             for (int j = 0; j < Edge.POSITIONS; j++) {
-                edges[i][j] = new Edge(4 * i + j);
+                edges[i][j] = Edge.of(4 * i + j);
             }
         }
     }
 
+    /**
+     * Creates a cube state representation from the given pieces, laid out the same way as getCorners() and getEdges().
+     * The arrays are used directly, without copying.
+     *
+     * @param corners corners indexed by [layer][position]
+     * @param edges   edges indexed by [layer][position]
+     */
+    public ArrayCubeStateRepresentation(Corner[][] corners, Edge[][] edges) {
+        if (corners.length != Corner.LAYERS || edges.length != Edge.LAYERS) {
+            throw new IllegalArgumentException("Invalid amount of layers");
+        }
+        this.corners = corners;
+        this.edges = edges;
+    }
+
+    /**
+     * Creates a copy of the given cube state, sharing no arrays with it. Pieces are immutable, so they are shared.
+     *
+     * @param state the cube state to be copied
+     */
+    public ArrayCubeStateRepresentation(ArrayCubeStateRepresentation state) {
+        corners = new Corner[Corner.LAYERS][];
+        for (int i = 0; i < Corner.LAYERS; i++) {
+            corners[i] = state.corners[i].clone();
+        }
+
+        edges = new Edge[Edge.LAYERS][];
+        for (int i = 0; i < Edge.LAYERS; i++) {
+            edges[i] = state.edges[i].clone();
+        }
+    }
+
     /**
      * Applies permutation of pieces corresponding to the right move.
      */
     public void makeRightMove() {
-        int[][] cornerFacePermutation = {{0, 2}, {1, 2}, {1, 1}, {0, 1}};
-        makeImpliedFaceCornerPermutation(cornerFacePermutation);
-        makeRightMoveCornerOrientation();
-
-        int[][] edgeFacePermutation = {{0, 1}, {1, 2}, {2, 1}, {1, 1}};
-        makeImpliedFaceEdgePermutation(edgeFacePermutation);
-        // R preserves orientation
+        makeMove(MoveTables.moveIndex(Face.RIGHT, 1));
     }
 
     /**
@@ -53,13 +82,8 @@ public class ArrayCubeStateRepresentation {
         if (amount < -1 || amount > 3) {
             throw new IllegalArgumentException("Amount of right moves must be between 0 and 3");
         }
-        // Implementing prime moves as negative amount
-        if (amount == -1) {
-            amount = 3;
-        }
-
-        for (int i = 0; i < amount; i++) {
-            makeRightMove();
+        if (amount != 0) {
+            makeMove(MoveTables.moveIndex(Face.RIGHT, amount));
         }
     }
 
@@ -67,13 +91,7 @@ public class ArrayCubeStateRepresentation {
      * Applies permutation of pieces corresponding to the left move.
      */
     public void makeLeftMove() {
-        int[][] cornerFacePermutation = {{0, 0}, {1, 0}, {1, 3}, {0, 3}};
-        makeImpliedFaceCornerPermutation(cornerFacePermutation);
-        makeLeftMoveCornerOrientation();
-
-        int[][] edgeFacePermutation = {{0, 3}, {1, 0}, {2, 3}, {1, 3}};
-        makeImpliedFaceEdgePermutation(edgeFacePermutation);
-        // L preserves orientation
+        makeMove(MoveTables.moveIndex(Face.LEFT, 1));
     }
 
     /**
@@ -86,13 +104,8 @@ public class ArrayCubeStateRepresentation {
         if (amount < -1 || amount > 3) {
             throw new IllegalArgumentException("Amount of left moves must be between 0 and 3");
         }
-        // Implementing prime moves as negative amount
-        if (amount == -1) {
-            amount = 3;
-        }
-
-        for (int i = 0; i < amount; i++) {
-            makeLeftMove();
+        if (amount != 0) {
+            makeMove(MoveTables.moveIndex(Face.LEFT, amount));
         }
     }
 
@@ -100,13 +113,7 @@ public class ArrayCubeStateRepresentation {
      * Applies permutation of pieces corresponding to the up move.
      */
     public void makeUpMove() {
-        int[][] cornerFacePermutation = {{0, 0}, {0, 3}, {0, 2}, {0, 1}};
-        makeImpliedFaceCornerPermutation(cornerFacePermutation);
-        // U preserves corner orientation
-
-        int[][] edgeFacePermutation = {{0, 3}, {0, 2}, {0, 1}, {0, 0}};
-        makeImpliedFaceEdgePermutation(edgeFacePermutation);
-        // U preserves orientation
+        makeMove(MoveTables.moveIndex(Face.UP, 1));
     }
 
     /**
@@ -119,13 +126,8 @@ public class ArrayCubeStateRepresentation {
         if (amount < -1 || amount > 3) {
             throw new IllegalArgumentException("Amount of up moves must be between 0 and 3");
         }
-        // Implementing prime moves as negative amount
-        if (amount == -1) {
-            amount = 3;
-        }
-
-        for (int i = 0; i < amount; i++) {
-            makeUpMove();
+        if (amount != 0) {
+            makeMove(MoveTables.moveIndex(Face.UP, amount));
         }
     }
 
@@ -133,13 +135,7 @@ public class ArrayCubeStateRepresentation {
      * Applies permutation of pieces corresponding to the down move.
      */
     public void makeDownMove() {
-        int[][] cornerFacePermutation = {{1, 0}, {1, 1}, {1, 2}, {1, 3}};
-        makeImpliedFaceCornerPermutation(cornerFacePermutation);
-        // D preserves corner orientation
-
-        int[][] edgeFacePermutation = {{2, 0}, {2, 1}, {2, 2}, {2, 3}};
-        makeImpliedFaceEdgePermutation(edgeFacePermutation);
-        // D preserves orientation
+        makeMove(MoveTables.moveIndex(Face.DOWN, 1));
     }
 
     /**
@@ -152,13 +148,8 @@ public class ArrayCubeStateRepresentation {
         if (amount < -1 || amount > 3) {
             throw new IllegalArgumentException("Amount of down moves must be between 0 and 3");
         }
-        // Implementing prime moves as negative amount
-        if (amount == -1) {
-            amount = 3;
-        }
-
-        for (int i = 0; i < amount; i++) {
-            makeDownMove();
+        if (amount != 0) {
+            makeMove(MoveTables.moveIndex(Face.DOWN, amount));
         }
     }
 
@@ -166,13 +157,7 @@ public class ArrayCubeStateRepresentation {
      * Applies permutation of pieces corresponding to the front move.
      */
     public void makeFrontMove() {
-        int[][] cornerFacePermutation = {{0, 2}, {0, 3}, {1, 3}, {1, 2}};
-        makeImpliedFaceCornerPermutation(cornerFacePermutation);
-        makeFrontMoveCornerOrientation();
-
-        int[][] edgeFacePermutation = {{0, 2}, {1, 3}, {2, 2}, {1, 2}};
-        makeImpliedFaceEdgePermutation(edgeFacePermutation);
-        changeEdgeOrientationAlongImpliedFace(edgeFacePermutation);
+        makeMove(MoveTables.moveIndex(Face.FRONT, 1));
     }
 
     /**
@@ -185,13 +170,8 @@ public class ArrayCubeStateRepresentation {
         if (amount < -1 || amount > 3) {
             throw new IllegalArgumentException("Amount of front moves must be between 0 and 3");
         }
-        // Implementing prime moves as negative amount
-        if (amount == -1) {
-            amount = 3;
-        }
-
-        for (int i = 0; i < amount; i++) {
-            makeFrontMove();
+        if (amount != 0) {
+            makeMove(MoveTables.moveIndex(Face.FRONT, amount));
         }
     }
 
@@ -199,13 +179,7 @@ public class ArrayCubeStateRepresentation {
      * Applies permutation of pieces corresponding to the back move.
      */
     public void makeBackMove() {
-        int[][] cornerFacePermutation = {{0, 0}, {0, 1}, {1, 1}, {1, 0}};
-        makeImpliedFaceCornerPermutation(cornerFacePermutation);
-        makeBackMoveCornerOrientation();
-
-        int[][] edgeFacePermutation = {{0, 0}, {1, 1}, {2, 0}, {1, 0}};
-        makeImpliedFaceEdgePermutation(edgeFacePermutation);
-        changeEdgeOrientationAlongImpliedFace(edgeFacePermutation);
+        makeMove(MoveTables.moveIndex(Face.BACK, 1));
     }
 
     /**
@@ -218,105 +192,104 @@ public class ArrayCubeStateRepresentation {
         if (amount < -1 || amount > 3) {
             throw new IllegalArgumentException("Amount of back moves must be between 0 and 3");
         }
-        // Implementing prime moves as negative amount
-        if (amount == -1) {
-            amount = 3;
-        }
-
-        for (int i = 0; i < amount; i++) {
-            makeBackMove();
+        if (amount != 0) {
+            makeMove(MoveTables.moveIndex(Face.BACK, amount));
         }
     }
 
     /**
-     * Orients corners according to the right move, should be called after makeRightMoveCornerPermutation.
+     * Applies the move with the given index, a half or prime turn costs the same as a quarter turn.
+     *
+     * @param move index of the move, as in MoveTables
      */
-    private void makeRightMoveCornerOrientation() {
-        // EASY TO MAKE A MISTAKE HERE
-        corners[0][2].turnCounterClockwise();
-        corners[1][2].turnClockwise();
-        corners[1][1].turnCounterClockwise();
-        corners[0][1].turnClockwise();
-    }
+    public void makeMove(int move) {
+        if (Instrumentation.ENABLED) {
+            Instrumentation.moveMade(move);
+        }
+        // every slot takes the piece of its source slot, so each cycle of slots is walked once from its first slot
+        int visited = 0;
+        for (int start = 0; start < MoveTables.CORNER_SLOTS; start++) {
+            if ((visited & (1 << start)) != 0 || MoveTables.getCornerSource(move, start) == start) {
+                continue;
+            }
+            Corner first = corners[start / Corner.POSITIONS][start % Corner.POSITIONS]; // saving start
+            int slot = start;
+            for (int source = MoveTables.getCornerSource(move, slot); source != start; source = MoveTables.getCornerSource(move, slot)) {
+                corners[slot / Corner.POSITIONS][slot % Corner.POSITIONS] =
+                        corners[source / Corner.POSITIONS][source % Corner.POSITIONS].twisted(MoveTables.getCornerTwist(move, slot));
+                visited |= 1 << slot;
+                slot = source;
+            }
+            corners[slot / Corner.POSITIONS][slot % Corner.POSITIONS] = first.twisted(MoveTables.getCornerTwist(move, slot));
+            visited |= 1 << slot;
+        }
 
-    /**
-     * Orients corners according to the left move, should be called after makeLeftMoveCornerPermutation.
-     */
-    private void makeLeftMoveCornerOrientation() {
-        // EASY TO MAKE A MISTAKE HERE
-        corners[0][0].turnCounterClockwise();
-        corners[1][0].turnClockwise();
-        corners[1][3].turnCounterClockwise();
-        corners[0][3].turnClockwise();
+        visited = 0;
+        for (int start = 0; start < MoveTables.EDGE_SLOTS; start++) {
+            if ((visited & (1 << start)) != 0 || MoveTables.getEdgeSource(move, start) == start) {
+                continue;
+            }
+            Edge first = edges[start / Edge.POSITIONS][start % Edge.POSITIONS]; // saving start
+            int slot = start;
+            for (int source = MoveTables.getEdgeSource(move, slot); source != start; source = MoveTables.getEdgeSource(move, slot)) {
+                edges[slot / Edge.POSITIONS][slot % Edge.POSITIONS] =
+                        flipped(edges[source / Edge.POSITIONS][source % Edge.POSITIONS], MoveTables.getEdgeFlip(move, slot));
+                visited |= 1 << slot;
+                slot = source;
+            }
+            edges[slot / Edge.POSITIONS][slot % Edge.POSITIONS] = flipped(first, MoveTables.getEdgeFlip(move, slot));
+            visited |= 1 << slot;
+        }
     }
 
-    /**
-     * Permutes corners according to specified cycle, in direction opposite to the one specified (by cyclic left shifting).
-     *
-     * @param facePermutation cycle of corners to be permuted; [i][0] is layer, [i][1] is position in layer
-     */
-    private void makeImpliedFaceCornerPermutation(int[][] facePermutation) {
-        Corner firstCorner = corners[facePermutation[0][0]][facePermutation[0][1]]; // saving 0
-        corners[facePermutation[0][0]][facePermutation[0][1]] = corners[facePermutation[1][0]][facePermutation[1][1]]; // 0 <- 1
-        corners[facePermutation[1][0]][facePermutation[1][1]] = corners[facePermutation[2][0]][facePermutation[2][1]]; // 1 <- 2
-        corners[facePermutation[2][0]][facePermutation[2][1]] = corners[facePermutation[3][0]][facePermutation[3][1]]; // 2 <- 3
-        corners[facePermutation[3][0]][facePermutation[3][1]] = firstCorner; // 3 <- 0 (saved)
+    private static Edge flipped(Edge edge, int flip) {
+        return flip != 0 ? edge.flipped() : edge;
     }
 
-    /**
-     * Permutes edges according to specified cycle, in direction opposite to the one specified (by cyclic left shifting).
-     * i + 1 goes to i
-     *
-     * @param facePermutation cycle of edges to be permuted; [i][0] is layer, [i][1] is position in layer
-     */
-    private void makeImpliedFaceEdgePermutation(int[][] facePermutation) {
-        Edge firstEdge = edges[facePermutation[0][0]][facePermutation[0][1]]; // saving 0
-        edges[facePermutation[0][0]][facePermutation[0][1]] = edges[facePermutation[1][0]][facePermutation[1][1]]; // 0 <- 1
-        edges[facePermutation[1][0]][facePermutation[1][1]] = edges[facePermutation[2][0]][facePermutation[2][1]]; // 1 <- 2
-        edges[facePermutation[2][0]][facePermutation[2][1]] = edges[facePermutation[3][0]][facePermutation[3][1]]; // 2 <- 3
-        edges[facePermutation[3][0]][facePermutation[3][1]] = firstEdge; // 3 <- 0 (saved)
+    public Corner[][] getCorners() {
+        return corners;
     }
 
-    /**
-     * Orients corners according to the front move, should be called after makeFrontMoveCornerPermutation.
-     */
-    private void makeFrontMoveCornerOrientation() {
-        // EASY TO MAKE A MISTAKE HERE !!!
-        corners[0][2].turnClockwise();
-        corners[0][3].turnCounterClockwise();
-        corners[1][3].turnClockwise();
-        corners[1][2].turnCounterClockwise();
+    public Edge[][] getEdges() {
+        return edges;
     }
 
     /**
-     * Orients corners according to the back move, should be called after makeBackMoveCornerPermutation.
+     * States are equal if every slot holds the same piece with the same orientation.
      */
-    private void makeBackMoveCornerOrientation() {
-        // EASY TO MAKE A MISTAKE HERE !!!
-        corners[0][0].turnClockwise();
-        corners[0][1].turnCounterClockwise();
-        corners[1][1].turnClockwise();
-        corners[1][0].turnCounterClockwise();
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ArrayCubeStateRepresentation other)) {
+            return false;
+        }
+        for (int i = 0; i < Corner.LAYERS; i++) {
+            for (int j = 0; j < Corner.POSITIONS; j++) {
+                if (corners[i][j].getId() != other.corners[i][j].getId()
+                        || corners[i][j].getOrientation() != other.corners[i][j].getOrientation()) {
+                    return false;
+                }
+            }
+        }
+        for (int i = 0; i < Edge.LAYERS; i++) {
+            for (int j = 0; j < Edge.POSITIONS; j++) {
+                if (edges[i][j].getId() != other.edges[i][j].getId()
+                        || edges[i][j].getOrientation() != other.edges[i][j].getOrientation()) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     /**
-     * Flips the orientation of the edge pieces along the implied face.
-     *
-     * @param facePermutation set of edges to be flipped;
+     * Consistent with the hash code of the equivalent PackedCubeStateRepresentation.
      */
-    private void changeEdgeOrientationAlongImpliedFace(int[][] facePermutation) {
-        for (int[] pair : facePermutation) {
-            edges[pair[0]][pair[1]].flipOrientation();
-        }
+    @Override
+    public int hashCode() {
+        return PackedCubeStateRepresentation.hashCode(
+                PackedCubeStateRepresentation.packCorners(corners), PackedCubeStateRepresentation.packEdges(edges));
     }
-
-    public Corner[][] getCorners() {
-        return corners;
-    }
-
-    public Edge[][] getEdges() {
-        return edges;
-    }
-
-
 }
@@ -0,0 +1,308 @@
+package representation;
+
+import representation.moves.MoveTables;
+
+import java.util.Arrays;
+
+/**
+ * Many cube states stored column-wise: for every slot there is one array holding the piece in that slot in all the states,
+ * and one holding its orientation. Slots are flattened as in MoveTables.
+ * <p>
+ * Moving a piece between slots is the same for all the states, so a move only permutes the per-slot arrays
+ * and then adds orientation to the twisted or flipped slots in one simple loop over the states,
+ * which the JIT compiles to vector instructions. A sequence of moves is composed into a single permutation first,
+ * so applying it to the batch costs about as much as a single move.
+ */
+public class CubeStateBatch {
+    // [move][slot] - copies of the MoveTables transitions, taken once so that a move doesn't clone them
+    private static final int[][] CORNER_SOURCES = new int[MoveTables.MOVES][];
+    private static final int[][] CORNER_TWISTS = new int[MoveTables.MOVES][];
+    private static final int[][] EDGE_SOURCES = new int[MoveTables.MOVES][];
+    private static final int[][] EDGE_FLIPS = new int[MoveTables.MOVES][];
+
+    static {
+        for (int move = 0; move < MoveTables.MOVES; move++) {
+            CORNER_SOURCES[move] = MoveTables.getCornerSources(move);
+            CORNER_TWISTS[move] = MoveTables.getCornerTwists(move);
+            EDGE_SOURCES[move] = MoveTables.getEdgeSources(move);
+            EDGE_FLIPS[move] = MoveTables.getEdgeFlips(move);
+        }
+    }
+
+    private final int size;
+
+    // [slot][state]
+    private byte[][] cornerIds;
+    private byte[][] cornerOrientations;
+    private byte[][] edgeIds;
+    private byte[][] edgeOrientations;
+
+    // permuted per-slot arrays are assembled here and swapped with the current ones
+    private byte[][] cornerIdsBuffer = new byte[MoveTables.CORNER_SLOTS][];
+    private byte[][] cornerOrientationsBuffer = new byte[MoveTables.CORNER_SLOTS][];
+    private byte[][] edgeIdsBuffer = new byte[MoveTables.EDGE_SLOTS][];
+    private byte[][] edgeOrientationsBuffer = new byte[MoveTables.EDGE_SLOTS][];
+
+    /**
+     * Creates a batch of solved states.
+     *
+     * @param size the amount of states
+     */
+    public CubeStateBatch(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative");
+        }
+        this.size = size;
+        cornerIds = new byte[MoveTables.CORNER_SLOTS][size];
+        cornerOrientations = new byte[MoveTables.CORNER_SLOTS][size];
+        edgeIds = new byte[MoveTables.EDGE_SLOTS][size];
+        edgeOrientations = new byte[MoveTables.EDGE_SLOTS][size];
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            Arrays.fill(cornerIds[slot], (byte) slot);
+        }
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            Arrays.fill(edgeIds[slot], (byte) slot);
+        }
+    }
+
+    /**
+     * Creates a batch holding copies of the given states.
+     *
+     * @param states the states, in batch order
+     */
+    public CubeStateBatch(PackedCubeStateRepresentation[] states) {
+        this(states.length);
+        for (int i = 0; i < states.length; i++) {
+            copy(i, states[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Replaces the state at the given index.
+     *
+     * @param index index of the state in the batch
+     * @param state the new state, not modified
+     */
+    public void set(int index, PackedCubeStateRepresentation state) {
+        checkIndex(index);
+        copy(index, state);
+    }
+
+    // not overridable, so the constructor can use it
+    private void copy(int index, PackedCubeStateRepresentation state) {
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            cornerIds[slot][index] = (byte) state.getCornerId(slot);
+            cornerOrientations[slot][index] = (byte) state.getCornerOrientation(slot);
+        }
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            edgeIds[slot][index] = (byte) state.getEdgeId(slot);
+            edgeOrientations[slot][index] = (byte) state.getEdgeOrientation(slot);
+        }
+    }
+
+    /**
+     * Returns a copy of the state at the given index.
+     *
+     * @param index index of the state in the batch
+     * @return the state, independent of the batch
+     */
+    public PackedCubeStateRepresentation get(int index) {
+        checkIndex(index);
+        int[] cornerIdArray = new int[MoveTables.CORNER_SLOTS];
+        int[] cornerOrientationArray = new int[MoveTables.CORNER_SLOTS];
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            cornerIdArray[slot] = cornerIds[slot][index];
+            cornerOrientationArray[slot] = cornerOrientations[slot][index];
+        }
+        int[] edgeIdArray = new int[MoveTables.EDGE_SLOTS];
+        int[] edgeOrientationArray = new int[MoveTables.EDGE_SLOTS];
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            edgeIdArray[slot] = edgeIds[slot][index];
+            edgeOrientationArray[slot] = edgeOrientations[slot][index];
+        }
+        return new PackedCubeStateRepresentation(cornerIdArray, cornerOrientationArray, edgeIdArray, edgeOrientationArray);
+    }
+
+    /**
+     * Applies the move with the given index to all the states.
+     *
+     * @param move index of the move, as in MoveTables
+     */
+    public void makeMove(int move) {
+        apply(CORNER_SOURCES[move], CORNER_TWISTS[move], EDGE_SOURCES[move], EDGE_FLIPS[move]);
+    }
+
+    /**
+     * Applies the moves, in order, to all the states.
+     *
+     * @param moves indices of the moves, as in MoveTables
+     */
+    public void makeMoves(int[] moves) {
+        makeMoves(moves, moves.length);
+    }
+
+    /**
+     * Applies the first moves of the array, in order, to all the states.
+     *
+     * @param moves  indices of the moves, as in MoveTables
+     * @param length the amount of moves to be applied
+     */
+    public void makeMoves(int[] moves, int length) {
+        if (length == 1) {
+            makeMove(moves[0]);
+            return;
+        }
+        // composed the same way MoveTables composes quarter turns into half and prime turns
+        int[] cornerSource = new int[MoveTables.CORNER_SLOTS];
+        int[] cornerTwist = new int[MoveTables.CORNER_SLOTS];
+        int[] edgeSource = new int[MoveTables.EDGE_SLOTS];
+        int[] edgeFlip = new int[MoveTables.EDGE_SLOTS];
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            cornerSource[slot] = slot;
+        }
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            edgeSource[slot] = slot;
+        }
+        int[] nextCornerSource = new int[MoveTables.CORNER_SLOTS];
+        int[] nextCornerTwist = new int[MoveTables.CORNER_SLOTS];
+        int[] nextEdgeSource = new int[MoveTables.EDGE_SLOTS];
+        int[] nextEdgeFlip = new int[MoveTables.EDGE_SLOTS];
+        for (int i = 0; i < length; i++) {
+            int move = moves[i];
+            for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+                int source = MoveTables.getCornerSource(move, slot);
+                nextCornerSource[slot] = cornerSource[source];
+                nextCornerTwist[slot] = (cornerTwist[source] + MoveTables.getCornerTwist(move, slot)) % 3;
+            }
+            for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+                int source = MoveTables.getEdgeSource(move, slot);
+                nextEdgeSource[slot] = edgeSource[source];
+                nextEdgeFlip[slot] = edgeFlip[source] ^ MoveTables.getEdgeFlip(move, slot);
+            }
+            int[] swap = cornerSource;
+            cornerSource = nextCornerSource;
+            nextCornerSource = swap;
+            swap = cornerTwist;
+            cornerTwist = nextCornerTwist;
+            nextCornerTwist = swap;
+            swap = edgeSource;
+            edgeSource = nextEdgeSource;
+            nextEdgeSource = swap;
+            swap = edgeFlip;
+            edgeFlip = nextEdgeFlip;
+            nextEdgeFlip = swap;
+        }
+        apply(cornerSource, cornerTwist, edgeSource, edgeFlip);
+    }
+
+    /**
+     * Returns whether the state at the given index is solved.
+     *
+     * @param index index of the state in the batch
+     * @return whether the state is solved
+     */
+    public boolean isSolved(int index) {
+        checkIndex(index);
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            if (cornerIds[slot][index] != slot || cornerOrientations[slot][index] != 0) {
+                return false;
+            }
+        }
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            if (edgeIds[slot][index] != slot || edgeOrientations[slot][index] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the amount of solved states in the batch.
+     *
+     * @return the amount of solved states
+     */
+    public int countSolved() {
+        int solved = 0;
+        for (int i = 0; i < size; i++) {
+            if (isSolved(i)) {
+                solved++;
+            }
+        }
+        return solved;
+    }
+
+    public int getCornerId(int index, int slot) {
+        return cornerIds[slot][index];
+    }
+
+    public int getCornerOrientation(int index, int slot) {
+        return cornerOrientations[slot][index];
+    }
+
+    public int getEdgeId(int index, int slot) {
+        return edgeIds[slot][index];
+    }
+
+    public int getEdgeOrientation(int index, int slot) {
+        return edgeOrientations[slot][index];
+    }
+
+    private void apply(int[] cornerSource, int[] cornerTwist, int[] edgeSource, int[] edgeFlip) {
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            cornerIdsBuffer[slot] = cornerIds[cornerSource[slot]];
+            cornerOrientationsBuffer[slot] = cornerOrientations[cornerSource[slot]];
+        }
+        byte[][] swap = cornerIds;
+        cornerIds = cornerIdsBuffer;
+        cornerIdsBuffer = swap;
+        swap = cornerOrientations;
+        cornerOrientations = cornerOrientationsBuffer;
+        cornerOrientationsBuffer = swap;
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            if (cornerTwist[slot] != 0) {
+                twist(cornerOrientations[slot], cornerTwist[slot]);
+            }
+        }
+
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            edgeIdsBuffer[slot] = edgeIds[edgeSource[slot]];
+            edgeOrientationsBuffer[slot] = edgeOrientations[edgeSource[slot]];
+        }
+        swap = edgeIds;
+        edgeIds = edgeIdsBuffer;
+        edgeIdsBuffer = swap;
+        swap = edgeOrientations;
+        edgeOrientations = edgeOrientationsBuffer;
+        edgeOrientationsBuffer = swap;
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            if (edgeFlip[slot] != 0) {
+                flip(edgeOrientations[slot]);
+            }
+        }
+    }
+
+    // branch-free so that the loop vectorizes
+    private static void twist(byte[] orientations, int twist) {
+        for (int i = 0; i < orientations.length; i++) {
+            // orientation + twist - 3, plus 3 again if that went negative
+            int reduced = orientations[i] + twist - 3;
+            orientations[i] = (byte) (reduced + (3 & (reduced >> 31)));
+        }
+    }
+
+    private static void flip(byte[] orientations) {
+        for (int i = 0; i < orientations.length; i++) {
+            orientations[i] ^= 1;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Invalid state index: " + index);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package representation;
+
+import representation.coordinates.Coordinates;
+import representation.moves.MoveTables;
+
+import java.math.BigInteger;
+
+/**
+ * Canonical compact encoding of solvable cube states.
+ * <p>
+ * A state splits into a corner index (permutation and orientation, below CORNER_STATES, 27 bits)
+ * and an edge index (permutation up to parity, which the corners imply, and orientation, below EDGE_STATES, 39 bits).
+ * Together they take exactly 66 bits: the corner index above the edge index. That word is also available
+ * as its upper 64 bits plus a 2 bit remainder, or as 9 big-endian bytes.
+ * The dense rank, corner index * EDGE_STATES + edge index, numbers all 43,252,003,274,489,856,000 states.
+ */
+public final class CubeStateEncoding {
+    public static final long CORNER_STATES = (long) Coordinates.CORNER_PERMUTATIONS * Coordinates.CORNER_ORIENTATIONS;
+    // 12! / 2 permutations, as the parity is shared with the corners
+    public static final long EDGE_STATES = 239_500_800L * Coordinates.EDGE_ORIENTATIONS;
+    public static final BigInteger STATES = BigInteger.valueOf(CORNER_STATES).multiply(BigInteger.valueOf(EDGE_STATES));
+
+    public static final int EDGE_INDEX_BITS = 39;
+    public static final int REMAINDER_BITS = 2;
+    public static final int BYTES = 9;
+
+    private static final int[] FACTORIAL = new int[MoveTables.EDGE_SLOTS + 1];
+
+    static {
+        FACTORIAL[0] = 1;
+        for (int n = 1; n <= MoveTables.EDGE_SLOTS; n++) {
+            FACTORIAL[n] = n * FACTORIAL[n - 1];
+        }
+    }
+
+    private CubeStateEncoding() {
+    }
+
+    /**
+     * Returns the index of the corner permutation and orientation.
+     *
+     * @param state the cube state
+     * @return the corner index, below CORNER_STATES
+     */
+    public static long getCornerIndex(PackedCubeStateRepresentation state) {
+        return (long) Coordinates.getCornerPermutation(state) * Coordinates.CORNER_ORIENTATIONS
+                + Coordinates.getCornerOrientation(state);
+    }
+
+    /**
+     * Returns the index of the edge permutation (up to parity) and orientation.
+     *
+     * @param state the cube state
+     * @return the edge index, below EDGE_STATES
+     */
+    public static long getEdgeIndex(PackedCubeStateRepresentation state) {
+        int rank = 0;
+        for (int i = 0; i < MoveTables.EDGE_SLOTS; i++) {
+            int id = state.getEdgeId(i);
+            int smaller = 0;
+            for (int j = i + 1; j < MoveTables.EDGE_SLOTS; j++) {
+                if (state.getEdgeId(j) < id) {
+                    smaller++;
+                }
+            }
+            rank += smaller * FACTORIAL[MoveTables.EDGE_SLOTS - 1 - i];
+        }
+        // the last Lehmer digit only carries the parity
+        return (long) (rank >>> 1) * Coordinates.EDGE_ORIENTATIONS + Coordinates.getEdgeOrientation(state);
+    }
+
+    /**
+     * Returns the upper 64 bits of the 66 bit encoding.
+     *
+     * @param state the cube state
+     * @return corner index followed by the edge index without its lowest 2 bits
+     */
+    public static long getHigh(PackedCubeStateRepresentation state) {
+        return (getCornerIndex(state) << (EDGE_INDEX_BITS - REMAINDER_BITS)) | (getEdgeIndex(state) >>> REMAINDER_BITS);
+    }
+
+    /**
+     * Returns the lowest 2 bits of the 66 bit encoding.
+     *
+     * @param state the cube state
+     * @return the lowest 2 bits of the edge index
+     */
+    public static int getRemainder(PackedCubeStateRepresentation state) {
+        return (int) (getEdgeIndex(state) & ((1 << REMAINDER_BITS) - 1));
+    }
+
+    /**
+     * Returns the state with the given 66 bit encoding.
+     *
+     * @param high      upper 64 bits, as returned by getHigh
+     * @param remainder lowest 2 bits, as returned by getRemainder
+     * @return the decoded state
+     */
+    public static PackedCubeStateRepresentation decode(long high, int remainder) {
+        long cornerIndex = high >>> (EDGE_INDEX_BITS - REMAINDER_BITS);
+        long edgeIndex = ((high & ((1L << (EDGE_INDEX_BITS - REMAINDER_BITS)) - 1)) << REMAINDER_BITS) | remainder;
+        return fromIndices(cornerIndex, edgeIndex);
+    }
+
+    /**
+     * Writes the 66 bit encoding of the state as 9 big-endian bytes, the first 6 bits being zero.
+     *
+     * @param state  the cube state
+     * @param bytes  array the encoding is written to
+     * @param offset index of the first byte to be written
+     */
+    public static void write(PackedCubeStateRepresentation state, byte[] bytes, int offset) {
+        long high = getHigh(state);
+        bytes[offset] = (byte) (high >>> (Long.SIZE - REMAINDER_BITS));
+        long low = (high << REMAINDER_BITS) | getRemainder(state);
+        for (int i = 1; i < BYTES; i++) {
+            bytes[offset + i] = (byte) (low >>> (8 * (BYTES - 1 - i)));
+        }
+    }
+
+    /**
+     * Reads a state written by write.
+     *
+     * @param bytes  array holding the encoding
+     * @param offset index of the first byte of the encoding
+     * @return the decoded state
+     */
+    public static PackedCubeStateRepresentation read(byte[] bytes, int offset) {
+        long low = 0;
+        for (int i = 1; i < BYTES; i++) {
+            low = (low << 8) | (bytes[offset + i] & 0xFF);
+        }
+        long high = ((long) (bytes[offset] & 0x3) << (Long.SIZE - REMAINDER_BITS)) | (low >>> REMAINDER_BITS);
+        return decode(high, (int) (low & ((1 << REMAINDER_BITS) - 1)));
+    }
+
+    /**
+     * Returns the dense rank of the state among all solvable states.
+     *
+     * @param state the cube state
+     * @return the rank, below STATES
+     */
+    public static BigInteger rank(PackedCubeStateRepresentation state) {
+        return BigInteger.valueOf(getCornerIndex(state))
+                .multiply(BigInteger.valueOf(EDGE_STATES))
+                .add(BigInteger.valueOf(getEdgeIndex(state)));
+    }
+
+    /**
+     * Returns the state with the given dense rank.
+     *
+     * @param rank the rank, below STATES
+     * @return the state with the given rank
+     */
+    public static PackedCubeStateRepresentation unrank(BigInteger rank) {
+        if (rank.signum() < 0 || rank.compareTo(STATES) >= 0) {
+            throw new IllegalArgumentException("Rank out of range: " + rank);
+        }
+        BigInteger[] indices = rank.divideAndRemainder(BigInteger.valueOf(EDGE_STATES));
+        return fromIndices(indices[0].longValueExact(), indices[1].longValueExact());
+    }
+
+    /**
+     * Returns the state with the given corner and edge indices.
+     *
+     * @param cornerIndex the corner index, below CORNER_STATES
+     * @param edgeIndex   the edge index, below EDGE_STATES
+     * @return the state with the given indices
+     */
+    public static PackedCubeStateRepresentation fromIndices(long cornerIndex, long edgeIndex) {
+        if (cornerIndex < 0 || cornerIndex >= CORNER_STATES || edgeIndex < 0 || edgeIndex >= EDGE_STATES) {
+            throw new IllegalArgumentException("Index out of range");
+        }
+        int[] cornerIds = new int[MoveTables.CORNER_SLOTS];
+        int[] cornerOrientations = new int[MoveTables.CORNER_SLOTS];
+        Coordinates.setCornerPermutation(cornerIds, (int) (cornerIndex / Coordinates.CORNER_ORIENTATIONS));
+        Coordinates.setCornerOrientation(cornerOrientations, (int) (cornerIndex % Coordinates.CORNER_ORIENTATIONS));
+
+        int[] edgeIds = new int[MoveTables.EDGE_SLOTS];
+        int[] edgeOrientations = new int[MoveTables.EDGE_SLOTS];
+        Coordinates.setEdgeOrientation(edgeOrientations, (int) (edgeIndex % Coordinates.EDGE_ORIENTATIONS));
+        int rank = (int) (edgeIndex / Coordinates.EDGE_ORIENTATIONS) << 1;
+        // the dropped last Lehmer digit makes the edge parity match the corner parity
+        int[] digits = new int[MoveTables.EDGE_SLOTS];
+        int parity = 0;
+        for (int i = 0; i < MoveTables.EDGE_SLOTS; i++) {
+            digits[i] = rank / FACTORIAL[MoveTables.EDGE_SLOTS - 1 - i];
+            rank %= FACTORIAL[MoveTables.EDGE_SLOTS - 1 - i];
+            parity ^= digits[i] & 1;
+        }
+        if (parity != permutationParity(cornerIds)) {
+            digits[MoveTables.EDGE_SLOTS - 2] = 1;
+        }
+        boolean[] used = new boolean[MoveTables.EDGE_SLOTS];
+        for (int i = 0; i < MoveTables.EDGE_SLOTS; i++) {
+            int smaller = digits[i];
+            int id = 0;
+            while (used[id] || smaller > 0) {
+                if (!used[id]) {
+                    smaller--;
+                }
+                id++;
+            }
+            used[id] = true;
+            edgeIds[i] = id;
+        }
+        return new PackedCubeStateRepresentation(cornerIds, cornerOrientations, edgeIds, edgeOrientations);
+    }
+
+    private static int permutationParity(int[] permutation) {
+        int parity = 0;
+        for (int i = 0; i < permutation.length; i++) {
+            for (int j = i + 1; j < permutation.length; j++) {
+                if (permutation[j] < permutation[i]) {
+                    parity ^= 1;
+                }
+            }
+        }
+        return parity;
+    }
+}
@@ -0,0 +1,129 @@
+package representation;
+
+import instrumentation.Instrumentation;
+
+/**
+ * Immutable cube state, in the same packed layout as PackedCubeStateRepresentation.
+ * Making a move returns a new state, so states can be shared between threads without copying,
+ * and each one is a single small object.
+ *
+ * @param corners corners, 5 bits per slot, as returned by PackedCubeStateRepresentation.getPackedCorners()
+ * @param edges   edges, 5 bits per slot, as returned by PackedCubeStateRepresentation.getPackedEdges()
+ */
+public record ImmutableCubeStateRepresentation(long corners, long edges) {
+    public static final ImmutableCubeStateRepresentation SOLVED = of(new PackedCubeStateRepresentation());
+
+    /**
+     * Returns the immutable copy of the given state.
+     *
+     * @param state the cube state to be copied
+     * @return equivalent immutable state
+     */
+    public static ImmutableCubeStateRepresentation of(PackedCubeStateRepresentation state) {
+        return new ImmutableCubeStateRepresentation(state.getPackedCorners(), state.getPackedEdges());
+    }
+
+    /**
+     * Returns the immutable copy of the given state.
+     *
+     * @param state the cube state to be copied
+     * @return equivalent immutable state
+     */
+    public static ImmutableCubeStateRepresentation of(ArrayCubeStateRepresentation state) {
+        return of(new PackedCubeStateRepresentation(state));
+    }
+
+    /**
+     * Returns the state after the move with the given index.
+     *
+     * @param move index of the move, as in MoveTables
+     * @return the new state
+     */
+    public ImmutableCubeStateRepresentation move(int move) {
+        if (Instrumentation.ENABLED) {
+            Instrumentation.moveMade(move);
+        }
+        return new ImmutableCubeStateRepresentation(PackedCubeStateRepresentation.moveCorners(corners, move),
+                PackedCubeStateRepresentation.moveEdges(edges, move));
+    }
+
+    /**
+     * Returns the state after the given moves, creating only the final state.
+     *
+     * @param moves indices of the moves, as in MoveTables
+     * @return the new state
+     */
+    public ImmutableCubeStateRepresentation moves(int[] moves) {
+        long newCorners = corners;
+        long newEdges = edges;
+        for (int move : moves) {
+            if (Instrumentation.ENABLED) {
+                Instrumentation.moveMade(move);
+            }
+            newCorners = PackedCubeStateRepresentation.moveCorners(newCorners, move);
+            newEdges = PackedCubeStateRepresentation.moveEdges(newEdges, move);
+        }
+        return new ImmutableCubeStateRepresentation(newCorners, newEdges);
+    }
+
+    /**
+     * Returns a mutable copy of this state.
+     *
+     * @return equivalent packed state
+     */
+    public PackedCubeStateRepresentation toPackedCubeStateRepresentation() {
+        return new PackedCubeStateRepresentation(corners, edges);
+    }
+
+    public boolean isSolved() {
+        return equals(SOLVED);
+    }
+
+    /**
+     * Returns the id of the corner piece in the given slot.
+     *
+     * @param slot 4 * layer + position, as in ArrayCubeStateRepresentation
+     * @return the id of the corner piece in the given slot
+     */
+    public int getCornerId(int slot) {
+        return PackedCubeStateRepresentation.cornerId(corners, slot);
+    }
+
+    /**
+     * Returns the orientation of the corner piece in the given slot.
+     *
+     * @param slot 4 * layer + position, as in ArrayCubeStateRepresentation
+     * @return the clockwise twists required to white/yellow up/down
+     */
+    public int getCornerOrientation(int slot) {
+        return PackedCubeStateRepresentation.cornerOrientation(corners, slot);
+    }
+
+    /**
+     * Returns the id of the edge piece in the given slot.
+     *
+     * @param slot 4 * layer + position, as in ArrayCubeStateRepresentation
+     * @return the id of the edge piece in the given slot
+     */
+    public int getEdgeId(int slot) {
+        return PackedCubeStateRepresentation.edgeId(edges, slot);
+    }
+
+    /**
+     * Returns the orientation of the edge piece in the given slot.
+     *
+     * @param slot 4 * layer + position, as in ArrayCubeStateRepresentation
+     * @return 0 if {R, U, L, D} solvable, 1 if {F, B} required
+     */
+    public int getEdgeOrientation(int slot) {
+        return PackedCubeStateRepresentation.edgeOrientation(edges, slot);
+    }
+
+    /**
+     * Consistent with the hash code of the equivalent PackedCubeStateRepresentation.
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(corners * 0x9E3779B97F4A7C15L + edges);
+    }
+}
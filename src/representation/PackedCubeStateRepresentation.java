@@ -0,0 +1,443 @@
+package representation;
+
+import instrumentation.Instrumentation;
+import representation.moves.Face;
+import representation.moves.MoveTables;
+import representation.pieces.Corner;
+import representation.pieces.Edge;
+import representation.symmetries.SymmetryTables;
+
+public class PackedCubeStateRepresentation {
+    // Same layout as ArrayCubeStateRepresentation, flattened: slot = 4 * layer + position
+    // Every slot takes 5 bits of a long, piece id in the low bits and orientation above it
+    private static final int SLOT_BITS = 5;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+    private static final int CORNER_ID_BITS = 3;
+    private static final int EDGE_ID_BITS = 4;
+    private static final int CORNER_SLOTS = Corner.LAYERS * Corner.POSITIONS;
+    private static final int EDGE_SLOTS = Edge.LAYERS * Edge.POSITIONS;
+
+    private static final long SOLVED_CORNERS;
+    private static final long SOLVED_EDGES;
+
+    static {
+        long corners = 0;
+        for (int slot = 0; slot < CORNER_SLOTS; slot++) {
+            corners |= (long) slot << (SLOT_BITS * slot);
+        }
+        long edges = 0;
+        for (int slot = 0; slot < EDGE_SLOTS; slot++) {
+            edges |= (long) slot << (SLOT_BITS * slot);
+        }
+        SOLVED_CORNERS = corners;
+        SOLVED_EDGES = edges;
+    }
+
+    private long corners;
+    private long edges;
+
+    /**
+     * Creates a new packed cube state representation with standard orientation.
+     */
+    public PackedCubeStateRepresentation() {
+        corners = SOLVED_CORNERS;
+        edges = SOLVED_EDGES;
+    }
+
+    /**
+     * Creates a copy of the given packed cube state.
+     *
+     * @param state the cube state to be copied
+     */
+    public PackedCubeStateRepresentation(PackedCubeStateRepresentation state) {
+        corners = state.corners;
+        edges = state.edges;
+    }
+
+    /**
+     * Creates a state from packed longs, as returned by getPackedCorners() and getPackedEdges().
+     *
+     * @param packedCorners corners, 5 bits per slot
+     * @param packedEdges   edges, 5 bits per slot
+     */
+    public PackedCubeStateRepresentation(long packedCorners, long packedEdges) {
+        corners = packedCorners;
+        edges = packedEdges;
+    }
+
+    /**
+     * Creates a state with the given pieces, every array indexed by slot (4 * layer + position).
+     *
+     * @param cornerIds          id of the corner in each slot
+     * @param cornerOrientations orientation of the corner in each slot
+     * @param edgeIds            id of the edge in each slot
+     * @param edgeOrientations   orientation of the edge in each slot
+     */
+    public PackedCubeStateRepresentation(int[] cornerIds, int[] cornerOrientations, int[] edgeIds, int[] edgeOrientations) {
+        for (int slot = 0; slot < CORNER_SLOTS; slot++) {
+            long value = cornerIds[slot] | ((long) cornerOrientations[slot] << CORNER_ID_BITS);
+            corners |= value << (SLOT_BITS * slot);
+        }
+        for (int slot = 0; slot < EDGE_SLOTS; slot++) {
+            long value = edgeIds[slot] | ((long) edgeOrientations[slot] << EDGE_ID_BITS);
+            edges |= value << (SLOT_BITS * slot);
+        }
+    }
+
+    /**
+     * Creates a packed copy of the given cube state.
+     *
+     * @param state the cube state to be packed
+     */
+    public PackedCubeStateRepresentation(ArrayCubeStateRepresentation state) {
+        corners = packCorners(state.getCorners());
+        edges = packEdges(state.getEdges());
+    }
+
+    // also used by ArrayCubeStateRepresentation.hashCode(), which must not allocate a packed copy
+    static long packCorners(Corner[][] stateCorners) {
+        long packed = 0;
+        for (int slot = 0; slot < CORNER_SLOTS; slot++) {
+            Corner corner = stateCorners[slot / Corner.POSITIONS][slot % Corner.POSITIONS];
+            long value = corner.getId() | ((long) corner.getOrientation() << CORNER_ID_BITS);
+            packed |= value << (SLOT_BITS * slot);
+        }
+        return packed;
+    }
+
+    static long packEdges(Edge[][] stateEdges) {
+        long packed = 0;
+        for (int slot = 0; slot < EDGE_SLOTS; slot++) {
+            Edge edge = stateEdges[slot / Edge.POSITIONS][slot % Edge.POSITIONS];
+            long value = edge.getId() | ((long) edge.getOrientation() << EDGE_ID_BITS);
+            packed |= value << (SLOT_BITS * slot);
+        }
+        return packed;
+    }
+
+    /**
+     * Unpacks this state into a new object cube state representation.
+     *
+     * @return equivalent cube state representation
+     */
+    public ArrayCubeStateRepresentation toArrayCubeStateRepresentation() {
+        Corner[][] stateCorners = new Corner[Corner.LAYERS][Corner.POSITIONS];
+        for (int slot = 0; slot < CORNER_SLOTS; slot++) {
+            stateCorners[slot / Corner.POSITIONS][slot % Corner.POSITIONS] =
+                    Corner.of(getCornerId(slot), getCornerOrientation(slot));
+        }
+        Edge[][] stateEdges = new Edge[Edge.LAYERS][Edge.POSITIONS];
+        for (int slot = 0; slot < EDGE_SLOTS; slot++) {
+            stateEdges[slot / Edge.POSITIONS][slot % Edge.POSITIONS] =
+                    Edge.of(getEdgeId(slot), getEdgeOrientation(slot));
+        }
+        return new ArrayCubeStateRepresentation(stateCorners, stateEdges);
+    }
+
+    /**
+     * Applies permutation of pieces corresponding to the right move, multiple times.
+     * Negative amount corresponds to the counter-clockwise move.
+     *
+     * @param amount the amount of right moves to be made
+     */
+    public void makeRightMove(int amount) {
+        makeMove(Face.RIGHT, amount);
+    }
+
+    /**
+     * Applies permutation of pieces corresponding to the right move.
+     */
+    public void makeRightMove() {
+        makeMove(MoveTables.moveIndex(Face.RIGHT, 1));
+    }
+
+    /**
+     * Applies permutation of pieces corresponding to the left move, multiple times.
+     * Negative amount corresponds to the counter-clockwise move.
+     *
+     * @param amount the amount of left moves to be made
+     */
+    public void makeLeftMove(int amount) {
+        makeMove(Face.LEFT, amount);
+    }
+
+    /**
+     * Applies permutation of pieces corresponding to the left move.
+     */
+    public void makeLeftMove() {
+        makeMove(MoveTables.moveIndex(Face.LEFT, 1));
+    }
+
+    /**
+     * Applies permutation of pieces corresponding to the up move, multiple times.
+     * Negative amount corresponds to the counter-clockwise move.
+     *
+     * @param amount the amount of up moves to be made
+     */
+    public void makeUpMove(int amount) {
+        makeMove(Face.UP, amount);
+    }
+
+    /**
+     * Applies permutation of pieces corresponding to the up move.
+     */
+    public void makeUpMove() {
+        makeMove(MoveTables.moveIndex(Face.UP, 1));
+    }
+
+    /**
+     * Applies permutation of pieces corresponding to the down move, multiple times.
+     * Negative amount corresponds to the counter-clockwise move.
+     *
+     * @param amount the amount of down moves to be made
+     */
+    public void makeDownMove(int amount) {
+        makeMove(Face.DOWN, amount);
+    }
+
+    /**
+     * Applies permutation of pieces corresponding to the down move.
+     */
+    public void makeDownMove() {
+        makeMove(MoveTables.moveIndex(Face.DOWN, 1));
+    }
+
+    /**
+     * Applies permutation of pieces corresponding to the front move, multiple times.
+     * Negative amount corresponds to the counter-clockwise move.
+     *
+     * @param amount the amount of front moves to be made
+     */
+    public void makeFrontMove(int amount) {
+        makeMove(Face.FRONT, amount);
+    }
+
+    /**
+     * Applies permutation of pieces corresponding to the front move.
+     */
+    public void makeFrontMove() {
+        makeMove(MoveTables.moveIndex(Face.FRONT, 1));
+    }
+
+    /**
+     * Applies permutation of pieces corresponding to the back move, multiple times.
+     * Negative amount corresponds to the counter-clockwise move.
+     *
+     * @param amount the amount of back moves to be made
+     */
+    public void makeBackMove(int amount) {
+        makeMove(Face.BACK, amount);
+    }
+
+    /**
+     * Applies permutation of pieces corresponding to the back move.
+     */
+    public void makeBackMove() {
+        makeMove(MoveTables.moveIndex(Face.BACK, 1));
+    }
+
+    private void makeMove(Face face, int amount) {
+        if (amount < -1 || amount > 3) {
+            throw new IllegalArgumentException("Amount of moves must be between -1 and 3");
+        }
+        if (amount != 0) {
+            makeMove(MoveTables.moveIndex(face, amount));
+        }
+    }
+
+    /**
+     * Applies the move with the given index in a single pass, whatever the amount.
+     *
+     * @param move index of the move, as in MoveTables
+     */
+    public void makeMove(int move) {
+        if (Instrumentation.ENABLED) {
+            Instrumentation.moveMade(move);
+        }
+        corners = moveCorners(corners, move);
+        edges = moveEdges(edges, move);
+    }
+
+    // shared with the immutable representation
+    static long moveCorners(long corners, int move) {
+        long newCorners = 0;
+        for (int slot = 0; slot < CORNER_SLOTS; slot++) {
+            long value = (corners >>> (SLOT_BITS * MoveTables.getCornerSource(move, slot))) & SLOT_MASK;
+            long orientation = ((value >>> CORNER_ID_BITS) + MoveTables.getCornerTwist(move, slot)) % 3;
+            value = (value & ((1 << CORNER_ID_BITS) - 1)) | (orientation << CORNER_ID_BITS);
+            newCorners |= value << (SLOT_BITS * slot);
+        }
+        return newCorners;
+    }
+
+    static long moveEdges(long edges, int move) {
+        long newEdges = 0;
+        for (int slot = 0; slot < EDGE_SLOTS; slot++) {
+            long value = (edges >>> (SLOT_BITS * MoveTables.getEdgeSource(move, slot))) & SLOT_MASK;
+            value ^= (long) MoveTables.getEdgeFlip(move, slot) << EDGE_ID_BITS;
+            newEdges |= value << (SLOT_BITS * slot);
+        }
+        return newEdges;
+    }
+
+    /**
+     * Replaces this state with its conjugate S * state * S^-1, i.e. the same state seen after the symmetry.
+     *
+     * @param symmetry index of the symmetry, as in SymmetryTables
+     */
+    public void conjugate(int symmetry) {
+        corners = conjugateCorners(corners, symmetry);
+        edges = conjugateEdges(edges, symmetry);
+    }
+
+    /**
+     * Replaces this state with the canonical representative of its symmetry class,
+     * the conjugate with the smallest packed corners, ties broken by the smallest packed edges.
+     * Symmetric states get the same representative, which makes it a key shared by all of them.
+     *
+     * @return index of the symmetry conjugating the original state into the representative
+     */
+    public int canonicalize() {
+        long bestCorners = Long.MAX_VALUE;
+        long bestEdges = Long.MAX_VALUE;
+        int bestSymmetry = 0;
+        for (int symmetry = 0; symmetry < SymmetryTables.SYMMETRIES; symmetry++) {
+            // edges only matter when the corners tie, which keeps the common case at half the work
+            long conjugatedCorners = conjugateCorners(corners, symmetry);
+            if (Long.compareUnsigned(conjugatedCorners, bestCorners) > 0) {
+                continue;
+            }
+            long conjugatedEdges = conjugateEdges(edges, symmetry);
+            if (conjugatedCorners != bestCorners || Long.compareUnsigned(conjugatedEdges, bestEdges) < 0) {
+                bestCorners = conjugatedCorners;
+                bestEdges = conjugatedEdges;
+                bestSymmetry = symmetry;
+            }
+        }
+        corners = bestCorners;
+        edges = bestEdges;
+        return bestSymmetry;
+    }
+
+    private static long conjugateCorners(long corners, int symmetry) {
+        int inverse = SymmetryTables.getInverse(symmetry);
+        long result = 0;
+        for (int slot = 0; slot < CORNER_SLOTS; slot++) {
+            long value = (corners >>> (SLOT_BITS * SymmetryTables.getCornerSource(inverse, slot))) & SLOT_MASK;
+            int piece = (int) (value & ((1 << CORNER_ID_BITS) - 1));
+            long orientation = SymmetryTables.conjugateCornerOrientation(symmetry, piece, slot,
+                    (int) (value >>> CORNER_ID_BITS));
+            long conjugated = SymmetryTables.getCornerSource(symmetry, piece) | (orientation << CORNER_ID_BITS);
+            result |= conjugated << (SLOT_BITS * slot);
+        }
+        return result;
+    }
+
+    private static long conjugateEdges(long edges, int symmetry) {
+        int inverse = SymmetryTables.getInverse(symmetry);
+        long result = 0;
+        for (int slot = 0; slot < EDGE_SLOTS; slot++) {
+            long value = (edges >>> (SLOT_BITS * SymmetryTables.getEdgeSource(inverse, slot))) & SLOT_MASK;
+            int piece = (int) (value & ((1 << EDGE_ID_BITS) - 1));
+            long orientation = (value >>> EDGE_ID_BITS)
+                    ^ SymmetryTables.getEdgeFlip(symmetry, piece) ^ SymmetryTables.getEdgeFlip(inverse, slot);
+            long conjugated = SymmetryTables.getEdgeSource(symmetry, piece) | (orientation << EDGE_ID_BITS);
+            result |= conjugated << (SLOT_BITS * slot);
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether every piece is in its place and oriented.
+     *
+     * @return whether the cube is solved
+     */
+    public boolean isSolved() {
+        return corners == SOLVED_CORNERS && edges == SOLVED_EDGES;
+    }
+
+    /**
+     * Returns the id of the corner piece in the given slot.
+     *
+     * @param slot 4 * layer + position, as in ArrayCubeStateRepresentation
+     * @return the id of the corner piece in the given slot
+     */
+    public int getCornerId(int slot) {
+        return cornerId(corners, slot);
+    }
+
+    /**
+     * Returns the orientation of the corner piece in the given slot.
+     *
+     * @param slot 4 * layer + position, as in ArrayCubeStateRepresentation
+     * @return the clockwise twists required to white/yellow up/down
+     */
+    public int getCornerOrientation(int slot) {
+        return cornerOrientation(corners, slot);
+    }
+
+    /**
+     * Returns the id of the edge piece in the given slot.
+     *
+     * @param slot 4 * layer + position, as in ArrayCubeStateRepresentation
+     * @return the id of the edge piece in the given slot
+     */
+    public int getEdgeId(int slot) {
+        return edgeId(edges, slot);
+    }
+
+    /**
+     * Returns the orientation of the edge piece in the given slot.
+     *
+     * @param slot 4 * layer + position, as in ArrayCubeStateRepresentation
+     * @return 0 if {R, U, L, D} solvable, 1 if {F, B} required
+     */
+    public int getEdgeOrientation(int slot) {
+        return edgeOrientation(edges, slot);
+    }
+
+    // slot accessors shared with the immutable representation
+    static int cornerId(long corners, int slot) {
+        return (int) ((corners >>> (SLOT_BITS * slot)) & ((1 << CORNER_ID_BITS) - 1));
+    }
+
+    static int cornerOrientation(long corners, int slot) {
+        return (int) ((corners >>> (SLOT_BITS * slot + CORNER_ID_BITS)) & 3);
+    }
+
+    static int edgeId(long edges, int slot) {
+        return (int) ((edges >>> (SLOT_BITS * slot)) & ((1 << EDGE_ID_BITS) - 1));
+    }
+
+    static int edgeOrientation(long edges, int slot) {
+        return (int) ((edges >>> (SLOT_BITS * slot + EDGE_ID_BITS)) & 1);
+    }
+
+    public long getPackedCorners() {
+        return corners;
+    }
+
+    public long getPackedEdges() {
+        return edges;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PackedCubeStateRepresentation other)) {
+            return false;
+        }
+        return corners == other.corners && edges == other.edges;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode(corners, edges);
+    }
+
+    static int hashCode(long packedCorners, long packedEdges) {
+        return Long.hashCode(packedCorners * 0x9E3779B97F4A7C15L + packedEdges);
+    }
+}
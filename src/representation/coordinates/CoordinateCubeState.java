@@ -0,0 +1,172 @@
+package representation.coordinates;
+
+import representation.PackedCubeStateRepresentation;
+import representation.moves.MoveTables;
+
+/**
+ * Cube state keeping its solver coordinates up to date as moves are made, by a lookup in CoordinateMoveTables per
+ * coordinate, so reading one never needs the pieces.
+ * <p>
+ * Corner orientation, edge orientation, UD-slice and corner permutation are tracked through every move.
+ * UD edge permutation and slice permutation are only meaningful within the domino group and their tables only
+ * cover domino moves, so the up, down and middle layer edge groups are tracked instead, through every move.
+ * Within the domino group the two follow from them by a lookup.
+ */
+public class CoordinateCubeState {
+    private final PackedCubeStateRepresentation state;
+    private int cornerOrientation;
+    private int edgeOrientation;
+    private int udSlice;
+    private int cornerPermutation;
+    private int upEdges;
+    private int downEdges;
+    private int sliceEdges;
+
+    /**
+     * Creates a solved state.
+     */
+    public CoordinateCubeState() {
+        this(new PackedCubeStateRepresentation());
+    }
+
+    /**
+     * Creates a state equal to the given one, computing its coordinates.
+     *
+     * @param state the cube state, not modified
+     */
+    public CoordinateCubeState(PackedCubeStateRepresentation state) {
+        this.state = new PackedCubeStateRepresentation(state);
+        cornerOrientation = Coordinates.getCornerOrientation(state);
+        edgeOrientation = Coordinates.getEdgeOrientation(state);
+        udSlice = Coordinates.getUdSlice(state);
+        cornerPermutation = Coordinates.getCornerPermutation(state);
+        upEdges = Coordinates.getUpEdges(state);
+        downEdges = Coordinates.getDownEdges(state);
+        sliceEdges = Coordinates.getSliceEdges(state);
+    }
+
+    /**
+     * Creates a copy of the given state, coordinates included.
+     *
+     * @param state the cube state to be copied
+     */
+    public CoordinateCubeState(CoordinateCubeState state) {
+        this.state = new PackedCubeStateRepresentation(state.state);
+        cornerOrientation = state.cornerOrientation;
+        edgeOrientation = state.edgeOrientation;
+        udSlice = state.udSlice;
+        cornerPermutation = state.cornerPermutation;
+        upEdges = state.upEdges;
+        downEdges = state.downEdges;
+        sliceEdges = state.sliceEdges;
+    }
+
+    /**
+     * Applies the move with the given index to the pieces and all the tracked coordinates.
+     *
+     * @param move index of the move, as in MoveTables
+     */
+    public void makeMove(int move) {
+        state.makeMove(move);
+        cornerOrientation = CoordinateMoveTables.moveCornerOrientation(cornerOrientation, move);
+        edgeOrientation = CoordinateMoveTables.moveEdgeOrientation(edgeOrientation, move);
+        udSlice = CoordinateMoveTables.moveUdSlice(udSlice, move);
+        cornerPermutation = CoordinateMoveTables.moveCornerPermutation(cornerPermutation, move);
+        upEdges = CoordinateMoveTables.moveUpEdges(upEdges, move);
+        downEdges = CoordinateMoveTables.moveDownEdges(downEdges, move);
+        sliceEdges = CoordinateMoveTables.moveSliceEdges(sliceEdges, move);
+    }
+
+    /**
+     * Undoes the move with the given index, as made by makeMove.
+     *
+     * @param move index of the move, as in MoveTables
+     */
+    public void undoMove(int move) {
+        makeMove(MoveTables.inverse(move));
+    }
+
+    public int getCornerOrientation() {
+        return cornerOrientation;
+    }
+
+    public int getEdgeOrientation() {
+        return edgeOrientation;
+    }
+
+    public int getUdSlice() {
+        return udSlice;
+    }
+
+    public int getCornerPermutation() {
+        return cornerPermutation;
+    }
+
+    public int getUpEdges() {
+        return upEdges;
+    }
+
+    public int getDownEdges() {
+        return downEdges;
+    }
+
+    public int getSliceEdges() {
+        return sliceEdges;
+    }
+
+    /**
+     * Returns the UD edge permutation coordinate.
+     *
+     * @return the coordinate, or -1 if the UD-slice coordinate is not 0
+     */
+    public int getUdEdgePermutation() {
+        return udSlice == 0 ? Coordinates.getUdEdgePermutation(upEdges, downEdges) : -1;
+    }
+
+    /**
+     * Returns the slice permutation coordinate.
+     *
+     * @return the coordinate, or -1 if the UD-slice coordinate is not 0
+     */
+    public int getSlicePermutation() {
+        return udSlice == 0 ? sliceEdges : -1;
+    }
+
+    /**
+     * Returns whether the state belongs to the domino group: pieces oriented and middle layer edges in the middle layer.
+     *
+     * @return whether the state is a domino group state
+     */
+    public boolean isDomino() {
+        return cornerOrientation == 0 && edgeOrientation == 0 && udSlice == 0;
+    }
+
+    public boolean isSolved() {
+        return state.isSolved();
+    }
+
+    /**
+     * Returns the pieces of this state.
+     *
+     * @return a copy of the state
+     */
+    public PackedCubeStateRepresentation getState() {
+        return new PackedCubeStateRepresentation(state);
+    }
+
+    /**
+     * States are equal if their pieces are, the coordinates follow from them.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof CoordinateCubeState other && state.equals(other.state);
+    }
+
+    @Override
+    public int hashCode() {
+        return state.hashCode();
+    }
+}
@@ -0,0 +1,291 @@
+package representation.coordinates;
+
+import representation.moves.MoveTables;
+
+import java.util.Arrays;
+
+/**
+ * Coordinate transition tables for all 18 face turns, indexed by [coordinate * MoveTables.MOVES + move].
+ * Tables of coordinates only meaningful within the domino group hold -1 for the remaining moves.
+ * The tables are private: searches read single transitions through the move methods,
+ * and table builders take copies of whole tables.
+ */
+public final class CoordinateMoveTables {
+    private static final int[] CORNER_ORIENTATION_MOVE = new int[Coordinates.CORNER_ORIENTATIONS * MoveTables.MOVES];
+    private static final int[] EDGE_ORIENTATION_MOVE = new int[Coordinates.EDGE_ORIENTATIONS * MoveTables.MOVES];
+    private static final int[] UD_SLICE_MOVE = new int[Coordinates.UD_SLICES * MoveTables.MOVES];
+    private static final int[] CORNER_PERMUTATION_MOVE = new int[Coordinates.CORNER_PERMUTATIONS * MoveTables.MOVES];
+    private static final int[] UD_EDGE_PERMUTATION_MOVE = new int[Coordinates.UD_EDGE_PERMUTATIONS * MoveTables.MOVES];
+    private static final int[] SLICE_PERMUTATION_MOVE = new int[Coordinates.SLICE_PERMUTATIONS * MoveTables.MOVES];
+    private static final int[] UP_EDGES_MOVE = new int[Coordinates.EDGE_GROUPS * MoveTables.MOVES];
+    private static final int[] DOWN_EDGES_MOVE = new int[Coordinates.EDGE_GROUPS * MoveTables.MOVES];
+    private static final int[] SLICE_EDGES_MOVE = new int[Coordinates.EDGE_GROUPS * MoveTables.MOVES];
+
+    static {
+        int[] corners = new int[MoveTables.CORNER_SLOTS];
+        int[] movedCorners = new int[MoveTables.CORNER_SLOTS];
+        int[] edges = new int[MoveTables.EDGE_SLOTS];
+        int[] movedEdges = new int[MoveTables.EDGE_SLOTS];
+
+        for (int coordinate = 0; coordinate < Coordinates.CORNER_ORIENTATIONS; coordinate++) {
+            Coordinates.setCornerOrientation(corners, coordinate);
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                twistCorners(move, corners, movedCorners);
+                CORNER_ORIENTATION_MOVE[coordinate * MoveTables.MOVES + move] =
+                        Coordinates.getCornerOrientation(movedCorners);
+            }
+        }
+
+        for (int coordinate = 0; coordinate < Coordinates.EDGE_ORIENTATIONS; coordinate++) {
+            Coordinates.setEdgeOrientation(edges, coordinate);
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                flipEdges(move, edges, movedEdges);
+                EDGE_ORIENTATION_MOVE[coordinate * MoveTables.MOVES + move] =
+                        Coordinates.getEdgeOrientation(movedEdges);
+            }
+        }
+
+        for (int coordinate = 0; coordinate < Coordinates.UD_SLICES; coordinate++) {
+            Coordinates.setUdSlice(edges, coordinate);
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                permuteEdges(move, edges, movedEdges);
+                UD_SLICE_MOVE[coordinate * MoveTables.MOVES + move] = Coordinates.getUdSlice(movedEdges);
+            }
+        }
+
+        for (int coordinate = 0; coordinate < Coordinates.CORNER_PERMUTATIONS; coordinate++) {
+            Coordinates.setCornerPermutation(corners, coordinate);
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                permuteCorners(move, corners, movedCorners);
+                CORNER_PERMUTATION_MOVE[coordinate * MoveTables.MOVES + move] =
+                        Coordinates.getCornerPermutation(movedCorners);
+            }
+        }
+
+        for (int coordinate = 0; coordinate < Coordinates.UD_EDGE_PERMUTATIONS; coordinate++) {
+            Coordinates.setUdEdgePermutation(edges, coordinate);
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                int next = -1;
+                if (MoveTables.isDominoMove(move)) {
+                    permuteEdges(move, edges, movedEdges);
+                    next = Coordinates.getUdEdgePermutation(movedEdges);
+                }
+                UD_EDGE_PERMUTATION_MOVE[coordinate * MoveTables.MOVES + move] = next;
+            }
+        }
+
+        for (int coordinate = 0; coordinate < Coordinates.SLICE_PERMUTATIONS; coordinate++) {
+            Coordinates.setSlicePermutation(edges, coordinate);
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                int next = -1;
+                if (MoveTables.isDominoMove(move)) {
+                    permuteEdges(move, edges, movedEdges);
+                    next = Coordinates.getSlicePermutation(movedEdges);
+                }
+                SLICE_PERMUTATION_MOVE[coordinate * MoveTables.MOVES + move] = next;
+            }
+        }
+
+        // only the group's edges are placed, the other slots just have to hold none of them
+        for (int coordinate = 0; coordinate < Coordinates.EDGE_GROUPS; coordinate++) {
+            Arrays.fill(edges, -1);
+            Coordinates.setUpEdges(edges, coordinate);
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                permuteEdges(move, edges, movedEdges);
+                UP_EDGES_MOVE[coordinate * MoveTables.MOVES + move] = Coordinates.getUpEdges(movedEdges);
+            }
+            Arrays.fill(edges, -1);
+            Coordinates.setDownEdges(edges, coordinate);
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                permuteEdges(move, edges, movedEdges);
+                DOWN_EDGES_MOVE[coordinate * MoveTables.MOVES + move] = Coordinates.getDownEdges(movedEdges);
+            }
+            Arrays.fill(edges, -1);
+            Coordinates.setSliceEdges(edges, coordinate);
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                permuteEdges(move, edges, movedEdges);
+                SLICE_EDGES_MOVE[coordinate * MoveTables.MOVES + move] = Coordinates.getSliceEdges(movedEdges);
+            }
+        }
+    }
+
+    private CoordinateMoveTables() {
+    }
+
+    /**
+     * Returns the corner orientation coordinate after the move.
+     *
+     * @param coordinate the coordinate before the move
+     * @param move       index of the move, as in MoveTables
+     * @return the coordinate after the move
+     */
+    public static int moveCornerOrientation(int coordinate, int move) {
+        return CORNER_ORIENTATION_MOVE[coordinate * MoveTables.MOVES + move];
+    }
+
+    /**
+     * Returns the edge orientation coordinate after the move.
+     *
+     * @param coordinate the coordinate before the move
+     * @param move       index of the move, as in MoveTables
+     * @return the coordinate after the move
+     */
+    public static int moveEdgeOrientation(int coordinate, int move) {
+        return EDGE_ORIENTATION_MOVE[coordinate * MoveTables.MOVES + move];
+    }
+
+    /**
+     * Returns the UD-slice coordinate after the move.
+     *
+     * @param coordinate the coordinate before the move
+     * @param move       index of the move, as in MoveTables
+     * @return the coordinate after the move
+     */
+    public static int moveUdSlice(int coordinate, int move) {
+        return UD_SLICE_MOVE[coordinate * MoveTables.MOVES + move];
+    }
+
+    /**
+     * Returns the corner permutation coordinate after the move.
+     *
+     * @param coordinate the coordinate before the move
+     * @param move       index of the move, as in MoveTables
+     * @return the coordinate after the move
+     */
+    public static int moveCornerPermutation(int coordinate, int move) {
+        return CORNER_PERMUTATION_MOVE[coordinate * MoveTables.MOVES + move];
+    }
+
+    /**
+     * Returns the UD edge permutation coordinate after the move.
+     *
+     * @param coordinate the coordinate before the move
+     * @param move       index of the move, as in MoveTables
+     * @return the coordinate after the move, or -1 for a move leaving the domino group
+     */
+    public static int moveUdEdgePermutation(int coordinate, int move) {
+        return UD_EDGE_PERMUTATION_MOVE[coordinate * MoveTables.MOVES + move];
+    }
+
+    /**
+     * Returns the slice permutation coordinate after the move.
+     *
+     * @param coordinate the coordinate before the move
+     * @param move       index of the move, as in MoveTables
+     * @return the coordinate after the move, or -1 for a move leaving the domino group
+     */
+    public static int moveSlicePermutation(int coordinate, int move) {
+        return SLICE_PERMUTATION_MOVE[coordinate * MoveTables.MOVES + move];
+    }
+
+    /**
+     * Returns the up edges coordinate after the move.
+     *
+     * @param coordinate the coordinate before the move
+     * @param move       index of the move, as in MoveTables
+     * @return the coordinate after the move
+     */
+    public static int moveUpEdges(int coordinate, int move) {
+        return UP_EDGES_MOVE[coordinate * MoveTables.MOVES + move];
+    }
+
+    /**
+     * Returns the down edges coordinate after the move.
+     *
+     * @param coordinate the coordinate before the move
+     * @param move       index of the move, as in MoveTables
+     * @return the coordinate after the move
+     */
+    public static int moveDownEdges(int coordinate, int move) {
+        return DOWN_EDGES_MOVE[coordinate * MoveTables.MOVES + move];
+    }
+
+    /**
+     * Returns the slice edges coordinate after the move.
+     *
+     * @param coordinate the coordinate before the move
+     * @param move       index of the move, as in MoveTables
+     * @return the coordinate after the move
+     */
+    public static int moveSliceEdges(int coordinate, int move) {
+        return SLICE_EDGES_MOVE[coordinate * MoveTables.MOVES + move];
+    }
+
+    /**
+     * Returns a copy of the corner orientation table, indexed by [coordinate * MoveTables.MOVES + move].
+     *
+     * @return a new array
+     */
+    public static int[] getCornerOrientationTable() {
+        return CORNER_ORIENTATION_MOVE.clone();
+    }
+
+    /**
+     * Returns a copy of the edge orientation table, indexed by [coordinate * MoveTables.MOVES + move].
+     *
+     * @return a new array
+     */
+    public static int[] getEdgeOrientationTable() {
+        return EDGE_ORIENTATION_MOVE.clone();
+    }
+
+    /**
+     * Returns a copy of the UD-slice table, indexed by [coordinate * MoveTables.MOVES + move].
+     *
+     * @return a new array
+     */
+    public static int[] getUdSliceTable() {
+        return UD_SLICE_MOVE.clone();
+    }
+
+    /**
+     * Returns a copy of the corner permutation table, indexed by [coordinate * MoveTables.MOVES + move].
+     *
+     * @return a new array
+     */
+    public static int[] getCornerPermutationTable() {
+        return CORNER_PERMUTATION_MOVE.clone();
+    }
+
+    /**
+     * Returns a copy of the UD edge permutation table, indexed by [coordinate * MoveTables.MOVES + move].
+     *
+     * @return a new array
+     */
+    public static int[] getUdEdgePermutationTable() {
+        return UD_EDGE_PERMUTATION_MOVE.clone();
+    }
+
+    /**
+     * Returns a copy of the slice permutation table, indexed by [coordinate * MoveTables.MOVES + move].
+     *
+     * @return a new array
+     */
+    public static int[] getSlicePermutationTable() {
+        return SLICE_PERMUTATION_MOVE.clone();
+    }
+
+    private static void permuteCorners(int move, int[] pieces, int[] result) {
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            result[slot] = pieces[MoveTables.getCornerSource(move, slot)];
+        }
+    }
+
+    private static void permuteEdges(int move, int[] pieces, int[] result) {
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            result[slot] = pieces[MoveTables.getEdgeSource(move, slot)];
+        }
+    }
+
+    private static void twistCorners(int move, int[] orientations, int[] result) {
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            result[slot] = (orientations[MoveTables.getCornerSource(move, slot)] + MoveTables.getCornerTwist(move, slot)) % 3;
+        }
+    }
+
+    private static void flipEdges(int move, int[] orientations, int[] result) {
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            result[slot] = orientations[MoveTables.getEdgeSource(move, slot)] ^ MoveTables.getEdgeFlip(move, slot);
+        }
+    }
+}
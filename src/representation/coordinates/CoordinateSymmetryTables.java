@@ -0,0 +1,194 @@
+package representation.coordinates;
+
+import representation.moves.MoveTables;
+import representation.symmetries.SymmetryTables;
+
+/**
+ * Coordinate conjugation tables for the symmetries keeping the up-down axis,
+ * indexed by [coordinate * SymmetryTables.UD_SYMMETRIES + symmetry].
+ * Those symmetries map the middle layer to itself and keep orientations relative to it,
+ * so every coordinate below except edge orientation is conjugated on its own.
+ * The tables are private, like the ones of CoordinateMoveTables: lookups read single conjugates
+ * through the conjugate methods, and table builders take copies of whole tables.
+ */
+public final class CoordinateSymmetryTables {
+    private static final int[] CORNER_ORIENTATION_CONJUGATE = new int[Coordinates.CORNER_ORIENTATIONS * SymmetryTables.UD_SYMMETRIES];
+    private static final int[] UD_SLICE_CONJUGATE = new int[Coordinates.UD_SLICES * SymmetryTables.UD_SYMMETRIES];
+    private static final int[] CORNER_PERMUTATION_CONJUGATE = new int[Coordinates.CORNER_PERMUTATIONS * SymmetryTables.UD_SYMMETRIES];
+    private static final int[] UD_EDGE_PERMUTATION_CONJUGATE = new int[Coordinates.UD_EDGE_PERMUTATIONS * SymmetryTables.UD_SYMMETRIES];
+    private static final int[] SLICE_PERMUTATION_CONJUGATE = new int[Coordinates.SLICE_PERMUTATIONS * SymmetryTables.UD_SYMMETRIES];
+
+    public static final SymmetryClasses CORNER_ORIENTATION_CLASSES;
+    public static final SymmetryClasses CORNER_PERMUTATION_CLASSES;
+    public static final SymmetryClasses UD_EDGE_PERMUTATION_CLASSES;
+
+    static {
+        int[] cornerIds = new int[MoveTables.CORNER_SLOTS];
+        int[] cornerOrientations = new int[MoveTables.CORNER_SLOTS];
+        int[] conjugatedIds = new int[MoveTables.CORNER_SLOTS];
+        int[] conjugatedOrientations = new int[MoveTables.CORNER_SLOTS];
+        int[] edgeIds = new int[MoveTables.EDGE_SLOTS];
+        int[] edgeOrientations = new int[MoveTables.EDGE_SLOTS];
+        int[] conjugatedEdgeIds = new int[MoveTables.EDGE_SLOTS];
+        int[] conjugatedEdgeOrientations = new int[MoveTables.EDGE_SLOTS];
+
+        Coordinates.setCornerPermutation(cornerIds, 0);
+        for (int coordinate = 0; coordinate < Coordinates.CORNER_ORIENTATIONS; coordinate++) {
+            Coordinates.setCornerOrientation(cornerOrientations, coordinate);
+            for (int symmetry = 0; symmetry < SymmetryTables.UD_SYMMETRIES; symmetry++) {
+                SymmetryTables.conjugateCorners(symmetry, cornerIds, cornerOrientations,
+                        conjugatedIds, conjugatedOrientations);
+                CORNER_ORIENTATION_CONJUGATE[coordinate * SymmetryTables.UD_SYMMETRIES + symmetry] =
+                        Coordinates.getCornerOrientation(conjugatedOrientations);
+            }
+        }
+
+        Coordinates.setCornerOrientation(cornerOrientations, 0);
+        for (int coordinate = 0; coordinate < Coordinates.CORNER_PERMUTATIONS; coordinate++) {
+            Coordinates.setCornerPermutation(cornerIds, coordinate);
+            for (int symmetry = 0; symmetry < SymmetryTables.UD_SYMMETRIES; symmetry++) {
+                SymmetryTables.conjugateCorners(symmetry, cornerIds, cornerOrientations,
+                        conjugatedIds, conjugatedOrientations);
+                CORNER_PERMUTATION_CONJUGATE[coordinate * SymmetryTables.UD_SYMMETRIES + symmetry] =
+                        Coordinates.getCornerPermutation(conjugatedIds);
+            }
+        }
+
+        for (int coordinate = 0; coordinate < Coordinates.UD_SLICES; coordinate++) {
+            Coordinates.setUdSlice(edgeIds, coordinate);
+            for (int symmetry = 0; symmetry < SymmetryTables.UD_SYMMETRIES; symmetry++) {
+                SymmetryTables.conjugateEdges(symmetry, edgeIds, edgeOrientations,
+                        conjugatedEdgeIds, conjugatedEdgeOrientations);
+                UD_SLICE_CONJUGATE[coordinate * SymmetryTables.UD_SYMMETRIES + symmetry] =
+                        Coordinates.getUdSlice(conjugatedEdgeIds);
+            }
+        }
+
+        for (int coordinate = 0; coordinate < Coordinates.UD_EDGE_PERMUTATIONS; coordinate++) {
+            Coordinates.setUdEdgePermutation(edgeIds, coordinate);
+            for (int symmetry = 0; symmetry < SymmetryTables.UD_SYMMETRIES; symmetry++) {
+                SymmetryTables.conjugateEdges(symmetry, edgeIds, edgeOrientations,
+                        conjugatedEdgeIds, conjugatedEdgeOrientations);
+                UD_EDGE_PERMUTATION_CONJUGATE[coordinate * SymmetryTables.UD_SYMMETRIES + symmetry] =
+                        Coordinates.getUdEdgePermutation(conjugatedEdgeIds);
+            }
+        }
+
+        for (int coordinate = 0; coordinate < Coordinates.SLICE_PERMUTATIONS; coordinate++) {
+            Coordinates.setSlicePermutation(edgeIds, coordinate);
+            for (int symmetry = 0; symmetry < SymmetryTables.UD_SYMMETRIES; symmetry++) {
+                SymmetryTables.conjugateEdges(symmetry, edgeIds, edgeOrientations,
+                        conjugatedEdgeIds, conjugatedEdgeOrientations);
+                SLICE_PERMUTATION_CONJUGATE[coordinate * SymmetryTables.UD_SYMMETRIES + symmetry] =
+                        Coordinates.getSlicePermutation(conjugatedEdgeIds);
+            }
+        }
+
+        CORNER_ORIENTATION_CLASSES = new SymmetryClasses(CORNER_ORIENTATION_CONJUGATE, Coordinates.CORNER_ORIENTATIONS);
+        CORNER_PERMUTATION_CLASSES = new SymmetryClasses(CORNER_PERMUTATION_CONJUGATE, Coordinates.CORNER_PERMUTATIONS);
+        UD_EDGE_PERMUTATION_CLASSES = new SymmetryClasses(UD_EDGE_PERMUTATION_CONJUGATE, Coordinates.UD_EDGE_PERMUTATIONS);
+    }
+
+    private CoordinateSymmetryTables() {
+    }
+
+    /**
+     * Returns the corner orientation coordinate after conjugation by the symmetry.
+     *
+     * @param coordinate value of the coordinate
+     * @param symmetry   index of the symmetry, below SymmetryTables.UD_SYMMETRIES
+     * @return the conjugated coordinate
+     */
+    public static int conjugateCornerOrientation(int coordinate, int symmetry) {
+        return CORNER_ORIENTATION_CONJUGATE[coordinate * SymmetryTables.UD_SYMMETRIES + symmetry];
+    }
+
+    /**
+     * Returns the UD-slice coordinate after conjugation by the symmetry.
+     *
+     * @param coordinate value of the coordinate
+     * @param symmetry   index of the symmetry, below SymmetryTables.UD_SYMMETRIES
+     * @return the conjugated coordinate
+     */
+    public static int conjugateUdSlice(int coordinate, int symmetry) {
+        return UD_SLICE_CONJUGATE[coordinate * SymmetryTables.UD_SYMMETRIES + symmetry];
+    }
+
+    /**
+     * Returns the corner permutation coordinate after conjugation by the symmetry.
+     *
+     * @param coordinate value of the coordinate
+     * @param symmetry   index of the symmetry, below SymmetryTables.UD_SYMMETRIES
+     * @return the conjugated coordinate
+     */
+    public static int conjugateCornerPermutation(int coordinate, int symmetry) {
+        return CORNER_PERMUTATION_CONJUGATE[coordinate * SymmetryTables.UD_SYMMETRIES + symmetry];
+    }
+
+    /**
+     * Returns the UD edge permutation coordinate after conjugation by the symmetry.
+     *
+     * @param coordinate value of the coordinate
+     * @param symmetry   index of the symmetry, below SymmetryTables.UD_SYMMETRIES
+     * @return the conjugated coordinate
+     */
+    public static int conjugateUdEdgePermutation(int coordinate, int symmetry) {
+        return UD_EDGE_PERMUTATION_CONJUGATE[coordinate * SymmetryTables.UD_SYMMETRIES + symmetry];
+    }
+
+    /**
+     * Returns the slice permutation coordinate after conjugation by the symmetry.
+     *
+     * @param coordinate value of the coordinate
+     * @param symmetry   index of the symmetry, below SymmetryTables.UD_SYMMETRIES
+     * @return the conjugated coordinate
+     */
+    public static int conjugateSlicePermutation(int coordinate, int symmetry) {
+        return SLICE_PERMUTATION_CONJUGATE[coordinate * SymmetryTables.UD_SYMMETRIES + symmetry];
+    }
+
+    /**
+     * Returns a copy of the corner orientation table, indexed by [coordinate * SymmetryTables.UD_SYMMETRIES + symmetry].
+     *
+     * @return a new array
+     */
+    public static int[] getCornerOrientationConjugateTable() {
+        return CORNER_ORIENTATION_CONJUGATE.clone();
+    }
+
+    /**
+     * Returns a copy of the UD-slice table, indexed by [coordinate * SymmetryTables.UD_SYMMETRIES + symmetry].
+     *
+     * @return a new array
+     */
+    public static int[] getUdSliceConjugateTable() {
+        return UD_SLICE_CONJUGATE.clone();
+    }
+
+    /**
+     * Returns a copy of the corner permutation table, indexed by [coordinate * SymmetryTables.UD_SYMMETRIES + symmetry].
+     *
+     * @return a new array
+     */
+    public static int[] getCornerPermutationConjugateTable() {
+        return CORNER_PERMUTATION_CONJUGATE.clone();
+    }
+
+    /**
+     * Returns a copy of the UD edge permutation table, indexed by [coordinate * SymmetryTables.UD_SYMMETRIES + symmetry].
+     *
+     * @return a new array
+     */
+    public static int[] getUdEdgePermutationConjugateTable() {
+        return UD_EDGE_PERMUTATION_CONJUGATE.clone();
+    }
+
+    /**
+     * Returns a copy of the slice permutation table, indexed by [coordinate * SymmetryTables.UD_SYMMETRIES + symmetry].
+     *
+     * @return a new array
+     */
+    public static int[] getSlicePermutationConjugateTable() {
+        return SLICE_PERMUTATION_CONJUGATE.clone();
+    }
+}
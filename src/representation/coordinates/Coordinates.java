@@ -0,0 +1,544 @@
+package representation.coordinates;
+
+import representation.PackedCubeStateRepresentation;
+import representation.moves.MoveTables;
+
+import java.util.Arrays;
+
+/**
+ * Dense integer coordinates of parts of the cube state, as used by solvers.
+ * Pieces are given as arrays indexed by slot (4 * layer + position), holding piece ids or orientations.
+ * Every coordinate of the solved cube is 0.
+ */
+public final class Coordinates {
+    public static final int CORNER_ORIENTATIONS = 2187; // 3^7
+    public static final int EDGE_ORIENTATIONS = 2048; // 2^11
+    public static final int UD_SLICES = 495; // 12 choose 4
+    public static final int CORNER_PERMUTATIONS = 40320; // 8!
+    public static final int UD_EDGE_PERMUTATIONS = 40320; // 8!
+    public static final int SLICE_PERMUTATIONS = 24; // 4!
+    public static final int EDGE_GROUPS = 11880; // 12 * 11 * 10 * 9
+    // Edge group coordinates of four edges in the up and down layers, (8 choose 4) * 4!
+    public static final int UD_LAYER_EDGE_GROUPS = 1680;
+
+    // Middle layer edges, the ones the UD-slice coordinate tracks
+    public static final int FIRST_SLICE_EDGE = 4;
+    public static final int SLICE_EDGES = 4;
+
+    public static final int FIRST_UP_EDGE = 0;
+    public static final int FIRST_DOWN_EDGE = 8;
+
+    // Slot orders of the edge group coordinates: the group's own layer first, so that the solved cube is 0,
+    // and the up and down layers before the middle layer
+    private static final int[] UP_EDGE_ORDER = {0, 1, 2, 3, 8, 9, 10, 11, 4, 5, 6, 7};
+    private static final int[] DOWN_EDGE_ORDER = {8, 9, 10, 11, 0, 1, 2, 3, 4, 5, 6, 7};
+    private static final int[] SLICE_EDGE_ORDER = {4, 5, 6, 7, 0, 1, 2, 3, 8, 9, 10, 11};
+
+    private static final int[][] BINOMIAL = new int[MoveTables.EDGE_SLOTS + 1][SLICE_EDGES + 1];
+    private static final int[] FACTORIAL = new int[MoveTables.CORNER_SLOTS + 1];
+    // UD edge permutation by [up edges * SLICE_PERMUTATIONS + down edges % SLICE_PERMUTATIONS]
+    private static final int[] UD_EDGE_PERMUTATION_OF_GROUPS = new int[UD_LAYER_EDGE_GROUPS * SLICE_PERMUTATIONS];
+
+    static {
+        for (int n = 0; n <= MoveTables.EDGE_SLOTS; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= SLICE_EDGES && k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k < n ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+        FACTORIAL[0] = 1;
+        for (int n = 1; n <= MoveTables.CORNER_SLOTS; n++) {
+            FACTORIAL[n] = n * FACTORIAL[n - 1];
+        }
+
+        // the up edges leave four up and down layer slots to the down edges, so only their order is needed
+        int[] edgePermutation = new int[MoveTables.EDGE_SLOTS];
+        int[] downEdges = new int[SLICE_EDGES];
+        for (int upEdges = 0; upEdges < UD_LAYER_EDGE_GROUPS; upEdges++) {
+            for (int downPermutation = 0; downPermutation < SLICE_PERMUTATIONS; downPermutation++) {
+                Arrays.fill(edgePermutation, -1);
+                setUpEdges(edgePermutation, upEdges);
+                unrankPermutation(downEdges, 0, SLICE_EDGES, FIRST_DOWN_EDGE, downPermutation);
+                int next = 0;
+                for (int slot : DOWN_EDGE_ORDER) {
+                    if (next < SLICE_EDGES && edgePermutation[slot] < 0 && !isSliceSlot(slot)) {
+                        edgePermutation[slot] = downEdges[next++];
+                    }
+                }
+                UD_EDGE_PERMUTATION_OF_GROUPS[upEdges * SLICE_PERMUTATIONS + downPermutation] =
+                        getUdEdgePermutation(edgePermutation);
+            }
+        }
+    }
+
+    private Coordinates() {
+    }
+
+    /**
+     * Returns whether the edge with the given id belongs to the middle layer.
+     *
+     * @param edgeId the unique identifier of the edge piece
+     * @return whether the edge belongs to the middle layer
+     */
+    public static boolean isSliceEdge(int edgeId) {
+        return edgeId >= FIRST_SLICE_EDGE && edgeId < FIRST_SLICE_EDGE + SLICE_EDGES;
+    }
+
+    /**
+     * Orientations of the first 7 corners as a base 3 number, the last one is implied by the twist sum.
+     *
+     * @param cornerOrientations orientation of the corner in each slot
+     * @return corner orientation coordinate, below CORNER_ORIENTATIONS
+     */
+    public static int getCornerOrientation(int[] cornerOrientations) {
+        int coordinate = 0;
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS - 1; slot++) {
+            coordinate = 3 * coordinate + cornerOrientations[slot];
+        }
+        return coordinate;
+    }
+
+    /**
+     * Fills corner orientations so that they have the given coordinate.
+     *
+     * @param cornerOrientations orientation of the corner in each slot, to be filled
+     * @param coordinate         corner orientation coordinate
+     */
+    public static void setCornerOrientation(int[] cornerOrientations, int coordinate) {
+        int sum = 0;
+        for (int slot = MoveTables.CORNER_SLOTS - 2; slot >= 0; slot--) {
+            cornerOrientations[slot] = coordinate % 3;
+            sum += coordinate % 3;
+            coordinate /= 3;
+        }
+        cornerOrientations[MoveTables.CORNER_SLOTS - 1] = (3 - sum % 3) % 3;
+    }
+
+    /**
+     * Orientations of the first 11 edges as a binary number, the last one is implied by the flip sum.
+     *
+     * @param edgeOrientations orientation of the edge in each slot
+     * @return edge orientation coordinate, below EDGE_ORIENTATIONS
+     */
+    public static int getEdgeOrientation(int[] edgeOrientations) {
+        int coordinate = 0;
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS - 1; slot++) {
+            coordinate = 2 * coordinate + edgeOrientations[slot];
+        }
+        return coordinate;
+    }
+
+    /**
+     * Fills edge orientations so that they have the given coordinate.
+     *
+     * @param edgeOrientations orientation of the edge in each slot, to be filled
+     * @param coordinate       edge orientation coordinate
+     */
+    public static void setEdgeOrientation(int[] edgeOrientations, int coordinate) {
+        int sum = 0;
+        for (int slot = MoveTables.EDGE_SLOTS - 2; slot >= 0; slot--) {
+            edgeOrientations[slot] = coordinate & 1;
+            sum += coordinate & 1;
+            coordinate >>= 1;
+        }
+        edgeOrientations[MoveTables.EDGE_SLOTS - 1] = sum & 1;
+    }
+
+    /**
+     * Set of slots holding middle layer edges, ignoring their order.
+     * Ranked with the combinatorial number system over slots shifted so that the middle layer comes first.
+     *
+     * @param edgePermutation id of the edge in each slot
+     * @return UD-slice coordinate, below UD_SLICES
+     */
+    public static int getUdSlice(int[] edgePermutation) {
+        int coordinate = 0;
+        int found = 0;
+        for (int i = 0; i < MoveTables.EDGE_SLOTS; i++) {
+            int slot = (i + FIRST_SLICE_EDGE) % MoveTables.EDGE_SLOTS;
+            if (isSliceEdge(edgePermutation[slot])) {
+                found++;
+                coordinate += BINOMIAL[i][found];
+            }
+        }
+        return coordinate;
+    }
+
+    /**
+     * Fills edge permutation so that it has the given UD-slice coordinate.
+     * Middle layer edges and the remaining edges are placed in the order of their ids.
+     *
+     * @param edgePermutation id of the edge in each slot, to be filled
+     * @param coordinate      UD-slice coordinate
+     */
+    public static void setUdSlice(int[] edgePermutation, int coordinate) {
+        boolean[] slice = new boolean[MoveTables.EDGE_SLOTS];
+        for (int k = SLICE_EDGES; k > 0; k--) {
+            int i = k - 1;
+            while (i + 1 < MoveTables.EDGE_SLOTS && BINOMIAL[i + 1][k] <= coordinate) {
+                i++;
+            }
+            coordinate -= BINOMIAL[i][k];
+            slice[i] = true;
+        }
+        int sliceEdge = FIRST_SLICE_EDGE;
+        int otherEdge = 0;
+        for (int i = 0; i < MoveTables.EDGE_SLOTS; i++) {
+            int slot = (i + FIRST_SLICE_EDGE) % MoveTables.EDGE_SLOTS;
+            if (slice[i]) {
+                edgePermutation[slot] = sliceEdge++;
+            } else {
+                if (otherEdge == FIRST_SLICE_EDGE) {
+                    otherEdge += SLICE_EDGES;
+                }
+                edgePermutation[slot] = otherEdge++;
+            }
+        }
+    }
+
+    /**
+     * Lehmer code of the corner permutation.
+     *
+     * @param cornerPermutation id of the corner in each slot
+     * @return corner permutation coordinate, below CORNER_PERMUTATIONS
+     */
+    public static int getCornerPermutation(int[] cornerPermutation) {
+        return rankPermutation(cornerPermutation, 0, MoveTables.CORNER_SLOTS);
+    }
+
+    /**
+     * Fills corner permutation so that it has the given coordinate.
+     *
+     * @param cornerPermutation id of the corner in each slot, to be filled
+     * @param coordinate        corner permutation coordinate
+     */
+    public static void setCornerPermutation(int[] cornerPermutation, int coordinate) {
+        unrankPermutation(cornerPermutation, 0, MoveTables.CORNER_SLOTS, 0, coordinate);
+    }
+
+    /**
+     * Lehmer code of the permutation of the up and down layer edges.
+     * Only meaningful when all of them are in the up and down layers, i.e. the UD-slice coordinate is 0.
+     *
+     * @param edgePermutation id of the edge in each slot
+     * @return UD edge permutation coordinate, below UD_EDGE_PERMUTATIONS
+     */
+    public static int getUdEdgePermutation(int[] edgePermutation) {
+        int coordinate = 0;
+        for (int i = 0; i < 8; i++) {
+            int id = toUdEdgeIndex(edgePermutation[toUdEdgeSlot(i)]);
+            int smaller = 0;
+            for (int j = i + 1; j < 8; j++) {
+                if (toUdEdgeIndex(edgePermutation[toUdEdgeSlot(j)]) < id) {
+                    smaller++;
+                }
+            }
+            coordinate += smaller * FACTORIAL[7 - i];
+        }
+        return coordinate;
+    }
+
+    /**
+     * Fills edge permutation so that it has the given UD edge permutation coordinate and solved middle layer.
+     *
+     * @param edgePermutation id of the edge in each slot, to be filled
+     * @param coordinate      UD edge permutation coordinate
+     */
+    public static void setUdEdgePermutation(int[] edgePermutation, int coordinate) {
+        int[] permutation = new int[8];
+        unrankPermutation(permutation, 0, 8, 0, coordinate);
+        for (int i = 0; i < 8; i++) {
+            int index = permutation[i];
+            edgePermutation[toUdEdgeSlot(i)] = index < FIRST_SLICE_EDGE ? index : index + SLICE_EDGES;
+        }
+        for (int slot = FIRST_SLICE_EDGE; slot < FIRST_SLICE_EDGE + SLICE_EDGES; slot++) {
+            edgePermutation[slot] = slot;
+        }
+    }
+
+    /**
+     * Lehmer code of the permutation of the middle layer edges.
+     * Only meaningful when all of them are in the middle layer, i.e. the UD-slice coordinate is 0.
+     *
+     * @param edgePermutation id of the edge in each slot
+     * @return slice permutation coordinate, below SLICE_PERMUTATIONS
+     */
+    public static int getSlicePermutation(int[] edgePermutation) {
+        return rankPermutation(edgePermutation, FIRST_SLICE_EDGE, SLICE_EDGES);
+    }
+
+    /**
+     * Fills edge permutation so that it has the given slice permutation coordinate and solved up and down layers.
+     *
+     * @param edgePermutation id of the edge in each slot, to be filled
+     * @param coordinate      slice permutation coordinate
+     */
+    public static void setSlicePermutation(int[] edgePermutation, int coordinate) {
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            edgePermutation[slot] = slot;
+        }
+        unrankPermutation(edgePermutation, FIRST_SLICE_EDGE, SLICE_EDGES, FIRST_SLICE_EDGE, coordinate);
+    }
+
+    /**
+     * Slots holding the up layer edges and their order. Unlike the UD edge permutation it is defined for every state,
+     * and it is below UD_LAYER_EDGE_GROUPS while the up edges are in the up and down layers.
+     *
+     * @param edgePermutation id of the edge in each slot
+     * @return up edges coordinate, below EDGE_GROUPS
+     */
+    public static int getUpEdges(int[] edgePermutation) {
+        return getEdgeGroup(edgePermutation, UP_EDGE_ORDER, FIRST_UP_EDGE);
+    }
+
+    /**
+     * Places the up layer edges so that they have the given coordinate, other slots are left as they are.
+     *
+     * @param edgePermutation id of the edge in each slot, to be filled
+     * @param coordinate      up edges coordinate
+     */
+    public static void setUpEdges(int[] edgePermutation, int coordinate) {
+        setEdgeGroup(edgePermutation, UP_EDGE_ORDER, FIRST_UP_EDGE, coordinate);
+    }
+
+    /**
+     * Slots holding the down layer edges and their order. Unlike the UD edge permutation it is defined for every state,
+     * and it is below UD_LAYER_EDGE_GROUPS while the down edges are in the up and down layers.
+     *
+     * @param edgePermutation id of the edge in each slot
+     * @return down edges coordinate, below EDGE_GROUPS
+     */
+    public static int getDownEdges(int[] edgePermutation) {
+        return getEdgeGroup(edgePermutation, DOWN_EDGE_ORDER, FIRST_DOWN_EDGE);
+    }
+
+    /**
+     * Places the down layer edges so that they have the given coordinate, other slots are left as they are.
+     *
+     * @param edgePermutation id of the edge in each slot, to be filled
+     * @param coordinate      down edges coordinate
+     */
+    public static void setDownEdges(int[] edgePermutation, int coordinate) {
+        setEdgeGroup(edgePermutation, DOWN_EDGE_ORDER, FIRST_DOWN_EDGE, coordinate);
+    }
+
+    /**
+     * Slots holding the middle layer edges and their order. Unlike the slice permutation it is defined for every state,
+     * and it equals the slice permutation while the middle layer edges are in the middle layer.
+     *
+     * @param edgePermutation id of the edge in each slot
+     * @return slice edges coordinate, below EDGE_GROUPS
+     */
+    public static int getSliceEdges(int[] edgePermutation) {
+        return getEdgeGroup(edgePermutation, SLICE_EDGE_ORDER, FIRST_SLICE_EDGE);
+    }
+
+    /**
+     * Places the middle layer edges so that they have the given coordinate, other slots are left as they are.
+     *
+     * @param edgePermutation id of the edge in each slot, to be filled
+     * @param coordinate      slice edges coordinate
+     */
+    public static void setSliceEdges(int[] edgePermutation, int coordinate) {
+        setEdgeGroup(edgePermutation, SLICE_EDGE_ORDER, FIRST_SLICE_EDGE, coordinate);
+    }
+
+    /**
+     * UD edge permutation coordinate of a state with the given up and down edges coordinates, by a table lookup.
+     * Only meaningful when all of them are in the up and down layers, i.e. the UD-slice coordinate is 0.
+     *
+     * @param upEdges   up edges coordinate, below UD_LAYER_EDGE_GROUPS
+     * @param downEdges down edges coordinate
+     * @return UD edge permutation coordinate
+     */
+    public static int getUdEdgePermutation(int upEdges, int downEdges) {
+        return UD_EDGE_PERMUTATION_OF_GROUPS[upEdges * SLICE_PERMUTATIONS + downEdges % SLICE_PERMUTATIONS];
+    }
+
+    /**
+     * Corner orientation coordinate of the given state.
+     *
+     * @param state the cube state
+     * @return corner orientation coordinate
+     */
+    public static int getCornerOrientation(PackedCubeStateRepresentation state) {
+        int coordinate = 0;
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS - 1; slot++) {
+            coordinate = 3 * coordinate + state.getCornerOrientation(slot);
+        }
+        return coordinate;
+    }
+
+    /**
+     * Edge orientation coordinate of the given state.
+     *
+     * @param state the cube state
+     * @return edge orientation coordinate
+     */
+    public static int getEdgeOrientation(PackedCubeStateRepresentation state) {
+        int coordinate = 0;
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS - 1; slot++) {
+            coordinate = 2 * coordinate + state.getEdgeOrientation(slot);
+        }
+        return coordinate;
+    }
+
+    /**
+     * UD-slice coordinate of the given state.
+     *
+     * @param state the cube state
+     * @return UD-slice coordinate
+     */
+    public static int getUdSlice(PackedCubeStateRepresentation state) {
+        return getUdSlice(getEdgePermutation(state));
+    }
+
+    /**
+     * Corner permutation coordinate of the given state.
+     *
+     * @param state the cube state
+     * @return corner permutation coordinate
+     */
+    public static int getCornerPermutation(PackedCubeStateRepresentation state) {
+        return getCornerPermutation(getCornerPermutationArray(state));
+    }
+
+    /**
+     * UD edge permutation coordinate of the given state, only meaningful when the UD-slice coordinate is 0.
+     *
+     * @param state the cube state
+     * @return UD edge permutation coordinate
+     */
+    public static int getUdEdgePermutation(PackedCubeStateRepresentation state) {
+        return getUdEdgePermutation(getEdgePermutation(state));
+    }
+
+    /**
+     * Up edges coordinate of the given state.
+     *
+     * @param state the cube state
+     * @return up edges coordinate
+     */
+    public static int getUpEdges(PackedCubeStateRepresentation state) {
+        return getUpEdges(getEdgePermutation(state));
+    }
+
+    /**
+     * Down edges coordinate of the given state.
+     *
+     * @param state the cube state
+     * @return down edges coordinate
+     */
+    public static int getDownEdges(PackedCubeStateRepresentation state) {
+        return getDownEdges(getEdgePermutation(state));
+    }
+
+    /**
+     * Slice edges coordinate of the given state.
+     *
+     * @param state the cube state
+     * @return slice edges coordinate
+     */
+    public static int getSliceEdges(PackedCubeStateRepresentation state) {
+        return getSliceEdges(getEdgePermutation(state));
+    }
+
+    /**
+     * Slice permutation coordinate of the given state, only meaningful when the UD-slice coordinate is 0.
+     *
+     * @param state the cube state
+     * @return slice permutation coordinate
+     */
+    public static int getSlicePermutation(PackedCubeStateRepresentation state) {
+        return getSlicePermutation(getEdgePermutation(state));
+    }
+
+    private static int[] getCornerPermutationArray(PackedCubeStateRepresentation state) {
+        int[] permutation = new int[MoveTables.CORNER_SLOTS];
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            permutation[slot] = state.getCornerId(slot);
+        }
+        return permutation;
+    }
+
+    private static int[] getEdgePermutation(PackedCubeStateRepresentation state) {
+        int[] permutation = new int[MoveTables.EDGE_SLOTS];
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            permutation[slot] = state.getEdgeId(slot);
+        }
+        return permutation;
+    }
+
+    // i-th up/down edge slot: 0 - 3 up layer, 4 - 7 down layer
+    private static int toUdEdgeSlot(int i) {
+        return i < FIRST_SLICE_EDGE ? i : i + SLICE_EDGES;
+    }
+
+    private static int toUdEdgeIndex(int edgeId) {
+        return edgeId < FIRST_SLICE_EDGE ? edgeId : edgeId - SLICE_EDGES;
+    }
+
+    private static boolean isSliceSlot(int slot) {
+        return slot >= FIRST_SLICE_EDGE && slot < FIRST_SLICE_EDGE + SLICE_EDGES;
+    }
+
+    // combination of the slots holding the group, ranked in the given slot order, then the order of its edges
+    private static int getEdgeGroup(int[] edgePermutation, int[] order, int firstEdge) {
+        int[] group = new int[SLICE_EDGES];
+        int combination = 0;
+        int found = 0;
+        for (int i = 0; i < MoveTables.EDGE_SLOTS; i++) {
+            int id = edgePermutation[order[i]];
+            if (id >= firstEdge && id < firstEdge + SLICE_EDGES) {
+                group[found++] = id;
+                combination += BINOMIAL[i][found];
+            }
+        }
+        return combination * SLICE_PERMUTATIONS + rankPermutation(group, 0, SLICE_EDGES);
+    }
+
+    private static void setEdgeGroup(int[] edgePermutation, int[] order, int firstEdge, int coordinate) {
+        int[] group = new int[SLICE_EDGES];
+        unrankPermutation(group, 0, SLICE_EDGES, firstEdge, coordinate % SLICE_PERMUTATIONS);
+        int combination = coordinate / SLICE_PERMUTATIONS;
+        for (int k = SLICE_EDGES; k > 0; k--) {
+            int i = k - 1;
+            while (i + 1 < MoveTables.EDGE_SLOTS && BINOMIAL[i + 1][k] <= combination) {
+                i++;
+            }
+            combination -= BINOMIAL[i][k];
+            edgePermutation[order[i]] = group[k - 1];
+        }
+    }
+
+    private static int rankPermutation(int[] permutation, int from, int length) {
+        int coordinate = 0;
+        for (int i = 0; i < length; i++) {
+            int smaller = 0;
+            for (int j = i + 1; j < length; j++) {
+                if (permutation[from + j] < permutation[from + i]) {
+                    smaller++;
+                }
+            }
+            coordinate += smaller * FACTORIAL[length - 1 - i];
+        }
+        return coordinate;
+    }
+
+    private static void unrankPermutation(int[] permutation, int from, int length, int firstId, int coordinate) {
+        boolean[] used = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            int smaller = coordinate / FACTORIAL[length - 1 - i];
+            coordinate %= FACTORIAL[length - 1 - i];
+            int id = 0;
+            while (used[id] || smaller > 0) {
+                if (!used[id]) {
+                    smaller--;
+                }
+                id++;
+            }
+            used[id] = true;
+            permutation[from + i] = firstId + id;
+        }
+    }
+}
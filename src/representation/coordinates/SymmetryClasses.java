@@ -0,0 +1,104 @@
+package representation.coordinates;
+
+import representation.symmetries.SymmetryTables;
+
+import java.util.Arrays;
+
+/**
+ * Partition of the values of a coordinate into classes of values conjugate to each other by the symmetries
+ * keeping the up-down axis. Every class is represented by its smallest value.
+ * Pruning tables indexed by class instead of by value are about UD_SYMMETRIES times smaller.
+ */
+public final class SymmetryClasses {
+    private final int[] classIndices;
+    private final byte[] symmetries;
+    private final int[] representatives;
+    private final int[] stabilizers;
+
+    /**
+     * Splits the values of a coordinate into symmetry classes.
+     *
+     * @param conjugate conjugation table of the coordinate, as in CoordinateSymmetryTables
+     * @param size      amount of values of the coordinate
+     */
+    public SymmetryClasses(int[] conjugate, int size) {
+        classIndices = new int[size];
+        symmetries = new byte[size];
+        int[] foundRepresentatives = new int[size];
+        int[] foundStabilizers = new int[size];
+        int classes = 0;
+        Arrays.fill(classIndices, -1);
+        for (int value = 0; value < size; value++) {
+            if (classIndices[value] >= 0) {
+                continue;
+            }
+            // the smallest value of a class is the first one met
+            int stabilizer = 0;
+            for (int symmetry = 0; symmetry < SymmetryTables.UD_SYMMETRIES; symmetry++) {
+                int conjugated = conjugate[value * SymmetryTables.UD_SYMMETRIES + symmetry];
+                if (conjugated == value) {
+                    stabilizer |= 1 << symmetry;
+                }
+                if (classIndices[conjugated] < 0) {
+                    classIndices[conjugated] = classes;
+                    // conjugating back by the inverse gives the representative
+                    symmetries[conjugated] = (byte) SymmetryTables.getInverse(symmetry);
+                }
+            }
+            foundRepresentatives[classes] = value;
+            foundStabilizers[classes] = stabilizer;
+            classes++;
+        }
+        representatives = Arrays.copyOf(foundRepresentatives, classes);
+        stabilizers = Arrays.copyOf(foundStabilizers, classes);
+    }
+
+    /**
+     * Returns the amount of classes.
+     *
+     * @return the amount of classes
+     */
+    public int size() {
+        return representatives.length;
+    }
+
+    /**
+     * Returns the class the value belongs to.
+     *
+     * @param value value of the coordinate
+     * @return index of the class
+     */
+    public int getClassIndex(int value) {
+        return classIndices[value];
+    }
+
+    /**
+     * Returns a symmetry conjugating the value into the representative of its class.
+     *
+     * @param value value of the coordinate
+     * @return index of the symmetry, below UD_SYMMETRIES
+     */
+    public int getSymmetry(int value) {
+        return symmetries[value];
+    }
+
+    /**
+     * Returns the representative of the class.
+     *
+     * @param classIndex index of the class
+     * @return the smallest value of the class
+     */
+    public int getRepresentative(int classIndex) {
+        return representatives[classIndex];
+    }
+
+    /**
+     * Returns the symmetries conjugating the representative of the class into itself.
+     *
+     * @param classIndex index of the class
+     * @return bit mask of the symmetries, bit i standing for symmetry i
+     */
+    public int getStabilizer(int classIndex) {
+        return stabilizers[classIndex];
+    }
+}
@@ -0,0 +1,52 @@
+package representation.moves;
+
+public enum Face {
+    RIGHT('R'),
+    LEFT('L'),
+    UP('U'),
+    DOWN('D'),
+    FRONT('F'),
+    BACK('B');
+
+    private final char notation;
+
+    Face(char notation) {
+        this.notation = notation;
+    }
+
+    /**
+     * Returns the letter used for the face in scramble notation.
+     *
+     * @return the letter used for the face in scramble notation.
+     */
+    public char getNotation() {
+        return notation;
+    }
+
+    /**
+     * Returns the face denoted by the given letter.
+     *
+     * @param notation letter of the face in scramble notation
+     * @return the face denoted by the given letter
+     */
+    public static Face fromNotation(char notation) {
+        return switch (notation) {
+            case 'R' -> RIGHT;
+            case 'L' -> LEFT;
+            case 'U' -> UP;
+            case 'D' -> DOWN;
+            case 'F' -> FRONT;
+            case 'B' -> BACK;
+            default -> throw new IllegalArgumentException("Invalid face: " + notation);
+        };
+    }
+
+    /**
+     * Returns the face parallel to this one.
+     *
+     * @return the opposite face.
+     */
+    public Face getOpposite() {
+        return values()[ordinal() ^ 1];
+    }
+}
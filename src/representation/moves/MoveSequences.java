@@ -0,0 +1,100 @@
+package representation.moves;
+
+/**
+ * Simplification of move sequences, given as move indices from MoveTables.
+ * Consecutive turns of the same face are merged (R R' and U U2 U vanish), and so are turns separated only by
+ * a turn of the opposite face, which commutes with them (R L R becomes R2 L).
+ * The result is canonical: no face is turned twice within a run of moves on the same axis,
+ * and two consecutive turns of opposite faces are ordered by face (R before L, U before D, F before B),
+ * the same order the solvers search in.
+ */
+public final class MoveSequences {
+    private MoveSequences() {
+    }
+
+    /**
+     * Returns the simplified sequence.
+     *
+     * @param moves indices of the moves, not modified
+     * @return indices of the simplified moves
+     */
+    public static int[] simplify(int[] moves) {
+        int[] simplified = moves.clone();
+        int length = simplify(simplified, simplified.length);
+        if (length == simplified.length) {
+            return simplified;
+        }
+        int[] result = new int[length];
+        System.arraycopy(simplified, 0, result, 0, length);
+        return result;
+    }
+
+    /**
+     * Simplifies the first moves of the array in place.
+     *
+     * @param moves  indices of the moves, the simplified ones are written to the beginning
+     * @param length the amount of moves to be simplified
+     * @return the amount of simplified moves
+     */
+    public static int simplify(int[] moves, int length) {
+        int simplified = 0;
+        for (int i = 0; i < length; i++) {
+            // the simplified prefix never outgrows the moves read, so unread moves are not overwritten
+            simplified = push(moves, simplified, moves[i]);
+        }
+        return simplified;
+    }
+
+    /**
+     * Simplifies the first moves of the array in place.
+     *
+     * @param moves  indices of the moves, the simplified ones are written to the beginning
+     * @param length the amount of moves to be simplified
+     * @return the amount of simplified moves
+     */
+    public static int simplify(byte[] moves, int length) {
+        int[] buffer = new int[length];
+        for (int i = 0; i < length; i++) {
+            buffer[i] = moves[i];
+        }
+        int simplified = simplify(buffer, length);
+        for (int i = 0; i < simplified; i++) {
+            moves[i] = (byte) buffer[i];
+        }
+        return simplified;
+    }
+
+    // appends the move to the simplified sequence of the given length, returns its new length
+    private static int push(int[] moves, int length, int move) {
+        int face = move / 3;
+        if (length > 0 && moves[length - 1] / 3 == face) {
+            return merge(moves, length, length - 1, move);
+        }
+        boolean afterOpposite = length > 0 && moves[length - 1] / 3 == (face ^ 1);
+        if (afterOpposite && length > 1 && moves[length - 2] / 3 == face) {
+            return merge(moves, length, length - 2, move);
+        }
+        if (afterOpposite && face < moves[length - 1] / 3) {
+            moves[length] = moves[length - 1];
+            moves[length - 1] = move;
+            return length + 1;
+        }
+        moves[length] = move;
+        return length + 1;
+    }
+
+    // adds the move to the one at the index, of the same face, removing it if they cancel out
+    private static int merge(int[] moves, int length, int index, int move) {
+        int face = move / 3;
+        int amount = (MoveTables.getAmount(moves[index]) + MoveTables.getAmount(move)) % 4;
+        if (amount != 0) {
+            moves[index] = 3 * face + amount - 1;
+            return length;
+        }
+        if (index == length - 1) {
+            return index;
+        }
+        // the opposite face turn after it may now merge with the moves before
+        return push(moves, index, moves[length - 1]);
+    }
+}
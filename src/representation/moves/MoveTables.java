@@ -0,0 +1,277 @@
+package representation.moves;
+
+import representation.pieces.Corner;
+import representation.pieces.Edge;
+
+/**
+ * Precomputed piece transitions for all 18 face turns.
+ * A move index is 3 * face + power, where power 0, 1, 2 stands for a quarter, half and prime turn.
+ * Slots are flattened the same way as piece ids: slot = 4 * layer + position.
+ * The tables are private and read through the accessors, so no caller can corrupt them for the others.
+ */
+public final class MoveTables {
+    public static final int MOVES = 18;
+    public static final int CORNER_SLOTS = Corner.LAYERS * Corner.POSITIONS;
+    public static final int EDGE_SLOTS = Edge.LAYERS * Edge.POSITIONS;
+
+    private static final Face[] FACES = Face.values();
+
+    // [move][slot] - slot the piece is taken from
+    private static final int[][] CORNER_SOURCE = new int[MOVES][];
+    // [move][slot] - orientation added (mod 3) to the piece after it lands in the slot
+    private static final int[][] CORNER_TWIST = new int[MOVES][];
+    private static final int[][] EDGE_SOURCE = new int[MOVES][];
+    // [move][slot] - 1 if the piece is flipped after it lands in the slot
+    private static final int[][] EDGE_FLIP = new int[MOVES][];
+
+    // Quarter turns, indexed by face; [i][0] is layer, [i][1] is position in layer, i + 1 goes to i
+    private static final int[][][] QUARTER_CORNER_CYCLES = {
+            {{0, 2}, {1, 2}, {1, 1}, {0, 1}}, // R
+            {{0, 0}, {1, 0}, {1, 3}, {0, 3}}, // L
+            {{0, 0}, {0, 3}, {0, 2}, {0, 1}}, // U
+            {{1, 0}, {1, 1}, {1, 2}, {1, 3}}, // D
+            {{0, 2}, {0, 3}, {1, 3}, {1, 2}}, // F
+            {{0, 0}, {0, 1}, {1, 1}, {1, 0}}, // B
+    };
+    // EASY TO MAKE A MISTAKE HERE
+    // Orientation added to the corners along the cycle above, after permuting; 1 - counter-clockwise, 2 - clockwise
+    private static final int[][] QUARTER_CORNER_TWISTS = {
+            {1, 2, 1, 2}, // R
+            {1, 2, 1, 2}, // L
+            {0, 0, 0, 0}, // U preserves corner orientation
+            {0, 0, 0, 0}, // D preserves corner orientation
+            {2, 1, 2, 1}, // F
+            {2, 1, 2, 1}, // B
+    };
+    private static final int[][][] QUARTER_EDGE_CYCLES = {
+            {{0, 1}, {1, 2}, {2, 1}, {1, 1}}, // R
+            {{0, 3}, {1, 0}, {2, 3}, {1, 3}}, // L
+            {{0, 3}, {0, 2}, {0, 1}, {0, 0}}, // U
+            {{2, 0}, {2, 1}, {2, 2}, {2, 3}}, // D
+            {{0, 2}, {1, 3}, {2, 2}, {1, 2}}, // F
+            {{0, 0}, {1, 1}, {2, 0}, {1, 0}}, // B
+    };
+    // Only F and B change edge orientation
+    private static final int[] QUARTER_EDGE_FLIPS = {0, 0, 0, 0, 1, 1};
+
+    static {
+        for (Face face : Face.values()) {
+            int[] cornerSource = identity(CORNER_SLOTS);
+            int[] cornerTwist = new int[CORNER_SLOTS];
+            int[] edgeSource = identity(EDGE_SLOTS);
+            int[] edgeFlip = new int[EDGE_SLOTS];
+            int[][] cornerCycle = QUARTER_CORNER_CYCLES[face.ordinal()];
+            int[][] edgeCycle = QUARTER_EDGE_CYCLES[face.ordinal()];
+            for (int i = 0; i < 4; i++) {
+                int cornerSlot = Corner.POSITIONS * cornerCycle[i][0] + cornerCycle[i][1];
+                int[] nextCorner = cornerCycle[(i + 1) % 4];
+                cornerSource[cornerSlot] = Corner.POSITIONS * nextCorner[0] + nextCorner[1];
+                cornerTwist[cornerSlot] = QUARTER_CORNER_TWISTS[face.ordinal()][i];
+
+                int edgeSlot = Edge.POSITIONS * edgeCycle[i][0] + edgeCycle[i][1];
+                int[] nextEdge = edgeCycle[(i + 1) % 4];
+                edgeSource[edgeSlot] = Edge.POSITIONS * nextEdge[0] + nextEdge[1];
+                edgeFlip[edgeSlot] = QUARTER_EDGE_FLIPS[face.ordinal()];
+            }
+
+            int[] source = cornerSource;
+            int[] twist = cornerTwist;
+            int[] edges = edgeSource;
+            int[] flip = edgeFlip;
+            for (int power = 0; power < 3; power++) {
+                int move = 3 * face.ordinal() + power;
+                CORNER_SOURCE[move] = source;
+                CORNER_TWIST[move] = twist;
+                EDGE_SOURCE[move] = edges;
+                EDGE_FLIP[move] = flip;
+
+                // next power is this one followed by another quarter turn
+                int[] nextSource = new int[CORNER_SLOTS];
+                int[] nextTwist = new int[CORNER_SLOTS];
+                for (int slot = 0; slot < CORNER_SLOTS; slot++) {
+                    nextSource[slot] = source[cornerSource[slot]];
+                    nextTwist[slot] = (twist[cornerSource[slot]] + cornerTwist[slot]) % 3;
+                }
+                int[] nextEdges = new int[EDGE_SLOTS];
+                int[] nextFlip = new int[EDGE_SLOTS];
+                for (int slot = 0; slot < EDGE_SLOTS; slot++) {
+                    nextEdges[slot] = edges[edgeSource[slot]];
+                    nextFlip[slot] = flip[edgeSource[slot]] ^ edgeFlip[slot];
+                }
+                source = nextSource;
+                twist = nextTwist;
+                edges = nextEdges;
+                flip = nextFlip;
+            }
+        }
+    }
+
+    private MoveTables() {
+    }
+
+    /**
+     * Returns the slot the move takes the piece of the given corner slot from.
+     *
+     * @param move index of the move
+     * @param slot corner slot, 4 * layer + position
+     * @return the source slot
+     */
+    public static int getCornerSource(int move, int slot) {
+        return CORNER_SOURCE[move][slot];
+    }
+
+    /**
+     * Returns the orientation the move adds (mod 3) to the corner landing in the given slot.
+     *
+     * @param move index of the move
+     * @param slot corner slot, 4 * layer + position
+     * @return the twist, 0 to 2
+     */
+    public static int getCornerTwist(int move, int slot) {
+        return CORNER_TWIST[move][slot];
+    }
+
+    /**
+     * Returns the slot the move takes the piece of the given edge slot from.
+     *
+     * @param move index of the move
+     * @param slot edge slot, 4 * layer + position
+     * @return the source slot
+     */
+    public static int getEdgeSource(int move, int slot) {
+        return EDGE_SOURCE[move][slot];
+    }
+
+    /**
+     * Returns whether the move flips the edge landing in the given slot.
+     *
+     * @param move index of the move
+     * @param slot edge slot, 4 * layer + position
+     * @return 1 if the edge is flipped, 0 otherwise
+     */
+    public static int getEdgeFlip(int move, int slot) {
+        return EDGE_FLIP[move][slot];
+    }
+
+    /**
+     * Returns the corner source slots of the move, as in getCornerSource(int, int).
+     *
+     * @param move index of the move
+     * @return a new array, indexed by slot
+     */
+    public static int[] getCornerSources(int move) {
+        return CORNER_SOURCE[move].clone();
+    }
+
+    /**
+     * Returns the corner twists of the move, as in getCornerTwist(int, int).
+     *
+     * @param move index of the move
+     * @return a new array, indexed by slot
+     */
+    public static int[] getCornerTwists(int move) {
+        return CORNER_TWIST[move].clone();
+    }
+
+    /**
+     * Returns the edge source slots of the move, as in getEdgeSource(int, int).
+     *
+     * @param move index of the move
+     * @return a new array, indexed by slot
+     */
+    public static int[] getEdgeSources(int move) {
+        return EDGE_SOURCE[move].clone();
+    }
+
+    /**
+     * Returns the edge flips of the move, as in getEdgeFlip(int, int).
+     *
+     * @param move index of the move
+     * @return a new array, indexed by slot
+     */
+    public static int[] getEdgeFlips(int move) {
+        return EDGE_FLIP[move].clone();
+    }
+
+    /**
+     * Returns the index of the given face move.
+     * Negative amount corresponds to the counter-clockwise move.
+     *
+     * @param face   the face to be turned
+     * @param amount the amount of moves, one of -1, 1, 2, 3
+     * @return index of the move, between 0 and 17
+     */
+    public static int moveIndex(Face face, int amount) {
+        return switch (amount) {
+            case 1 -> 3 * face.ordinal();
+            case 2 -> 3 * face.ordinal() + 1;
+            case 3, -1 -> 3 * face.ordinal() + 2;
+            default -> throw new IllegalArgumentException("Amount of moves must be -1, 1, 2 or 3");
+        };
+    }
+
+    /**
+     * Returns the face turned by the given move.
+     *
+     * @param move index of the move
+     * @return the face turned by the given move
+     */
+    public static Face getFace(int move) {
+        return FACES[move / 3];
+    }
+
+    /**
+     * Returns the amount of clockwise quarter turns made by the given move.
+     *
+     * @param move index of the move
+     * @return 1, 2 or 3
+     */
+    public static int getAmount(int move) {
+        return move % 3 + 1;
+    }
+
+    /**
+     * Returns the index of the move undoing the given move.
+     *
+     * @param move index of the move
+     * @return index of the inverse move
+     */
+    public static int inverse(int move) {
+        return move - move % 3 + 2 - move % 3;
+    }
+
+    /**
+     * Returns whether the move belongs to the group generated by U, D, R2, L2, F2 and B2,
+     * i.e. keeps orientations and the middle layer edges in the middle layer.
+     *
+     * @param move index of the move
+     * @return whether the move is a domino group move
+     */
+    public static boolean isDominoMove(int move) {
+        Face face = getFace(move);
+        return face == Face.UP || face == Face.DOWN || move % 3 == 1;
+    }
+
+    /**
+     * Returns the move in scramble notation, e.g. R, U2 or F'.
+     *
+     * @param move index of the move
+     * @return the move in scramble notation
+     */
+    public static String toNotation(int move) {
+        char face = getFace(move).getNotation();
+        return switch (move % 3) {
+            case 0 -> String.valueOf(face);
+            case 1 -> face + "2";
+            default -> face + "'";
+        };
+    }
+
+    private static int[] identity(int size) {
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+        return permutation;
+    }
+}
@@ -0,0 +1,277 @@
+package representation.nxn;
+
+import representation.moves.Face;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State of an NxN cube as a flat array of facelets, one byte per facelet holding the index of the face its colour
+ * belongs to. Faces come in the order U, R, F, D, L, B and their facelets row by row, as in Facelets,
+ * so a 3x3 state prints the same facelet string as the piece representations.
+ * <p>
+ * Every layer turn is precomputed, per cube size, as the 4-cycles of facelet indices it makes:
+ * the ring of 4 * N facelets around the layer, plus the N^2 facelets of the face for the outer layers.
+ * Making a move is one loop over the cycles of its layers, so an inner slice costs O(N) and not O(N^2).
+ * The cycles are derived from the geometry: every facelet has a position in space, and turning a layer rotates
+ * the positions of its facelets by 90 degrees around the axis of the face.
+ */
+public class NxNCubeState {
+    public static final int FACES = 6;
+    public static final String FACE_LETTERS = "URFDLB";
+
+    // [size] - tables shared by all the cubes of the size
+    private static final Map<Integer, Cycles> CYCLES = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final byte[] facelets;
+    private final Cycles cycles;
+
+    /**
+     * Creates a solved cube.
+     *
+     * @param size amount of layers, at least 2
+     */
+    public NxNCubeState(int size) {
+        if (size < 2) {
+            throw new IllegalArgumentException("Size must be at least 2");
+        }
+        this.size = size;
+        this.facelets = new byte[FACES * size * size];
+        for (int face = 0; face < FACES; face++) {
+            Arrays.fill(facelets, face * size * size, (face + 1) * size * size, (byte) face);
+        }
+        this.cycles = CYCLES.computeIfAbsent(size, Cycles::new);
+    }
+
+    /**
+     * Creates a copy of the given cube.
+     *
+     * @param state the cube to be copied
+     */
+    public NxNCubeState(NxNCubeState state) {
+        this.size = state.size;
+        this.facelets = state.facelets.clone();
+        this.cycles = state.cycles;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Applies the move.
+     *
+     * @param move the move
+     * @throws IllegalArgumentException if the move doesn't exist on a cube of this size
+     */
+    public void makeMove(NxNMove move) {
+        turn(move.face(), move.getFirstLayer(size), move.getLastLayer(size), move.amount());
+    }
+
+    /**
+     * Turns the given range of layers.
+     *
+     * @param face       face the layers are counted from and the turn is clockwise as seen from
+     * @param firstLayer index of the first layer turned, 0 being the one of the face
+     * @param lastLayer  index of the last layer turned, inclusive
+     * @param amount     clockwise quarter turns, 1 to 3
+     */
+    public void turn(Face face, int firstLayer, int lastLayer, int amount) {
+        if (firstLayer < 0 || lastLayer >= size || firstLayer > lastLayer) {
+            throw new IllegalArgumentException("Invalid layers " + firstLayer + " to " + lastLayer);
+        }
+        for (int layer = firstLayer; layer <= lastLayer; layer++) {
+            int[] layerCycles = cycles.cycles[face.ordinal()][layer];
+            switch (amount) {
+                case 1 -> cycleForward(layerCycles);
+                case 2 -> swapOpposite(layerCycles);
+                case 3 -> cycleBackward(layerCycles);
+                default -> throw new IllegalArgumentException("Amount of quarter turns must be 1, 2 or 3");
+            }
+        }
+    }
+
+    /**
+     * Returns the face whose colour the facelet has.
+     *
+     * @param face index of the face in the order U, R, F, D, L, B
+     * @param row  row of the facelet, as in Facelets
+     * @param col  column of the facelet, as in Facelets
+     * @return index of the face of the colour, in the same order
+     */
+    public int getFacelet(int face, int row, int col) {
+        return facelets[(face * size + row) * size + col];
+    }
+
+    /**
+     * Returns whether every face has a single colour. Cubes without fixed centres may be solved in any rotation.
+     *
+     * @return whether the cube is solved
+     */
+    public boolean isSolved() {
+        for (int face = 0; face < FACES; face++) {
+            byte colour = facelets[face * size * size];
+            for (int i = face * size * size + 1; i < (face + 1) * size * size; i++) {
+                if (facelets[i] != colour) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the facelets with the face letters U, R, F, D, L and B, 6 * N^2 of them.
+     *
+     * @return the facelet string
+     */
+    public String toFacelets() {
+        char[] letters = new char[facelets.length];
+        for (int i = 0; i < facelets.length; i++) {
+            letters[i] = FACE_LETTERS.charAt(facelets[i]);
+        }
+        return new String(letters);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof NxNCubeState other && Arrays.equals(facelets, other.facelets);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(facelets);
+    }
+
+    // every cycle a -> b -> c -> d is a quarter turn moving the facelet at a to b
+    private void cycleForward(int[] cycles) {
+        for (int i = 0; i < cycles.length; i += 4) {
+            byte last = facelets[cycles[i + 3]];
+            facelets[cycles[i + 3]] = facelets[cycles[i + 2]];
+            facelets[cycles[i + 2]] = facelets[cycles[i + 1]];
+            facelets[cycles[i + 1]] = facelets[cycles[i]];
+            facelets[cycles[i]] = last;
+        }
+    }
+
+    private void cycleBackward(int[] cycles) {
+        for (int i = 0; i < cycles.length; i += 4) {
+            byte first = facelets[cycles[i]];
+            facelets[cycles[i]] = facelets[cycles[i + 1]];
+            facelets[cycles[i + 1]] = facelets[cycles[i + 2]];
+            facelets[cycles[i + 2]] = facelets[cycles[i + 3]];
+            facelets[cycles[i + 3]] = first;
+        }
+    }
+
+    private void swapOpposite(int[] cycles) {
+        for (int i = 0; i < cycles.length; i += 4) {
+            byte swap = facelets[cycles[i]];
+            facelets[cycles[i]] = facelets[cycles[i + 2]];
+            facelets[cycles[i + 2]] = swap;
+            swap = facelets[cycles[i + 1]];
+            facelets[cycles[i + 1]] = facelets[cycles[i + 3]];
+            facelets[cycles[i + 3]] = swap;
+        }
+    }
+
+    /**
+     * Facelet cycles of all the layer turns of one cube size.
+     * <p>
+     * Positions are in units of half a cubie, the centre of the cube at 0: cubie centres are at -(N - 1) to N - 1
+     * in steps of 2 and facelets lie on the planes at -N and N.
+     */
+    private static final class Cycles {
+        // [Face ordinal] - outward normal of the face
+        private static final int[][] NORMALS = {
+                {1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1},
+        };
+        // [facelet face][0 - normal, 1 - direction of growing columns, 2 - of growing rows], faces in the order U, R, F, D, L, B
+        private static final int[][][] FACELET_AXES = {
+                {{0, 1, 0}, {1, 0, 0}, {0, 0, 1}}, // U, back row first
+                {{1, 0, 0}, {0, 0, -1}, {0, -1, 0}}, // R
+                {{0, 0, 1}, {1, 0, 0}, {0, -1, 0}}, // F
+                {{0, -1, 0}, {1, 0, 0}, {0, 0, -1}}, // D, front row first
+                {{-1, 0, 0}, {0, 0, 1}, {0, -1, 0}}, // L
+                {{0, 0, -1}, {-1, 0, 0}, {0, -1, 0}}, // B
+        };
+
+        // [Face ordinal][layer] - 4-cycles of facelet indices, 4 entries each
+        private final int[][][] cycles;
+
+        private Cycles(int size) {
+            int count = FACES * size * size;
+            int[][] positions = new int[count][];
+            Map<Integer, Integer> indices = new HashMap<>();
+            for (int face = 0; face < FACES; face++) {
+                int[][] axes = FACELET_AXES[face];
+                for (int row = 0; row < size; row++) {
+                    for (int col = 0; col < size; col++) {
+                        int[] position = new int[3];
+                        for (int i = 0; i < 3; i++) {
+                            position[i] = size * axes[0][i] + (2 * col - (size - 1)) * axes[1][i] + (2 * row - (size - 1)) * axes[2][i];
+                        }
+                        int index = (face * size + row) * size + col;
+                        positions[index] = position;
+                        indices.put(key(position, size), index);
+                    }
+                }
+            }
+
+            cycles = new int[Face.values().length][size][];
+            for (Face face : Face.values()) {
+                int[] axis = NORMALS[face.ordinal()];
+                for (int layer = 0; layer < size; layer++) {
+                    int[] layerCycles = new int[count];
+                    int length = 0;
+                    boolean[] done = new boolean[count];
+                    for (int start = 0; start < count; start++) {
+                        if (done[start] || cubieCoordinate(positions[start], axis, size) != size - 1 - 2 * layer) {
+                            continue;
+                        }
+                        int next = indices.get(key(rotate(positions[start], axis), size));
+                        if (next == start) {
+                            // the centre of an odd cube's face
+                            done[start] = true;
+                            continue;
+                        }
+                        int index = start;
+                        for (int i = 0; i < 4; i++) {
+                            done[index] = true;
+                            layerCycles[length++] = index;
+                            index = indices.get(key(rotate(positions[index], axis), size));
+                        }
+                    }
+                    cycles[face.ordinal()][layer] = Arrays.copyOf(layerCycles, length);
+                }
+            }
+        }
+
+        // coordinate along the axis of the cubie the facelet belongs to
+        private static int cubieCoordinate(int[] position, int[] axis, int size) {
+            int coordinate = position[0] * axis[0] + position[1] * axis[1] + position[2] * axis[2];
+            return Math.abs(coordinate) == size ? coordinate - Integer.signum(coordinate) : coordinate;
+        }
+
+        // rotation by 90 degrees clockwise as seen from the end of the axis: v' = a (a . v) - a x v
+        private static int[] rotate(int[] v, int[] a) {
+            int dot = a[0] * v[0] + a[1] * v[1] + a[2] * v[2];
+            return new int[]{
+                    a[0] * dot - (a[1] * v[2] - a[2] * v[1]),
+                    a[1] * dot - (a[2] * v[0] - a[0] * v[2]),
+                    a[2] * dot - (a[0] * v[1] - a[1] * v[0]),
+            };
+        }
+
+        private static int key(int[] position, int size) {
+            int side = 2 * size + 1;
+            return ((position[0] + size) * side + position[1] + size) * side + position[2] + size;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package representation.nxn;
+
+import representation.moves.Face;
+
+/**
+ * Move of an NxN cube, independent of its size: a face turn of one or more layers, counted from that face.
+ * <p>
+ * Written as in WCA notation: R turns the outer layer, Rw or r the outer 2 layers, 3Rw the outer 3 layers
+ * and 3R the third layer alone. Rotations (x, y, z) turn all the layers and slices (M, E, S) the middle one.
+ *
+ * @param face   face the layers are counted from and the turn is clockwise as seen from
+ * @param depth  amount of layers for wide moves, the index of the layer counted from 1 otherwise,
+ *               or ALL_LAYERS or MIDDLE_LAYER
+ * @param wide   whether all the layers up to the depth are turned
+ * @param amount clockwise quarter turns, 1 to 3
+ */
+public record NxNMove(Face face, int depth, boolean wide, int amount) {
+    public static final int ALL_LAYERS = -1;
+    public static final int MIDDLE_LAYER = -2;
+
+    public NxNMove {
+        if (amount < 1 || amount > 3) {
+            throw new IllegalArgumentException("Amount of quarter turns must be 1, 2 or 3");
+        }
+        if (depth < 1 && depth != ALL_LAYERS && depth != MIDDLE_LAYER) {
+            throw new IllegalArgumentException("Invalid depth: " + depth);
+        }
+    }
+
+    /**
+     * Returns the first layer turned on a cube of the given size.
+     *
+     * @param size amount of layers of the cube
+     * @return index of the layer, 0 being the one of the face
+     * @throws IllegalArgumentException if the move doesn't exist on a cube of the size
+     */
+    public int getFirstLayer(int size) {
+        return switch (depth) {
+            case ALL_LAYERS -> 0;
+            case MIDDLE_LAYER -> getLastLayer(size);
+            default -> {
+                getLastLayer(size);
+                yield wide ? 0 : depth - 1;
+            }
+        };
+    }
+
+    /**
+     * Returns the last layer turned on a cube of the given size.
+     *
+     * @param size amount of layers of the cube
+     * @return index of the layer, 0 being the one of the face
+     * @throws IllegalArgumentException if the move doesn't exist on a cube of the size
+     */
+    public int getLastLayer(int size) {
+        if (depth == ALL_LAYERS) {
+            return size - 1;
+        }
+        if (depth == MIDDLE_LAYER) {
+            if (size % 2 == 0) {
+                throw new IllegalArgumentException("A cube of size " + size + " has no middle layer");
+            }
+            return size / 2;
+        }
+        if (depth > size) {
+            throw new IllegalArgumentException("A cube of size " + size + " has no layer " + depth);
+        }
+        return depth - 1;
+    }
+
+    /**
+     * Returns whether the move turns only the outer layer, the only kind of move of the 3x3 representations.
+     *
+     * @return whether the move is a plain face move
+     */
+    public boolean isFaceMove() {
+        return depth == 1;
+    }
+}
@@ -1,51 +1,86 @@
 package representation.pieces;
 
-public class Corner {
+/**
+ * Immutable corner piece in some orientation. There are only 24 of them, all created up front:
+ * instances are obtained by of() and compared by identity as well as by equals.
+ */
+public final class Corner {
     public static final int LAYERS = 2;
     public static final int POSITIONS = 4;
+    public static final int ORIENTATIONS = 3;
 
+    // [ORIENTATIONS * id + orientation]
+    private static final Corner[] INTERNED = new Corner[LAYERS * POSITIONS * ORIENTATIONS];
+
+    static {
+        for (int i = 0; i < INTERNED.length; i++) {
+            INTERNED[i] = new Corner(i / ORIENTATIONS, i % ORIENTATIONS);
+        }
+    }
 
     // 0 - 7: unique identifier
     private final int id;
     // 0 - 2: clockwise twists required to white/yellow up/down
-    private int orientation;
+    private final int orientation;
+
+    private Corner(int id, int orientation) {
+        this.id = id;
+        this.orientation = orientation;
+    }
 
     /**
-     * Creates a corner piece with the given id and default orientation.
+     * Returns the corner piece with the given id and default orientation.
      *
      * @param id the unique identifier of the corner piece
+     * @return the shared instance
      */
-    public Corner(int id) {
-        this(id, 0); // by default oriented right
+    public static Corner of(int id) {
+        return of(id, 0); // by default oriented right
     }
 
     /**
-     * Creates a corner piece with the given id and orientation.
+     * Returns the corner piece with the given id and orientation.
      *
      * @param id          the unique identifier of the corner piece
      * @param orientation the clockwise twists required to white/yellow up/down
+     * @return the shared instance
      */
-    public Corner(int id, int orientation) {
-        this.id = id;
-        this.orientation = orientation;
+    public static Corner of(int id, int orientation) {
+        if (id < 0 || id >= LAYERS * POSITIONS || orientation < 0 || orientation >= ORIENTATIONS) {
+            throw new IllegalArgumentException("Invalid corner " + id + " with orientation " + orientation);
+        }
+        return INTERNED[ORIENTATIONS * id + orientation];
     }
 
     /**
-     * Turns the corner piece clockwise.
+     * Returns this corner piece turned clockwise.
+     *
+     * @return the shared instance
      */
-    public void turnClockwise() {
+    public Corner turnedClockwise() {
         // add 2 = -1 mod 3 to avoid negative values
         // now we have to repeat this twice to get back to zero
-        orientation = (orientation + 2) % 3;
+        return twisted(2);
     }
 
     /**
-     * Turns the corner piece counter-clockwise.
+     * Returns this corner piece turned counter-clockwise.
+     *
+     * @return the shared instance
      */
-    public void turnCounterClockwise() {
-        // add 2 = -1 mod 3 to avoid negative values
+    public Corner turnedCounterClockwise() {
         // now its one CW turn away from zero
-        orientation = (orientation + 1) % 3;
+        return twisted(1);
+    }
+
+    /**
+     * Returns this corner piece with the given orientation added.
+     *
+     * @param twist orientation added (mod 3), as in MoveTables.getCornerTwist
+     * @return the shared instance
+     */
+    public Corner twisted(int twist) {
+        return INTERNED[ORIENTATIONS * id + (orientation + twist) % ORIENTATIONS];
     }
 
     /**
@@ -75,15 +110,6 @@ public class Corner {
         return orientation;
     }
 
-    /**
-     * Sets the clockwise twists required to white/yellow up/down.
-     *
-     * @param orientation the clockwise twists required to white/yellow up/down.
-     */
-    public void setOrientation(int orientation) {
-        this.orientation = orientation;
-    }
-
     /**
      * Returns the unique identifier of the corner piece.
      *
@@ -1,32 +1,55 @@
 package representation.pieces;
 
-public class Edge {
+/**
+ * Immutable edge piece in some orientation. There are only 24 of them, all created up front:
+ * instances are obtained by of() and compared by identity as well as by equals.
+ */
+public final class Edge {
     public static final int LAYERS = 3;
     public static final int POSITIONS = 4;
+    public static final int ORIENTATIONS = 2;
+
+    // [ORIENTATIONS * id + orientation]
+    private static final Edge[] INTERNED = new Edge[LAYERS * POSITIONS * ORIENTATIONS];
+
+    static {
+        for (int i = 0; i < INTERNED.length; i++) {
+            INTERNED[i] = new Edge(i / ORIENTATIONS, i % ORIENTATIONS);
+        }
+    }
 
     // 0 - 11: unique identifier
     private final int id;
     // 0 - 1: orientation 0 if {R, U, L, D} solvable, 1 if {F, B} required
-    private int orientation;
+    private final int orientation;
+
+    private Edge(int id, int orientation) {
+        this.id = id;
+        this.orientation = orientation;
+    }
 
     /**
-     * Creates an edge piece with the given id and default orientation.
+     * Returns the edge piece with the given id and default orientation.
      *
      * @param id the unique identifier of the edge piece
+     * @return the shared instance
      */
-    public Edge(int id) {
-        this(id, 0); // by default oriented right
+    public static Edge of(int id) {
+        return of(id, 0); // by default oriented right
     }
 
     /**
-     * Creates an edge piece with the given id and orientation.
+     * Returns the edge piece with the given id and orientation.
      *
      * @param id          the unique identifier of the edge piece
      * @param orientation the orientation 0 if {R, U, L, D} solvable, 1 if {F, B} required
+     * @return the shared instance
      */
-    public Edge(int id, int orientation) {
-        this.id = id;
-        this.orientation = orientation;
+    public static Edge of(int id, int orientation) {
+        if (id < 0 || id >= LAYERS * POSITIONS || orientation < 0 || orientation >= ORIENTATIONS) {
+            throw new IllegalArgumentException("Invalid edge " + id + " with orientation " + orientation);
+        }
+        return INTERNED[ORIENTATIONS * id + orientation];
     }
 
     /**
@@ -48,19 +71,12 @@ public class Edge {
     }
 
     /**
-     * Sets the orientation of the edge piece.
+     * Returns this edge piece with the opposite orientation.
      *
-     * @param orientation the orientation of the edge piece.
-     */
-    public void setOrientation(int orientation) {
-        this.orientation = orientation;
-    }
-
-    /**
-     * Flips the orientation of the edge piece.
+     * @return the shared instance
      */
-    public void flipOrientation() {
-        orientation = 1 - orientation;
+    public Edge flipped() {
+        return INTERNED[ORIENTATIONS * id + 1 - orientation];
     }
 
     /**
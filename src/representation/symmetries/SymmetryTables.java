@@ -0,0 +1,306 @@
+package representation.symmetries;
+
+import representation.moves.MoveTables;
+
+import java.util.Arrays;
+
+/**
+ * The 48 symmetries of the cube (24 rotations, each optionally mirrored), as piece transitions.
+ * A symmetry is stored like a move in MoveTables: slot the piece is taken from and orientation added to it,
+ * so conjugating a state X by symmetry S gives S * X * S^-1, the same state seen rotated or mirrored.
+ * Corner orientations of mirrored symmetries are between 3 and 5, as a mirror reverses the sense of twists.
+ * <p>
+ * Symmetry index is 16 * urf3 + 8 * f2 + 2 * u4 + lr2, standing for the product of the generators
+ * URF3^urf3 * F2^f2 * U4^u4 * LR2^lr2. The first UD_SYMMETRIES of them keep the up-down axis in place,
+ * which makes them the ones compatible with the two-phase solver coordinates.
+ * The tables are private and read one element at a time, like the ones of MoveTables.
+ */
+public final class SymmetryTables {
+    public static final int SYMMETRIES = 48;
+    public static final int UD_SYMMETRIES = 16;
+
+    // [symmetry][slot] - slot the piece is taken from
+    private static final int[][] CORNER_SOURCE = new int[SYMMETRIES][];
+    // [symmetry][slot] - orientation added to the piece, plus 3 for mirrored symmetries
+    private static final int[][] CORNER_TWIST = new int[SYMMETRIES][];
+    private static final int[][] EDGE_SOURCE = new int[SYMMETRIES][];
+    // [symmetry][slot] - 1 if the piece is flipped
+    private static final int[][] EDGE_FLIP = new int[SYMMETRIES][];
+
+    // [first][second] - symmetry equal to the first one followed by the second one
+    private static final int[][] MULTIPLY = new int[SYMMETRIES][SYMMETRIES];
+    // [symmetry] - symmetry undoing the given one
+    private static final int[] INVERSE = new int[SYMMETRIES];
+    // [symmetry][move] - move S * M * S^-1, i.e. the move as seen after the symmetry
+    private static final int[][] MOVE_CONJUGATE = new int[SYMMETRIES][MoveTables.MOVES];
+
+    // Generators, in the slot order of ArrayCubeStateRepresentation
+    // EASY TO MAKE A MISTAKE HERE - they are checked below by conjugating all the moves
+    // URF3 - rotation by 120 degrees around the axis through the up-right-front and down-left-back corners
+    private static final int[][] URF3 = {
+            {7, 3, 2, 6, 4, 0, 1, 5}, {2, 1, 2, 1, 1, 2, 1, 2},
+            {7, 2, 6, 10, 11, 3, 1, 9, 4, 0, 5, 8}, {0, 1, 0, 1, 1, 1, 1, 1, 0, 1, 0, 1},
+    };
+    // F2 - rotation by 180 degrees around the front-back axis
+    private static final int[][] F2 = {
+            {5, 4, 7, 6, 1, 0, 3, 2}, {0, 0, 0, 0, 0, 0, 0, 0},
+            {8, 11, 10, 9, 5, 4, 7, 6, 0, 3, 2, 1}, {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0},
+    };
+    // U4 - rotation by 90 degrees clockwise around the up-down axis, middle layer edges change their reference face
+    private static final int[][] U4 = {
+            {3, 0, 1, 2, 7, 4, 5, 6}, {0, 0, 0, 0, 0, 0, 0, 0},
+            {3, 0, 1, 2, 7, 4, 5, 6, 11, 8, 9, 10}, {0, 0, 0, 0, 1, 1, 1, 1, 0, 0, 0, 0},
+    };
+    // LR2 - reflection swapping the left and right faces
+    private static final int[][] LR2 = {
+            {1, 0, 3, 2, 5, 4, 7, 6}, {3, 3, 3, 3, 3, 3, 3, 3},
+            {0, 3, 2, 1, 5, 4, 7, 6, 8, 11, 10, 9}, {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0},
+    };
+    private static final int[][] IDENTITY = {
+            identity(MoveTables.CORNER_SLOTS), new int[MoveTables.CORNER_SLOTS],
+            identity(MoveTables.EDGE_SLOTS), new int[MoveTables.EDGE_SLOTS],
+    };
+
+    static {
+        int[][][] symmetries = new int[SYMMETRIES][][];
+        int[][] urf3 = IDENTITY;
+        for (int i = 0; i < 3; i++) {
+            int[][] f2 = urf3;
+            for (int j = 0; j < 2; j++) {
+                int[][] u4 = f2;
+                for (int k = 0; k < 4; k++) {
+                    symmetries[16 * i + 8 * j + 2 * k] = u4;
+                    symmetries[16 * i + 8 * j + 2 * k + 1] = multiply(u4, LR2);
+                    u4 = multiply(u4, U4);
+                }
+                f2 = multiply(f2, F2);
+            }
+            urf3 = multiply(urf3, URF3);
+        }
+        for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+            CORNER_SOURCE[symmetry] = symmetries[symmetry][0];
+            CORNER_TWIST[symmetry] = symmetries[symmetry][1];
+            EDGE_SOURCE[symmetry] = symmetries[symmetry][2];
+            EDGE_FLIP[symmetry] = symmetries[symmetry][3];
+        }
+
+        for (int first = 0; first < SYMMETRIES; first++) {
+            for (int second = 0; second < SYMMETRIES; second++) {
+                int product = find(symmetries, multiply(symmetries[first], symmetries[second]));
+                MULTIPLY[first][second] = product;
+                if (product == 0) {
+                    INVERSE[first] = second;
+                }
+            }
+        }
+
+        int[][][] moves = new int[MoveTables.MOVES][][];
+        for (int move = 0; move < MoveTables.MOVES; move++) {
+            moves[move] = new int[][]{
+                    MoveTables.getCornerSources(move), MoveTables.getCornerTwists(move),
+                    MoveTables.getEdgeSources(move), MoveTables.getEdgeFlips(move),
+            };
+        }
+        for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                int[][] conjugate = multiply(multiply(symmetries[symmetry], moves[move]), symmetries[INVERSE[symmetry]]);
+                MOVE_CONJUGATE[symmetry][move] = find(moves, conjugate);
+            }
+        }
+    }
+
+    private SymmetryTables() {
+    }
+
+    /**
+     * Returns the slot the symmetry takes the piece of the given corner slot from.
+     *
+     * @param symmetry index of the symmetry
+     * @param slot     corner slot, 4 * layer + position
+     * @return the source slot
+     */
+    public static int getCornerSource(int symmetry, int slot) {
+        return CORNER_SOURCE[symmetry][slot];
+    }
+
+    /**
+     * Returns the orientation the symmetry adds to the corner moved into the given slot.
+     *
+     * @param symmetry index of the symmetry
+     * @param slot     corner slot, 4 * layer + position
+     * @return the added orientation, plus 3 for mirrored symmetries
+     */
+    public static int getCornerTwist(int symmetry, int slot) {
+        return CORNER_TWIST[symmetry][slot];
+    }
+
+    /**
+     * Returns the slot the symmetry takes the piece of the given edge slot from.
+     *
+     * @param symmetry index of the symmetry
+     * @param slot     edge slot, 4 * layer + position
+     * @return the source slot
+     */
+    public static int getEdgeSource(int symmetry, int slot) {
+        return EDGE_SOURCE[symmetry][slot];
+    }
+
+    /**
+     * Returns whether the symmetry flips the edge moved into the given slot.
+     *
+     * @param symmetry index of the symmetry
+     * @param slot     edge slot, 4 * layer + position
+     * @return 1 if the edge is flipped, 0 otherwise
+     */
+    public static int getEdgeFlip(int symmetry, int slot) {
+        return EDGE_FLIP[symmetry][slot];
+    }
+
+    /**
+     * Returns the symmetry equal to the first one followed by the second one.
+     *
+     * @param first  index of the symmetry applied first
+     * @param second index of the symmetry applied second
+     * @return index of the product
+     */
+    public static int getProduct(int first, int second) {
+        return MULTIPLY[first][second];
+    }
+
+    /**
+     * Returns the symmetry undoing the given one.
+     *
+     * @param symmetry index of the symmetry
+     * @return index of the inverse symmetry
+     */
+    public static int getInverse(int symmetry) {
+        return INVERSE[symmetry];
+    }
+
+    /**
+     * Returns the move S * M * S^-1, i.e. the move as seen after the symmetry.
+     *
+     * @param symmetry index of the symmetry S
+     * @param move     index of the move M, as in MoveTables
+     * @return index of the conjugated move
+     */
+    public static int getConjugateMove(int symmetry, int move) {
+        return MOVE_CONJUGATE[symmetry][move];
+    }
+
+    /**
+     * Returns whether the symmetry mirrors the cube, reversing the sense of turns and twists.
+     *
+     * @param symmetry index of the symmetry
+     * @return whether the symmetry is a reflection
+     */
+    public static boolean isMirrored(int symmetry) {
+        return symmetry % 2 == 1;
+    }
+
+    /**
+     * Returns the orientation of a corner after conjugation.
+     *
+     * @param symmetry    index of the symmetry
+     * @param piece       id of the corner before conjugation
+     * @param slot        slot of the corner after conjugation
+     * @param orientation orientation of the corner before conjugation
+     * @return orientation of the corner after conjugation
+     */
+    public static int conjugateCornerOrientation(int symmetry, int piece, int slot, int orientation) {
+        int pieceTwist = CORNER_TWIST[symmetry][piece] % 3;
+        int slotTwist = CORNER_TWIST[INVERSE[symmetry]][slot] % 3;
+        return isMirrored(symmetry)
+                ? (pieceTwist - orientation - slotTwist + 6) % 3
+                : (pieceTwist + orientation + slotTwist) % 3;
+    }
+
+    /**
+     * Fills the corners of the state S * X * S^-1, given the corners of X.
+     *
+     * @param symmetry           index of the symmetry S
+     * @param ids                id of the corner in each slot
+     * @param orientations       orientation of the corner in each slot
+     * @param resultIds          id of the corner in each slot after conjugation, to be filled
+     * @param resultOrientations orientation of the corner in each slot after conjugation, to be filled
+     */
+    public static void conjugateCorners(int symmetry, int[] ids, int[] orientations,
+                                        int[] resultIds, int[] resultOrientations) {
+        int[] pieceMap = CORNER_SOURCE[symmetry];
+        int[] source = CORNER_SOURCE[INVERSE[symmetry]];
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            int piece = ids[source[slot]];
+            resultIds[slot] = pieceMap[piece];
+            resultOrientations[slot] = conjugateCornerOrientation(symmetry, piece, slot, orientations[source[slot]]);
+        }
+    }
+
+    /**
+     * Fills the edges of the state S * X * S^-1, given the edges of X.
+     *
+     * @param symmetry           index of the symmetry S
+     * @param ids                id of the edge in each slot
+     * @param orientations       orientation of the edge in each slot
+     * @param resultIds          id of the edge in each slot after conjugation, to be filled
+     * @param resultOrientations orientation of the edge in each slot after conjugation, to be filled
+     */
+    public static void conjugateEdges(int symmetry, int[] ids, int[] orientations,
+                                      int[] resultIds, int[] resultOrientations) {
+        int[] pieceMap = EDGE_SOURCE[symmetry];
+        int[] pieceFlip = EDGE_FLIP[symmetry];
+        int[] source = EDGE_SOURCE[INVERSE[symmetry]];
+        int[] slotFlip = EDGE_FLIP[INVERSE[symmetry]];
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            int piece = ids[source[slot]];
+            resultIds[slot] = pieceMap[piece];
+            resultOrientations[slot] = pieceFlip[piece] ^ orientations[source[slot]] ^ slotFlip[slot];
+        }
+    }
+
+    // {corner source, corner twist, edge source, edge flip} of a followed by b
+    private static int[][] multiply(int[][] a, int[][] b) {
+        int[] cornerSource = new int[MoveTables.CORNER_SLOTS];
+        int[] cornerTwist = new int[MoveTables.CORNER_SLOTS];
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            cornerSource[slot] = a[0][b[0][slot]];
+            int first = a[1][b[0][slot]];
+            int second = b[1][slot];
+            // twists of a mirrored piece count the other way round
+            int twist;
+            if (first < 3 && second < 3) {
+                twist = (first + second) % 3;
+            } else if (first < 3) {
+                twist = 3 + (first + second) % 3;
+            } else if (second < 3) {
+                twist = 3 + (first - second + 3) % 3;
+            } else {
+                twist = (first - second + 3) % 3;
+            }
+            cornerTwist[slot] = twist;
+        }
+        int[] edgeSource = new int[MoveTables.EDGE_SLOTS];
+        int[] edgeFlip = new int[MoveTables.EDGE_SLOTS];
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            edgeSource[slot] = a[2][b[2][slot]];
+            edgeFlip[slot] = a[3][b[2][slot]] ^ b[3][slot];
+        }
+        return new int[][]{cornerSource, cornerTwist, edgeSource, edgeFlip};
+    }
+
+    private static int find(int[][][] elements, int[][] element) {
+        for (int i = 0; i < elements.length; i++) {
+            if (Arrays.deepEquals(elements[i], element)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Symmetry tables are inconsistent with the move tables");
+    }
+
+    private static int[] identity(int size) {
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+        return permutation;
+    }
+}
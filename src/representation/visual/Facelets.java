@@ -0,0 +1,308 @@
+package representation.visual;
+
+import representation.ArrayCubeStateRepresentation;
+import representation.PackedCubeStateRepresentation;
+import representation.moves.Face;
+import representation.moves.MoveTables;
+
+import java.util.Arrays;
+
+/**
+ * Conversion between cube states and facelet strings, as produced by cube scanners.
+ * <p>
+ * A facelet string has 54 characters, 9 per face in the order U, R, F, D, L, B. The facelets of a face are read
+ * row by row, with the face seen from the outside: U with B at the top, D with F at the top and the side faces with U
+ * at the top, so e.g. the URF corner is U9, R1 and F3. Any 6 characters may be used for the faces,
+ * they are told apart by the centres (index 4 of every face), so both "UUUUUUUUURRR..." and "WWWWWWWWWRRR..." work.
+ * <p>
+ * Decoding is table driven: the faces of the facelets of a slot index a table of the piece and orientation
+ * that shows them. The same pass checks that every piece appears once, that the corner twists add up to 0 mod 3,
+ * the edge flips to 0 mod 2 and that the corner and edge permutations have the same parity,
+ * so invalid scans are rejected without allocating more than the decoded pieces.
+ */
+public final class Facelets {
+    public static final int FACELETS = 54;
+    public static final String SOLVED = "UUUUUUUUURRRRRRRRRFFFFFFFFFDDDDDDDDDLLLLLLLLLBBBBBBBBB";
+
+    // faces in the order of the facelet string
+    private static final String FACE_LETTERS = "URFDLB";
+    private static final int FACES = 6;
+    private static final int U = 0;
+    private static final int R = 1;
+    private static final int F = 2;
+    private static final int D = 3;
+    private static final int L = 4;
+    private static final int B = 5;
+
+    // [slot][i] - facelets of the slot, clockwise starting from the U or D one
+    private static final int[][] CORNER_FACELETS = {
+            {facelet(U, 1), facelet(L, 1), facelet(B, 3)}, // ULB
+            {facelet(U, 3), facelet(B, 1), facelet(R, 3)}, // UBR
+            {facelet(U, 9), facelet(R, 1), facelet(F, 3)}, // URF
+            {facelet(U, 7), facelet(F, 1), facelet(L, 3)}, // UFL
+            {facelet(D, 7), facelet(B, 9), facelet(L, 7)}, // DBL
+            {facelet(D, 9), facelet(R, 9), facelet(B, 7)}, // DRB
+            {facelet(D, 3), facelet(F, 9), facelet(R, 7)}, // DFR
+            {facelet(D, 1), facelet(L, 9), facelet(F, 7)}, // DLF
+    };
+    // [slot][i] - facelets of the slot, the one of the reference face (U or D, F or B for middle layer edges) first
+    private static final int[][] EDGE_FACELETS = {
+            {facelet(U, 2), facelet(B, 2)}, // UB
+            {facelet(U, 6), facelet(R, 2)}, // UR
+            {facelet(U, 8), facelet(F, 2)}, // UF
+            {facelet(U, 4), facelet(L, 2)}, // UL
+            {facelet(B, 6), facelet(L, 4)}, // BL
+            {facelet(B, 4), facelet(R, 6)}, // BR
+            {facelet(F, 6), facelet(R, 4)}, // FR
+            {facelet(F, 4), facelet(L, 6)}, // FL
+            {facelet(D, 8), facelet(B, 8)}, // DB
+            {facelet(D, 6), facelet(R, 8)}, // DR
+            {facelet(D, 2), facelet(F, 8)}, // DF
+            {facelet(D, 4), facelet(L, 8)}, // DL
+    };
+
+    // [36 * face of facelet 0 + 6 * face of facelet 1 + face of facelet 2] - 3 * id + orientation, -1 if no corner looks like that
+    private static final int[] CORNER_LOOKUP = new int[FACES * FACES * FACES];
+    // [6 * face of facelet 0 + face of facelet 1] - 2 * id + orientation, -1 if no edge looks like that
+    private static final int[] EDGE_LOOKUP = new int[FACES * FACES];
+
+    static {
+        Arrays.fill(CORNER_LOOKUP, -1);
+        Arrays.fill(EDGE_LOOKUP, -1);
+        int[] faces = new int[3];
+        for (int id = 0; id < MoveTables.CORNER_SLOTS; id++) {
+            for (int orientation = 0; orientation < 3; orientation++) {
+                for (int i = 0; i < 3; i++) {
+                    faces[cornerFaceletIndex(i, orientation)] = CORNER_FACELETS[id][i] / 9;
+                }
+                CORNER_LOOKUP[FACES * FACES * faces[0] + FACES * faces[1] + faces[2]] = 3 * id + orientation;
+            }
+        }
+        for (int id = 0; id < MoveTables.EDGE_SLOTS; id++) {
+            for (int orientation = 0; orientation < 2; orientation++) {
+                for (int i = 0; i < 2; i++) {
+                    faces[(i + orientation) % 2] = EDGE_FACELETS[id][i] / 9;
+                }
+                EDGE_LOOKUP[FACES * faces[0] + faces[1]] = 2 * id + orientation;
+            }
+        }
+    }
+
+    private Facelets() {
+    }
+
+    /**
+     * Returns the facelet string of the state, with the face letters U, R, F, D, L and B.
+     *
+     * @param state the state, not modified
+     * @return the 54 facelets
+     */
+    public static String toFacelets(PackedCubeStateRepresentation state) {
+        return new String(encode(state, FACE_LETTERS.toCharArray()));
+    }
+
+    public static String toFacelets(ArrayCubeStateRepresentation state) {
+        return toFacelets(new PackedCubeStateRepresentation(state));
+    }
+
+    /**
+     * Returns the facelet string of the state, with the colour letters of SideColourDecider (W, Y, O, R, G, B).
+     *
+     * @param state the state, not modified
+     * @return the 54 facelets
+     */
+    public static String toColours(PackedCubeStateRepresentation state) {
+        char[] letters = new char[FACES];
+        for (int face = 0; face < FACES; face++) {
+            Face side = Face.fromNotation(FACE_LETTERS.charAt(face));
+            letters[face] = SideColourDecider.getLetter(SideColourDecider.getColour(side));
+        }
+        return new String(encode(state, letters));
+    }
+
+    /**
+     * Decodes the facelet string into a state.
+     *
+     * @param facelets the 54 facelets
+     * @return the state
+     * @throws IllegalArgumentException if the facelets are not a solvable cube, the message telling why
+     */
+    public static PackedCubeStateRepresentation toPackedState(CharSequence facelets) {
+        int[] cornerIds = new int[MoveTables.CORNER_SLOTS];
+        int[] cornerOrientations = new int[MoveTables.CORNER_SLOTS];
+        int[] edgeIds = new int[MoveTables.EDGE_SLOTS];
+        int[] edgeOrientations = new int[MoveTables.EDGE_SLOTS];
+        Validity validity = decode(facelets, cornerIds, cornerOrientations, edgeIds, edgeOrientations);
+        if (validity != Validity.VALID) {
+            throw new IllegalArgumentException("Invalid facelets: " + validity.getDescription());
+        }
+        return new PackedCubeStateRepresentation(cornerIds, cornerOrientations, edgeIds, edgeOrientations);
+    }
+
+    public static ArrayCubeStateRepresentation toArrayState(CharSequence facelets) {
+        return toPackedState(facelets).toArrayCubeStateRepresentation();
+    }
+
+    /**
+     * Checks whether the facelet string is a solvable cube, without building the state.
+     *
+     * @param facelets the facelets
+     * @return VALID, or the first problem found
+     */
+    public static Validity validate(CharSequence facelets) {
+        return decode(facelets, new int[MoveTables.CORNER_SLOTS], new int[MoveTables.CORNER_SLOTS],
+                new int[MoveTables.EDGE_SLOTS], new int[MoveTables.EDGE_SLOTS]);
+    }
+
+    private static char[] encode(PackedCubeStateRepresentation state, char[] letters) {
+        char[] facelets = new char[FACELETS];
+        for (int face = 0; face < FACES; face++) {
+            facelets[facelet(face, 5)] = letters[face];
+        }
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            int id = state.getCornerId(slot);
+            int orientation = state.getCornerOrientation(slot);
+            for (int i = 0; i < 3; i++) {
+                facelets[CORNER_FACELETS[slot][cornerFaceletIndex(i, orientation)]] = letters[CORNER_FACELETS[id][i] / 9];
+            }
+        }
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            int id = state.getEdgeId(slot);
+            int orientation = state.getEdgeOrientation(slot);
+            for (int i = 0; i < 2; i++) {
+                facelets[EDGE_FACELETS[slot][(i + orientation) % 2]] = letters[EDGE_FACELETS[id][i] / 9];
+            }
+        }
+        return facelets;
+    }
+
+    private static Validity decode(CharSequence facelets, int[] cornerIds, int[] cornerOrientations,
+                                   int[] edgeIds, int[] edgeOrientations) {
+        if (facelets.length() != FACELETS) {
+            return Validity.INVALID_LENGTH;
+        }
+        for (int face = 0; face < FACES; face++) {
+            for (int other = 0; other < face; other++) {
+                if (facelets.charAt(facelet(face, 5)) == facelets.charAt(facelet(other, 5))) {
+                    return Validity.INVALID_CENTRES;
+                }
+            }
+        }
+
+        int seen = 0;
+        int twist = 0;
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            int index = 0;
+            for (int i = 0; i < 3; i++) {
+                int face = faceOf(facelets, CORNER_FACELETS[slot][i]);
+                if (face < 0) {
+                    return Validity.INVALID_FACELET;
+                }
+                index = FACES * index + face;
+            }
+            int piece = CORNER_LOOKUP[index];
+            if (piece < 0) {
+                return Validity.INVALID_CORNER;
+            }
+            if ((seen & 1 << piece / 3) != 0) {
+                return Validity.DUPLICATE_CORNER;
+            }
+            seen |= 1 << piece / 3;
+            cornerIds[slot] = piece / 3;
+            cornerOrientations[slot] = piece % 3;
+            twist += piece % 3;
+        }
+        if (twist % 3 != 0) {
+            return Validity.TWISTED_CORNER;
+        }
+
+        seen = 0;
+        int flip = 0;
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            int first = faceOf(facelets, EDGE_FACELETS[slot][0]);
+            int second = faceOf(facelets, EDGE_FACELETS[slot][1]);
+            if (first < 0 || second < 0) {
+                return Validity.INVALID_FACELET;
+            }
+            int piece = EDGE_LOOKUP[FACES * first + second];
+            if (piece < 0) {
+                return Validity.INVALID_EDGE;
+            }
+            if ((seen & 1 << piece / 2) != 0) {
+                return Validity.DUPLICATE_EDGE;
+            }
+            seen |= 1 << piece / 2;
+            edgeIds[slot] = piece / 2;
+            edgeOrientations[slot] = piece % 2;
+            flip += piece % 2;
+        }
+        if (flip % 2 != 0) {
+            return Validity.FLIPPED_EDGE;
+        }
+
+        if (parity(cornerIds) != parity(edgeIds)) {
+            return Validity.PARITY;
+        }
+        return Validity.VALID;
+    }
+
+    // index of the face whose centre has the character of the facelet, -1 if none has
+    private static int faceOf(CharSequence facelets, int facelet) {
+        char c = facelets.charAt(facelet);
+        for (int face = 0; face < FACES; face++) {
+            if (facelets.charAt(facelet(face, 5)) == c) {
+                return face;
+            }
+        }
+        return -1;
+    }
+
+    // position among the facelets of the slot of the piece's i-th facelet, the orientation being clockwise twists to fix it
+    private static int cornerFaceletIndex(int i, int orientation) {
+        return (i + 3 - orientation) % 3;
+    }
+
+    private static int parity(int[] permutation) {
+        int inversions = 0;
+        for (int i = 0; i < permutation.length; i++) {
+            for (int j = i + 1; j < permutation.length; j++) {
+                if (permutation[i] > permutation[j]) {
+                    inversions++;
+                }
+            }
+        }
+        return inversions & 1;
+    }
+
+    // index in the facelet string of the n-th facelet (1 - 9) of the face
+    private static int facelet(int face, int n) {
+        return 9 * face + n - 1;
+    }
+
+    /**
+     * Result of checking a facelet string, the first problem found.
+     */
+    public enum Validity {
+        VALID("valid"),
+        INVALID_LENGTH("not 54 facelets"),
+        INVALID_CENTRES("centres are not 6 different characters"),
+        INVALID_FACELET("a facelet doesn't match any centre"),
+        INVALID_CORNER("a corner has colours no corner has"),
+        INVALID_EDGE("an edge has colours no edge has"),
+        DUPLICATE_CORNER("a corner appears twice"),
+        DUPLICATE_EDGE("an edge appears twice"),
+        TWISTED_CORNER("a corner is twisted"),
+        FLIPPED_EDGE("an edge is flipped"),
+        PARITY("two pieces are swapped");
+
+        private final String description;
+
+        Validity(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+}
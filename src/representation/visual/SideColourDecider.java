@@ -1,5 +1,56 @@
 package representation.visual;
 
+import representation.moves.Face;
+import representation.visual.ColourScheme.Colour;
+
+/**
+ * Colours of the faces of the solved cube, in the scheme of ColourScheme: white up, green front, red right.
+ */
 public class SideColourDecider {
+    // [face ordinal]
+    private static final Colour[] COLOURS = {
+            Colour.RED, // R
+            Colour.ORANGE, // L
+            Colour.WHITE, // U
+            Colour.YELLOW, // D
+            Colour.GREEN, // F
+            Colour.BLUE, // B
+    };
+
+    /**
+     * Returns the colour of the centre of the given face.
+     *
+     * @param face the face
+     * @return the colour of the face
+     */
+    public static Colour getColour(Face face) {
+        return COLOURS[face.ordinal()];
+    }
+
+    /**
+     * Returns the face whose centre has the given colour.
+     *
+     * @param colour the colour
+     * @return the face of the colour
+     */
+    public static Face getFace(Colour colour) {
+        return switch (colour) {
+            case RED -> Face.RIGHT;
+            case ORANGE -> Face.LEFT;
+            case WHITE -> Face.UP;
+            case YELLOW -> Face.DOWN;
+            case GREEN -> Face.FRONT;
+            case BLUE -> Face.BACK;
+        };
+    }
 
+    /**
+     * Returns the letter standing for the colour in facelet strings, the first letter of its name.
+     *
+     * @param colour the colour
+     * @return one of W, Y, O, R, G, B
+     */
+    public static char getLetter(Colour colour) {
+        return colour.name().charAt(0);
+    }
 }
@@ -0,0 +1,349 @@
+package solving;
+
+import instrumentation.Instrumentation;
+import instrumentation.SearchStatistics;
+import representation.ArrayCubeStateRepresentation;
+import representation.PackedCubeStateRepresentation;
+import representation.coordinates.CoordinateMoveTables;
+import representation.coordinates.Coordinates;
+import representation.moves.MoveSequences;
+import representation.moves.MoveTables;
+
+/**
+ * Optimal solver meeting in the middle: a breadth-first search backward from solved stores every state
+ * within the backward depth in a hash table, and an iterative deepening search forward from the scramble
+ * probes it at its leaves. A solution of length n is then found by a forward search of depth n - backward depth.
+ * <p>
+ * The backward depth is the largest one whose table fits in the memory limit. The table is built on first use
+ * and shared by all the solves, which may run concurrently. If not even MIN_BACKWARD_DEPTH fits,
+ * solving falls back to a plain iterative deepening search (ParallelIdaSearch).
+ */
+public class BidirectionalSolver {
+    public static final long DEFAULT_MEMORY_LIMIT_BYTES = 64L << 20;
+    public static final int MIN_BACKWARD_DEPTH = 3;
+    public static final int MAX_BACKWARD_DEPTH = 7;
+    public static final String SOLVER_NAME = "bidirectional";
+
+    // Amount of states at every distance from solved, in the face turn metric
+    private static final long[] STATES_AT_DISTANCE = {1, 18, 243, 3_240, 43_239, 574_908, 7_618_438, 100_803_036};
+
+    private static final int NODES_PER_TIME_CHECK = 1 << 12;
+
+    private final int maxLength;
+    private final long timeoutMillis;
+    private final int backwardDepth;
+    private final ParallelIdaSearch fallback;
+
+    private volatile StateTable table;
+
+    /**
+     * Creates a solver with the default memory limit.
+     *
+     * @param maxLength     the maximal amount of moves of a returned solution
+     * @param timeoutMillis time budget of a single solve, in milliseconds
+     */
+    public BidirectionalSolver(int maxLength, long timeoutMillis) {
+        this(maxLength, timeoutMillis, DEFAULT_MEMORY_LIMIT_BYTES);
+    }
+
+    /**
+     * Creates a solver whose table of states near solved takes at most the given amount of memory,
+     * and at most half of the memory available to the virtual machine.
+     *
+     * @param maxLength        the maximal amount of moves of a returned solution
+     * @param timeoutMillis    time budget of a single solve, in milliseconds
+     * @param memoryLimitBytes the maximal size of the table, in bytes
+     */
+    public BidirectionalSolver(int maxLength, long timeoutMillis, long memoryLimitBytes) {
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("Maximal length must not be negative");
+        }
+        this.maxLength = maxLength;
+        this.timeoutMillis = timeoutMillis;
+        long limit = Math.min(memoryLimitBytes, Runtime.getRuntime().maxMemory() / 2);
+        int depth = 0;
+        while (depth < MAX_BACKWARD_DEPTH && StateTable.sizeInBytes(statesWithin(depth + 1)) <= limit) {
+            depth++;
+        }
+        if (depth < MIN_BACKWARD_DEPTH) {
+            this.backwardDepth = 0;
+            this.fallback = new ParallelIdaSearch(maxLength, timeoutMillis);
+        } else {
+            this.backwardDepth = depth;
+            this.fallback = null;
+        }
+    }
+
+    /**
+     * Returns the depth of the backward search.
+     *
+     * @return the backward depth, or 0 if solving falls back to iterative deepening
+     */
+    public int getBackwardDepth() {
+        return backwardDepth;
+    }
+
+    /**
+     * Finds a shortest sequence of moves solving the given state.
+     *
+     * @param state a solvable cube state
+     * @return optimal solution, or null if there is none within the maximal length or the time budget ran out
+     */
+    public Solution solve(ArrayCubeStateRepresentation state) {
+        return solve(new PackedCubeStateRepresentation(state));
+    }
+
+    /**
+     * Finds a shortest sequence of moves solving the given state.
+     *
+     * @param state a solvable cube state
+     * @return optimal solution, or null if there is none within the maximal length or the time budget ran out
+     */
+    public Solution solve(PackedCubeStateRepresentation state) {
+        if (fallback != null) {
+            return fallback.solve(state);
+        }
+        StateTable states = getTable();
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        SearchStatistics statistics = Instrumentation.ENABLED ? Instrumentation.startSolve(SOLVER_NAME) : null;
+        Solution solution = search(states, state, deadline, statistics);
+        if (Instrumentation.ENABLED) {
+            Instrumentation.solved(statistics, solution == null ? -1 : solution.length());
+        }
+        return solution;
+    }
+
+    private Solution search(StateTable states, PackedCubeStateRepresentation state, long deadline,
+                            SearchStatistics statistics) {
+        // close states are found in the table directly
+        int distance = states.getDistance(state.getPackedCorners(), state.getPackedEdges());
+        if (distance >= 0) {
+            return distance <= maxLength ? new Solution(states.pathToSolved(state, new int[0])) : null;
+        }
+
+        Search search = new Search(states, new PackedCubeStateRepresentation(state), deadline, statistics);
+        int cornerOrientation = Coordinates.getCornerOrientation(state);
+        int edgeOrientation = Coordinates.getEdgeOrientation(state);
+        int udSlice = Coordinates.getUdSlice(state);
+        for (int forwardDepth = 1; forwardDepth + backwardDepth <= maxLength; forwardDepth++) {
+            if (Instrumentation.ENABLED) {
+                statistics.startIteration(forwardDepth + backwardDepth);
+            }
+            search.path = new int[forwardDepth];
+            if (search.search(cornerOrientation, edgeOrientation, udSlice, 0)) {
+                // the two halves meet in any order of opposite faces
+                return new Solution(MoveSequences.simplify(search.solution));
+            }
+            if (search.timedOut) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private StateTable getTable() {
+        StateTable states = table;
+        if (states == null) {
+            synchronized (this) {
+                states = table;
+                if (states == null) {
+                    states = StateTable.build(backwardDepth, statesWithin(backwardDepth));
+                    table = states;
+                }
+            }
+        }
+        return states;
+    }
+
+    private static long statesWithin(int depth) {
+        long states = 0;
+        for (int i = 0; i <= depth; i++) {
+            states += STATES_AT_DISTANCE[i];
+        }
+        return states;
+    }
+
+    /**
+     * Forward search of a single solve, applying and undoing moves on its own copy of the state.
+     */
+    private class Search {
+        private final StateTable states;
+        private final PackedCubeStateRepresentation state;
+        private final long deadline;
+        // null unless instrumentation is enabled
+        private final SearchStatistics statistics;
+
+        private int[] path;
+        private int[] solution;
+        private boolean timedOut;
+        private int nodesUntilTimeCheck = NODES_PER_TIME_CHECK;
+
+        private Search(StateTable states, PackedCubeStateRepresentation state, long deadline,
+                       SearchStatistics statistics) {
+            this.states = states;
+            this.state = state;
+            this.deadline = deadline;
+            this.statistics = statistics;
+        }
+
+        private boolean search(int cornerOrientation, int edgeOrientation, int udSlice, int depth) {
+            if (depth == path.length) {
+                // every state of the table is at most the backward depth away, so any hit is a shortest solution
+                if (states.getDistance(state.getPackedCorners(), state.getPackedEdges()) < 0) {
+                    return false;
+                }
+                solution = states.pathToSolved(state, path);
+                return true;
+            }
+            if (--nodesUntilTimeCheck <= 0) {
+                nodesUntilTimeCheck = NODES_PER_TIME_CHECK;
+                timedOut = System.nanoTime() > deadline;
+            }
+            if (timedOut) {
+                return false;
+            }
+            if (Instrumentation.ENABLED) {
+                statistics.nodeExpanded(depth);
+            }
+
+            int previous = depth == 0 ? -1 : path[depth - 1];
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                if (TwoPhaseSolver.isRedundant(previous, move)) {
+                    continue;
+                }
+                int nextCornerOrientation = CoordinateMoveTables.moveCornerOrientation(cornerOrientation, move);
+                int nextEdgeOrientation = CoordinateMoveTables.moveEdgeOrientation(edgeOrientation, move);
+                int nextUdSlice = CoordinateMoveTables.moveUdSlice(udSlice, move);
+                int estimate = Math.max(
+                        PruningTables.CORNER_ORIENTATION_UD_SLICE.getDistance(nextCornerOrientation, nextUdSlice),
+                        PruningTables.EDGE_ORIENTATION_UD_SLICE.getDistance(nextEdgeOrientation, nextUdSlice));
+                if (Instrumentation.ENABLED) {
+                    statistics.pruningLookup(estimate);
+                }
+                if (depth + 1 + estimate > path.length + backwardDepth) {
+                    continue;
+                }
+                path[depth] = move;
+                state.makeMove(move);
+                boolean found = search(nextCornerOrientation, nextEdgeOrientation, nextUdSlice, depth + 1);
+                state.makeMove(MoveTables.inverse(move));
+                if (found) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Open addressing hash table of packed states, holding for each its distance from solved
+     * and the move taking it one step closer. Read-only once built.
+     */
+    private static final class StateTable {
+        // Slots are left at most half full
+        private static final int LOAD_FACTOR_INVERSE = 2;
+        // No state packs its corners into 0, so it marks empty slots
+        private static final long EMPTY = 0;
+        private static final int BYTES_PER_SLOT = 2 * Long.BYTES + 1;
+        private static final int MOVE_BITS = 5;
+
+        private final long[] corners;
+        private final long[] edges;
+        // distance << MOVE_BITS | move towards solved
+        private final byte[] info;
+        private final int mask;
+
+        private StateTable(int capacity) {
+            corners = new long[capacity];
+            edges = new long[capacity];
+            info = new byte[capacity];
+            mask = capacity - 1;
+        }
+
+        private static int capacity(long states) {
+            long capacity = Long.highestOneBit(Math.max(1, states * LOAD_FACTOR_INVERSE - 1)) << 1;
+            if (capacity > 1 << 30) {
+                throw new IllegalArgumentException("Too many states: " + states);
+            }
+            return (int) capacity;
+        }
+
+        private static long sizeInBytes(long states) {
+            long capacity = Long.highestOneBit(Math.max(1, states * LOAD_FACTOR_INVERSE - 1)) << 1;
+            return capacity * BYTES_PER_SLOT;
+        }
+
+        /**
+         * Breadth-first search from solved, level by level.
+         */
+        private static StateTable build(int depth, long states) {
+            StateTable table = new StateTable(capacity(states));
+            PackedCubeStateRepresentation solved = new PackedCubeStateRepresentation();
+            table.insert(solved.getPackedCorners(), solved.getPackedEdges(), 0, 0);
+            for (int distance = 0; distance < depth; distance++) {
+                for (int slot = 0; slot <= table.mask; slot++) {
+                    if (table.corners[slot] == EMPTY || table.distance(slot) != distance) {
+                        continue;
+                    }
+                    for (int move = 0; move < MoveTables.MOVES; move++) {
+                        PackedCubeStateRepresentation next =
+                                new PackedCubeStateRepresentation(table.corners[slot], table.edges[slot]);
+                        next.makeMove(move);
+                        table.insert(next.getPackedCorners(), next.getPackedEdges(),
+                                distance + 1, MoveTables.inverse(move));
+                    }
+                }
+            }
+            return table;
+        }
+
+        private void insert(long stateCorners, long stateEdges, int distance, int move) {
+            int slot = find(stateCorners, stateEdges);
+            if (corners[slot] == EMPTY) {
+                corners[slot] = stateCorners;
+                edges[slot] = stateEdges;
+                info[slot] = (byte) ((distance << MOVE_BITS) | move);
+            }
+        }
+
+        /**
+         * Returns the distance of the state from solved.
+         *
+         * @return the distance, or -1 if the state is not in the table
+         */
+        private int getDistance(long stateCorners, long stateEdges) {
+            int slot = find(stateCorners, stateEdges);
+            return corners[slot] == EMPTY ? -1 : distance(slot);
+        }
+
+        private int distance(int slot) {
+            return (info[slot] & 0xFF) >>> MOVE_BITS;
+        }
+
+        /**
+         * Returns the given moves followed by the moves taking the state, which must be in the table, to solved.
+         */
+        private int[] pathToSolved(PackedCubeStateRepresentation state, int[] prefix) {
+            PackedCubeStateRepresentation current = new PackedCubeStateRepresentation(state);
+            int distance = getDistance(current.getPackedCorners(), current.getPackedEdges());
+            int[] moves = new int[prefix.length + distance];
+            System.arraycopy(prefix, 0, moves, 0, prefix.length);
+            for (int i = prefix.length; i < moves.length; i++) {
+                int move = info[find(current.getPackedCorners(), current.getPackedEdges())] & ((1 << MOVE_BITS) - 1);
+                moves[i] = move;
+                current.makeMove(move);
+            }
+            return moves;
+        }
+
+        // slot holding the state, or the empty slot where it belongs
+        private int find(long stateCorners, long stateEdges) {
+            long hash = (stateCorners * 0x9E3779B97F4A7C15L + stateEdges) * 0xC2B2AE3D27D4EB4FL;
+            int slot = (int) (hash >>> 32) & mask;
+            while (corners[slot] != EMPTY && (corners[slot] != stateCorners || edges[slot] != stateEdges)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package solving;
+
+import instrumentation.Instrumentation;
+import instrumentation.SearchStatistics;
+import representation.ArrayCubeStateRepresentation;
+import representation.PackedCubeStateRepresentation;
+import representation.coordinates.CoordinateMoveTables;
+import representation.coordinates.Coordinates;
+import representation.moves.MoveTables;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Optimal solver by iterative deepening A*, with a single search spread over a fork/join pool.
+ * Every iteration splits the move prefixes up to the split depth into tasks, each of which searches its subtree
+ * on its own copy of the state. The first solution found ends the iteration for all tasks.
+ * Distances to the phase one goal of the two-phase solver serve as the (admissible) heuristic.
+ */
+public class ParallelIdaSearch {
+    public static final int DEFAULT_SPLIT_DEPTH = 2;
+    public static final String SOLVER_NAME = "parallel-ida";
+
+    private static final int NODES_PER_TIME_CHECK = 1 << 12;
+
+    private final ForkJoinPool pool;
+    private final int maxLength;
+    private final long timeoutNanos;
+    private final int splitDepth;
+
+    /**
+     * Creates a search running on the common pool.
+     *
+     * @param maxLength     the maximal amount of moves of a returned solution
+     * @param timeoutMillis time budget of a single solve, in milliseconds
+     */
+    public ParallelIdaSearch(int maxLength, long timeoutMillis) {
+        this(ForkJoinPool.commonPool(), maxLength, timeoutMillis, DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Creates a search running on the given pool.
+     *
+     * @param pool          the pool running the tasks
+     * @param maxLength     the maximal amount of moves of a returned solution
+     * @param timeoutMillis time budget of a single solve, in milliseconds
+     * @param splitDepth    length of move prefixes split into separate tasks
+     */
+    public ParallelIdaSearch(ForkJoinPool pool, int maxLength, long timeoutMillis, int splitDepth) {
+        if (maxLength < 0 || splitDepth < 0) {
+            throw new IllegalArgumentException("Lengths must not be negative");
+        }
+        this.pool = pool;
+        this.maxLength = maxLength;
+        this.timeoutNanos = timeoutMillis * 1_000_000;
+        this.splitDepth = splitDepth;
+    }
+
+    /**
+     * Finds a shortest sequence of moves solving the given state.
+     *
+     * @param state a solvable cube state
+     * @return optimal solution, or null if there is none within the maximal length or the time budget ran out
+     */
+    public Solution solve(ArrayCubeStateRepresentation state) {
+        return solve(new PackedCubeStateRepresentation(state));
+    }
+
+    /**
+     * Finds a shortest sequence of moves solving the given state.
+     *
+     * @param state a solvable cube state
+     * @return optimal solution, or null if there is none within the maximal length or the time budget ran out
+     */
+    public Solution solve(PackedCubeStateRepresentation state) {
+        Search search = new Search(System.nanoTime() + timeoutNanos,
+                Instrumentation.ENABLED ? Instrumentation.startSolve(SOLVER_NAME) : null);
+        int cornerOrientation = Coordinates.getCornerOrientation(state);
+        int edgeOrientation = Coordinates.getEdgeOrientation(state);
+        int udSlice = Coordinates.getUdSlice(state);
+
+        int[] solution = null;
+        int bound = distance(cornerOrientation, edgeOrientation, udSlice);
+        while (solution == null && bound <= maxLength && !search.timedOut) {
+            if (Instrumentation.ENABLED) {
+                search.statistics.startIteration(bound);
+            }
+            search.nextBound.set(Integer.MAX_VALUE);
+            pool.invoke(new PrefixTask(search, bound, new PackedCubeStateRepresentation(state),
+                    cornerOrientation, edgeOrientation, udSlice, new int[0]));
+            solution = search.solution.get();
+            bound = search.nextBound.get();
+        }
+        if (Instrumentation.ENABLED) {
+            Instrumentation.solved(search.statistics, solution == null ? -1 : solution.length);
+        }
+        return solution == null ? null : new Solution(solution);
+    }
+
+    private static int distance(int cornerOrientation, int edgeOrientation, int udSlice) {
+        return Math.max(
+                PruningTables.CORNER_ORIENTATION_UD_SLICE.getDistance(cornerOrientation, udSlice),
+                PruningTables.EDGE_ORIENTATION_UD_SLICE.getDistance(edgeOrientation, udSlice));
+    }
+
+    /**
+     * State shared by all the tasks of a single solve.
+     */
+    private static class Search {
+        private final long deadline;
+        // null unless instrumentation is enabled
+        private final SearchStatistics statistics;
+        private final AtomicReference<int[]> solution = new AtomicReference<>();
+        // smallest estimate exceeding the current bound, the bound of the next iteration
+        private final AtomicInteger nextBound = new AtomicInteger();
+        private volatile boolean timedOut;
+
+        private Search(long deadline, SearchStatistics statistics) {
+            this.deadline = deadline;
+            this.statistics = statistics;
+        }
+
+        private boolean isCancelled() {
+            return timedOut || solution.get() != null;
+        }
+
+        private void offerBound(int bound) {
+            nextBound.accumulateAndGet(bound, Math::min);
+        }
+    }
+
+    // tasks only live inside the pool and are never serialized
+    @SuppressWarnings("serial")
+    private class PrefixTask extends RecursiveAction {
+        private final Search search;
+        private final int bound;
+        // owned by this task only, children get their own copies
+        private final PackedCubeStateRepresentation state;
+        private final int cornerOrientation;
+        private final int edgeOrientation;
+        private final int udSlice;
+        private final int[] prefix;
+
+        private int[] path;
+        private int nodesUntilTimeCheck = NODES_PER_TIME_CHECK;
+        // counters of this task only, added to the search's when done
+        private SearchStatistics statistics;
+
+        private PrefixTask(Search search, int bound, PackedCubeStateRepresentation state,
+                           int cornerOrientation, int edgeOrientation, int udSlice, int[] prefix) {
+            this.search = search;
+            this.bound = bound;
+            this.state = state;
+            this.cornerOrientation = cornerOrientation;
+            this.edgeOrientation = edgeOrientation;
+            this.udSlice = udSlice;
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected void compute() {
+            if (Instrumentation.ENABLED) {
+                statistics = new SearchStatistics(SOLVER_NAME);
+            }
+            expand();
+            if (Instrumentation.ENABLED) {
+                search.statistics.add(statistics);
+            }
+        }
+
+        private void expand() {
+            int depth = prefix.length;
+            if (depth >= splitDepth || depth >= bound) {
+                path = new int[bound];
+                System.arraycopy(prefix, 0, path, 0, depth);
+                search(cornerOrientation, edgeOrientation, udSlice, depth);
+                return;
+            }
+            if (search.isCancelled() || isGoal(depth)) {
+                return;
+            }
+            if (Instrumentation.ENABLED) {
+                statistics.nodeExpanded(depth);
+            }
+
+            int previous = depth == 0 ? -1 : prefix[depth - 1];
+            List<PrefixTask> children = new ArrayList<>();
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                if (TwoPhaseSolver.isRedundant(previous, move)) {
+                    continue;
+                }
+                int nextCornerOrientation = CoordinateMoveTables.moveCornerOrientation(cornerOrientation, move);
+                int nextEdgeOrientation = CoordinateMoveTables.moveEdgeOrientation(edgeOrientation, move);
+                int nextUdSlice = CoordinateMoveTables.moveUdSlice(udSlice, move);
+                int distance = distance(nextCornerOrientation, nextEdgeOrientation, nextUdSlice);
+                if (Instrumentation.ENABLED) {
+                    statistics.pruningLookup(distance);
+                }
+                int estimate = depth + 1 + distance;
+                if (estimate > bound) {
+                    search.offerBound(estimate);
+                    continue;
+                }
+                PackedCubeStateRepresentation next = new PackedCubeStateRepresentation(state);
+                next.makeMove(move);
+                int[] nextPrefix = new int[depth + 1];
+                System.arraycopy(prefix, 0, nextPrefix, 0, depth);
+                nextPrefix[depth] = move;
+                children.add(new PrefixTask(search, bound, next,
+                        nextCornerOrientation, nextEdgeOrientation, nextUdSlice, nextPrefix));
+            }
+            invokeAll(children);
+        }
+
+        /**
+         * Sequential depth-first search below the prefix, applying and undoing moves on the task's own state.
+         */
+        private boolean search(int cornerOrientation, int edgeOrientation, int udSlice, int depth) {
+            if (isGoal(depth)) {
+                return true;
+            }
+            if (depth == bound) {
+                search.offerBound(bound + 1);
+                return false;
+            }
+            if (isSearchCancelled()) {
+                return false;
+            }
+            if (Instrumentation.ENABLED) {
+                statistics.nodeExpanded(depth);
+            }
+
+            int previous = depth == 0 ? -1 : path[depth - 1];
+            for (int move = 0; move < MoveTables.MOVES; move++) {
+                if (TwoPhaseSolver.isRedundant(previous, move)) {
+                    continue;
+                }
+                int nextCornerOrientation = CoordinateMoveTables.moveCornerOrientation(cornerOrientation, move);
+                int nextEdgeOrientation = CoordinateMoveTables.moveEdgeOrientation(edgeOrientation, move);
+                int nextUdSlice = CoordinateMoveTables.moveUdSlice(udSlice, move);
+                int distance = distance(nextCornerOrientation, nextEdgeOrientation, nextUdSlice);
+                if (Instrumentation.ENABLED) {
+                    statistics.pruningLookup(distance);
+                }
+                int estimate = depth + 1 + distance;
+                if (estimate > bound) {
+                    search.offerBound(estimate);
+                    continue;
+                }
+                path[depth] = move;
+                state.makeMove(move);
+                boolean found = search(nextCornerOrientation, nextEdgeOrientation, nextUdSlice, depth + 1);
+                state.makeMove(MoveTables.inverse(move));
+                if (found) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isGoal(int depth) {
+            if (!state.isSolved()) {
+                return false;
+            }
+            int[] solution = new int[depth];
+            System.arraycopy(path != null ? path : prefix, 0, solution, 0, depth);
+            search.solution.compareAndSet(null, solution);
+            return true;
+        }
+
+        private boolean isSearchCancelled() {
+            if (--nodesUntilTimeCheck <= 0) {
+                nodesUntilTimeCheck = NODES_PER_TIME_CHECK;
+                if (System.nanoTime() > search.deadline) {
+                    search.timedOut = true;
+                }
+            }
+            return search.isCancelled();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package solving;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exact distance to solved over a pair of coordinates, indexed by first * secondSize + second.
+ * Distances take 4 bits each, the even entry of a pair in the low half of the byte.
+ * <p>
+ * File format, big-endian:
+ * <pre>
+ * 4 bytes  magic "NSPT"
+ * int      format version
+ * int      bits per entry
+ * int      amount of values of the first coordinate
+ * int      amount of values of the second coordinate
+ * ...      packed distances
+ * </pre>
+ */
+public class PruningTable {
+    public static final int VERSION = 1;
+    public static final int BITS_PER_ENTRY = 4;
+
+    private static final int MAGIC = ('N' << 24) | ('S' << 16) | ('P' << 8) | 'T';
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    // Shared read-only, only absolute gets are used so concurrent readers don't interfere
+    private final ByteBuffer distances;
+    private final int firstSize;
+    private final int secondSize;
+
+    PruningTable(ByteBuffer distances, int firstSize, int secondSize) {
+        this.distances = distances;
+        this.firstSize = firstSize;
+        this.secondSize = secondSize;
+    }
+
+    /**
+     * Returns the amount of bytes needed for the packed distances of the given amount of entries.
+     *
+     * @param entries amount of entries
+     * @return the amount of bytes
+     */
+    static int packedSize(int entries) {
+        return (entries + 1) / 2;
+    }
+
+    /**
+     * Returns the amount of moves needed to bring both coordinates to 0.
+     *
+     * @param first  value of the first coordinate
+     * @param second value of the second coordinate
+     * @return the distance to solved
+     */
+    public int getDistance(int first, int second) {
+        int index = first * secondSize + second;
+        return (distances.get(index >>> 1) >>> ((index & 1) << 2)) & 0xF;
+    }
+
+    public int getFirstSize() {
+        return firstSize;
+    }
+
+    public int getSecondSize() {
+        return secondSize;
+    }
+
+    /**
+     * Writes the table to the given file. The file is replaced atomically, so readers never see a partial table.
+     *
+     * @param file the file to be written
+     * @throws IOException if the file could not be written
+     */
+    public void write(Path file) throws IOException {
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(stream)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(BITS_PER_ENTRY);
+            out.writeInt(firstSize);
+            out.writeInt(secondSize);
+            byte[] buffer = new byte[1 << 16];
+            int size = packedSize(firstSize * secondSize);
+            for (int offset = 0; offset < size; offset += buffer.length) {
+                int length = Math.min(buffer.length, size - offset);
+                distances.get(offset, buffer, 0, length);
+                out.write(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the table stored in the given file into memory. Pages are loaded lazily and shared between processes.
+     *
+     * @param file       the file to be read
+     * @param firstSize  expected amount of values of the first coordinate
+     * @param secondSize expected amount of values of the second coordinate
+     * @return the mapped table
+     * @throws IOException if the file could not be read or does not hold a table of the expected format and size
+     */
+    public static PruningTable load(Path file, int firstSize, int secondSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long expectedSize = HEADER_SIZE + (long) packedSize(firstSize * secondSize);
+            if (channel.size() != expectedSize) {
+                throw new IOException("Invalid pruning table size: " + channel.size() + ", expected " + expectedSize);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, expectedSize);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a pruning table: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported pruning table version: " + version);
+            }
+            int bits = buffer.getInt();
+            if (bits != BITS_PER_ENTRY) {
+                throw new IOException("Unsupported bits per entry: " + bits);
+            }
+            if (buffer.getInt() != firstSize || buffer.getInt() != secondSize) {
+                throw new IOException("Pruning table dimensions don't match: " + file);
+            }
+            // the mapping stays valid after the channel is closed
+            return new PruningTable(buffer.slice(), firstSize, secondSize);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package solving;
+
+import representation.coordinates.CoordinateMoveTables;
+import representation.coordinates.CoordinateSymmetryTables;
+import representation.coordinates.Coordinates;
+import representation.coordinates.SymmetryClasses;
+import representation.moves.MoveTables;
+import representation.symmetries.SymmetryTables;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Builds pruning tables by a breadth-first search over pairs of coordinates.
+ * Run as a program to write all the tables of the two-phase solver into a directory.
+ */
+public class PruningTableBuilder {
+    // Distances never reach it, so it marks entries not visited yet
+    private static final int UNVISITED = 0xF;
+
+    private static final int[] ALL_MOVES = IntStream.range(0, MoveTables.MOVES).toArray();
+    private static final int[] DOMINO_MOVES = IntStream.range(0, MoveTables.MOVES).filter(MoveTables::isDominoMove).toArray();
+
+    /**
+     * Builds the table by a breadth-first search from the solved cube, where both coordinates are 0.
+     *
+     * @param firstMove  move table of the first coordinate, as in CoordinateMoveTables
+     * @param firstSize  amount of values of the first coordinate
+     * @param secondMove move table of the second coordinate, as in CoordinateMoveTables
+     * @param secondSize amount of values of the second coordinate
+     * @param dominoOnly whether the search is limited to the domino group moves
+     * @return the built table
+     */
+    public static PruningTable build(int[] firstMove, int firstSize, int[] secondMove, int secondSize,
+                                     boolean dominoOnly) {
+        return build(firstMove, firstSize, secondMove, secondSize, dominoOnly ? DOMINO_MOVES : ALL_MOVES);
+    }
+
+    /**
+     * Builds the table by a breadth-first search from the solved cube making only the given moves.
+     * The move tables may hold anything for the other moves.
+     *
+     * @param firstMove  move table of the first coordinate, as in CoordinateMoveTables
+     * @param firstSize  amount of values of the first coordinate
+     * @param secondMove move table of the second coordinate, as in CoordinateMoveTables
+     * @param secondSize amount of values of the second coordinate
+     * @param moves      indices of the moves the search makes, as in MoveTables
+     * @return the built table
+     */
+    public static PruningTable build(int[] firstMove, int firstSize, int[] secondMove, int secondSize, int[] moves) {
+        int entries = firstSize * secondSize;
+        byte[] packed = new byte[PruningTable.packedSize(entries)];
+        Arrays.fill(packed, (byte) 0xFF);
+        set(packed, 0, 0);
+        int visited = 1;
+        for (int depth = 0; visited < entries; depth++) {
+            if (depth + 1 >= UNVISITED) {
+                throw new IllegalStateException("Distances don't fit in " + PruningTable.BITS_PER_ENTRY + " bits");
+            }
+            for (int index = 0; index < entries; index++) {
+                if (get(packed, index) != depth) {
+                    continue;
+                }
+                int first = index / secondSize;
+                int second = index % secondSize;
+                for (int move : moves) {
+                    int next = firstMove[first * MoveTables.MOVES + move] * secondSize
+                            + secondMove[second * MoveTables.MOVES + move];
+                    if (get(packed, next) == UNVISITED) {
+                        set(packed, next, depth + 1);
+                        visited++;
+                    }
+                }
+            }
+        }
+        return new PruningTable(ByteBuffer.wrap(packed), firstSize, secondSize);
+    }
+
+    /**
+     * Builds the table of a SymmetricPruningTable by a breadth-first search over pairs of the class
+     * of the first coordinate and the second coordinate conjugated along with it.
+     *
+     * @param firstClasses    symmetry classes of the first coordinate
+     * @param firstMove       move table of the first coordinate, as in CoordinateMoveTables
+     * @param secondMove      move table of the second coordinate, as in CoordinateMoveTables
+     * @param secondConjugate conjugation table of the second coordinate, as in CoordinateSymmetryTables
+     * @param secondSize      amount of values of the second coordinate
+     * @param dominoOnly      whether the search is limited to the domino group moves
+     * @return the built table, the first coordinate being the class index
+     */
+    public static PruningTable build(SymmetryClasses firstClasses, int[] firstMove, int[] secondMove,
+                                     int[] secondConjugate, int secondSize, boolean dominoOnly) {
+        int entries = firstClasses.size() * secondSize;
+        byte[] packed = new byte[PruningTable.packedSize(entries)];
+        Arrays.fill(packed, (byte) 0xFF);
+        set(packed, 0, 0);
+        int visited = 1;
+        for (int depth = 0; visited < entries; depth++) {
+            if (depth + 1 >= UNVISITED) {
+                throw new IllegalStateException("Distances don't fit in " + PruningTable.BITS_PER_ENTRY + " bits");
+            }
+            for (int index = 0; index < entries; index++) {
+                if (get(packed, index) != depth) {
+                    continue;
+                }
+                int first = firstClasses.getRepresentative(index / secondSize);
+                int second = index % secondSize;
+                for (int move = 0; move < MoveTables.MOVES; move++) {
+                    if (dominoOnly && !MoveTables.isDominoMove(move)) {
+                        continue;
+                    }
+                    int nextFirst = firstMove[first * MoveTables.MOVES + move];
+                    int nextClass = firstClasses.getClassIndex(nextFirst);
+                    int nextSecond = secondConjugate[secondMove[second * MoveTables.MOVES + move]
+                            * SymmetryTables.UD_SYMMETRIES + firstClasses.getSymmetry(nextFirst)];
+                    // a representative fixed by some symmetries stands for several conjugate pairs, all equally far
+                    int stabilizer = firstClasses.getStabilizer(nextClass);
+                    for (int symmetry = 0; symmetry < SymmetryTables.UD_SYMMETRIES; symmetry++) {
+                        if ((stabilizer & (1 << symmetry)) == 0) {
+                            continue;
+                        }
+                        int next = nextClass * secondSize
+                                + secondConjugate[nextSecond * SymmetryTables.UD_SYMMETRIES + symmetry];
+                        if (get(packed, next) == UNVISITED) {
+                            set(packed, next, depth + 1);
+                            visited++;
+                        }
+                    }
+                }
+            }
+        }
+        return new PruningTable(ByteBuffer.wrap(packed), firstClasses.size(), secondSize);
+    }
+
+    static PruningTable buildCornerOrientationUdSlice() {
+        return build(CoordinateSymmetryTables.CORNER_ORIENTATION_CLASSES, CoordinateMoveTables.getCornerOrientationTable(),
+                CoordinateMoveTables.getUdSliceTable(), CoordinateSymmetryTables.getUdSliceConjugateTable(),
+                Coordinates.UD_SLICES, false);
+    }
+
+    static PruningTable buildEdgeOrientationUdSlice() {
+        return build(CoordinateMoveTables.getEdgeOrientationTable(), Coordinates.EDGE_ORIENTATIONS,
+                CoordinateMoveTables.getUdSliceTable(), Coordinates.UD_SLICES, false);
+    }
+
+    static PruningTable buildCornerPermutationSlicePermutation() {
+        return build(CoordinateSymmetryTables.CORNER_PERMUTATION_CLASSES, CoordinateMoveTables.getCornerPermutationTable(),
+                CoordinateMoveTables.getSlicePermutationTable(),
+                CoordinateSymmetryTables.getSlicePermutationConjugateTable(),
+                Coordinates.SLICE_PERMUTATIONS, true);
+    }
+
+    static PruningTable buildUdEdgePermutationSlicePermutation() {
+        return build(CoordinateSymmetryTables.UD_EDGE_PERMUTATION_CLASSES, CoordinateMoveTables.getUdEdgePermutationTable(),
+                CoordinateMoveTables.getSlicePermutationTable(),
+                CoordinateSymmetryTables.getSlicePermutationConjugateTable(),
+                Coordinates.SLICE_PERMUTATIONS, true);
+    }
+
+    private static int get(byte[] packed, int index) {
+        return (packed[index >>> 1] >>> ((index & 1) << 2)) & 0xF;
+    }
+
+    private static void set(byte[] packed, int index, int distance) {
+        int shift = (index & 1) << 2;
+        packed[index >>> 1] = (byte) ((packed[index >>> 1] & ~(0xF << shift)) | (distance << shift));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : PruningTables.DEFAULT_DIRECTORY);
+        Files.createDirectories(directory);
+        for (String name : PruningTables.NAMES) {
+            long start = System.nanoTime();
+            PruningTable table = PruningTables.build(name);
+            table.write(directory.resolve(name + PruningTables.FILE_EXTENSION));
+            System.out.printf("%s: %d ms%n", name, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package solving;
+
+import representation.coordinates.CoordinateSymmetryTables;
+import representation.coordinates.Coordinates;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Pruning tables of the two-phase solver, prepared once on first use.
+ * If the system property nonsolve.tables names a directory, tables are memory-mapped from it,
+ * and the ones missing or of an outdated format are built and written there first.
+ * Otherwise they are built in memory.
+ * Tables whose first coordinate has symmetry classes are indexed by class, which makes them over 10 times smaller.
+ */
+public final class PruningTables {
+    public static final String DIRECTORY_PROPERTY = "nonsolve.tables";
+
+    static final String DEFAULT_DIRECTORY = "tables";
+    static final String FILE_EXTENSION = ".prun";
+
+    private static final String CORNER_ORIENTATION_UD_SLICE_NAME = "co-udslice";
+    private static final String EDGE_ORIENTATION_UD_SLICE_NAME = "eo-udslice";
+    private static final String CORNER_PERMUTATION_SLICE_PERMUTATION_NAME = "cp-sliceperm";
+    private static final String UD_EDGE_PERMUTATION_SLICE_PERMUTATION_NAME = "udep-sliceperm";
+
+    static final String[] NAMES = {
+            CORNER_ORIENTATION_UD_SLICE_NAME,
+            EDGE_ORIENTATION_UD_SLICE_NAME,
+            CORNER_PERMUTATION_SLICE_PERMUTATION_NAME,
+            UD_EDGE_PERMUTATION_SLICE_PERMUTATION_NAME,
+    };
+
+    // Phase one - reaching the domino group
+    public static final SymmetricPruningTable CORNER_ORIENTATION_UD_SLICE = new SymmetricPruningTable(
+            get(CORNER_ORIENTATION_UD_SLICE_NAME, CoordinateSymmetryTables.CORNER_ORIENTATION_CLASSES.size(),
+                    Coordinates.UD_SLICES),
+            CoordinateSymmetryTables.CORNER_ORIENTATION_CLASSES,
+            CoordinateSymmetryTables.getUdSliceConjugateTable());
+    // edge orientation is not conjugated on its own, the flips depend on where the middle layer edges are
+    public static final PruningTable EDGE_ORIENTATION_UD_SLICE = get(EDGE_ORIENTATION_UD_SLICE_NAME,
+            Coordinates.EDGE_ORIENTATIONS, Coordinates.UD_SLICES);
+
+    // Phase two - solving within the domino group
+    public static final SymmetricPruningTable CORNER_PERMUTATION_SLICE_PERMUTATION = new SymmetricPruningTable(
+            get(CORNER_PERMUTATION_SLICE_PERMUTATION_NAME, CoordinateSymmetryTables.CORNER_PERMUTATION_CLASSES.size(),
+                    Coordinates.SLICE_PERMUTATIONS),
+            CoordinateSymmetryTables.CORNER_PERMUTATION_CLASSES,
+            CoordinateSymmetryTables.getSlicePermutationConjugateTable());
+    public static final SymmetricPruningTable UD_EDGE_PERMUTATION_SLICE_PERMUTATION = new SymmetricPruningTable(
+            get(UD_EDGE_PERMUTATION_SLICE_PERMUTATION_NAME, CoordinateSymmetryTables.UD_EDGE_PERMUTATION_CLASSES.size(),
+                    Coordinates.SLICE_PERMUTATIONS),
+            CoordinateSymmetryTables.UD_EDGE_PERMUTATION_CLASSES,
+            CoordinateSymmetryTables.getSlicePermutationConjugateTable());
+
+    private PruningTables() {
+    }
+
+    /**
+     * Builds the table with the given name from scratch.
+     *
+     * @param name name of the table, one of NAMES
+     * @return the built table
+     */
+    static PruningTable build(String name) {
+        return switch (name) {
+            case CORNER_ORIENTATION_UD_SLICE_NAME -> PruningTableBuilder.buildCornerOrientationUdSlice();
+            case EDGE_ORIENTATION_UD_SLICE_NAME -> PruningTableBuilder.buildEdgeOrientationUdSlice();
+            case CORNER_PERMUTATION_SLICE_PERMUTATION_NAME -> PruningTableBuilder.buildCornerPermutationSlicePermutation();
+            case UD_EDGE_PERMUTATION_SLICE_PERMUTATION_NAME -> PruningTableBuilder.buildUdEdgePermutationSlicePermutation();
+            default -> throw new IllegalArgumentException("Invalid pruning table: " + name);
+        };
+    }
+
+    private static PruningTable get(String name, int firstSize, int secondSize) {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        if (directory == null) {
+            return build(name);
+        }
+        Path file = Paths.get(directory, name + FILE_EXTENSION);
+        if (Files.exists(file)) {
+            try {
+                return PruningTable.load(file, firstSize, secondSize);
+            } catch (IOException e) {
+                // outdated or damaged, rebuilt below
+            }
+        }
+        PruningTable table = build(name);
+        try {
+            Files.createDirectories(file.getParent());
+            table.write(file);
+            return PruningTable.load(file, firstSize, secondSize);
+        } catch (IOException e) {
+            // the table still works from memory, only the next start pays for building it again
+            System.err.println("Could not store pruning table " + file + ": " + e.getMessage());
+            return table;
+        }
+    }
+}
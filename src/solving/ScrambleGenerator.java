@@ -0,0 +1,197 @@
+package solving;
+
+import representation.CubeStateEncoding;
+import representation.PackedCubeStateRepresentation;
+import representation.moves.MoveSequences;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Random-state scrambles: a state is drawn uniformly from all the solvable states,
+ * and the scramble is the inverse of its two-phase solution.
+ * <p>
+ * States are drawn by unranking a uniformly random corner index and edge index (see CubeStateEncoding),
+ * the edge permutation being fixed up to the parity of the corner permutation. States solvable in fewer than
+ * MIN_SCRAMBLE_LENGTH moves are rejected and drawn again, as in official scrambles.
+ * Solving takes milliseconds while drawing a state takes microseconds (ScrambleBenchmarks.generatorNextState),
+ * so generate() spreads the work over several threads.
+ * <p>
+ * A generator keeps its solver's search state, so an instance must not be shared between threads.
+ * Generators for other threads are made by split(), and their sequences are independent.
+ */
+public class ScrambleGenerator {
+    public static final int MIN_SCRAMBLE_LENGTH = 2;
+    // Limit of the second attempt at a state the solver gave up on, long enough for the first phase one solution to do
+    public static final int FALLBACK_MAX_LENGTH = 30;
+
+    // Scrambles made from a single split of the random generator, so that the result doesn't depend on the amount of workers
+    private static final int CHUNK_SIZE = 256;
+
+    private final SplittableRandom random;
+    private final int maxLength;
+    private final long timeoutMillis;
+    private final TwoPhaseSolver solver;
+    private TwoPhaseSolver fallbackSolver;
+
+    /**
+     * Creates a generator with the given seed and the default solver limits.
+     *
+     * @param seed seed of the random generator
+     */
+    public ScrambleGenerator(long seed) {
+        this(new SplittableRandom(seed), TwoPhaseSolver.DEFAULT_MAX_LENGTH, TwoPhaseSolver.DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates a generator drawing from the given random generator.
+     *
+     * @param random        random generator, used by this generator only
+     * @param maxLength     the maximal amount of moves of a scramble
+     * @param timeoutMillis time budget of solving a single state, in milliseconds
+     */
+    public ScrambleGenerator(SplittableRandom random, int maxLength, long timeoutMillis) {
+        this.random = random;
+        this.maxLength = maxLength;
+        this.timeoutMillis = timeoutMillis;
+        this.solver = new TwoPhaseSolver(maxLength, timeoutMillis);
+    }
+
+    /**
+     * Returns a new generator with the same limits, drawing from a split of this generator's random generator.
+     *
+     * @return generator to be used by another thread
+     */
+    public ScrambleGenerator split() {
+        return new ScrambleGenerator(random.split(), maxLength, timeoutMillis);
+    }
+
+    /**
+     * Returns a uniformly random solvable state, without solving it.
+     *
+     * @return the random state
+     */
+    public PackedCubeStateRepresentation nextState() {
+        return CubeStateEncoding.fromIndices(random.nextLong(CubeStateEncoding.CORNER_STATES),
+                random.nextLong(CubeStateEncoding.EDGE_STATES));
+    }
+
+    /**
+     * Returns a scramble of a uniformly random state.
+     * If no solution is found within the maximal length, the state is solved again allowing FALLBACK_MAX_LENGTH moves.
+     *
+     * @return the scramble
+     * @throws IllegalStateException if no solution of the state was found even then
+     */
+    public Scramble next() {
+        while (true) {
+            PackedCubeStateRepresentation state = nextState();
+            Solution solution = solver.solve(state);
+            if (solution == null) {
+                // drawing another state instead would make the hard ones rarer, so accept a longer scramble
+                if (fallbackSolver == null) {
+                    fallbackSolver = new TwoPhaseSolver(FALLBACK_MAX_LENGTH, timeoutMillis);
+                }
+                solution = fallbackSolver.solve(state);
+            }
+            if (solution == null) {
+                throw new IllegalStateException("No solution within " + FALLBACK_MAX_LENGTH + " moves and " + timeoutMillis + " ms");
+            }
+            if (solution.length() >= MIN_SCRAMBLE_LENGTH) {
+                // inverting reverses the order of commuting opposite face turns
+                return new Scramble(state, new Solution(MoveSequences.simplify(solution.inverse().getMoves())));
+            }
+        }
+    }
+
+    /**
+     * Generates the given amount of scrambles on a pool of workers.
+     * The states depend only on the seed, not on the amount of workers.
+     *
+     * @param seed          seed of the random generator
+     * @param count         amount of scrambles
+     * @param workers       amount of threads generating the scrambles
+     * @param maxLength     the maximal amount of moves of a scramble
+     * @param timeoutMillis time budget of solving a single state, in milliseconds
+     * @return the scrambles
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public static List<Scramble> generate(long seed, int count, int workers, int maxLength, long timeoutMillis)
+            throws InterruptedException {
+        if (count < 0 || workers < 1) {
+            throw new IllegalArgumentException("Amount of scrambles must not be negative and amount of workers must be positive");
+        }
+        ScrambleGenerator root = new ScrambleGenerator(new SplittableRandom(seed), maxLength, timeoutMillis);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<Scramble[]>> chunks = new ArrayList<>();
+            for (int first = 0; first < count; first += CHUNK_SIZE) {
+                ScrambleGenerator generator = root.split();
+                Scramble[] chunk = new Scramble[Math.min(CHUNK_SIZE, count - first)];
+                chunks.add(executor.submit(() -> {
+                    for (int i = 0; i < chunk.length; i++) {
+                        chunk[i] = generator.next();
+                    }
+                    return chunk;
+                }));
+            }
+            List<Scramble> scrambles = new ArrayList<>(count);
+            for (Future<Scramble[]> chunk : chunks) {
+                scrambles.addAll(List.of(chunk.get()));
+            }
+            return scrambles;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Generating failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Scramble reaching the state from solved.
+     *
+     * @param state the scrambled state
+     * @param moves moves of the scramble
+     */
+    public record Scramble(PackedCubeStateRepresentation state, Solution moves) {
+        /**
+         * Returns the scramble in scramble notation, moves separated by spaces.
+         */
+        @Override
+        public String toString() {
+            return moves.toString();
+        }
+    }
+
+    /**
+     * Prints scrambles to the standard output, one per line, and statistics to the standard error.
+     * Arguments are the amount of scrambles (1 by default) and the seed (random by default).
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : new SplittableRandom().nextLong();
+        int workers = Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        List<Scramble> scrambles = generate(seed, count, workers,
+                TwoPhaseSolver.DEFAULT_MAX_LENGTH, TwoPhaseSolver.DEFAULT_TIMEOUT_MILLIS);
+        long elapsed = System.nanoTime() - start;
+        Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        for (Scramble scramble : scrambles) {
+            output.write(scramble.toString());
+            output.write('\n');
+        }
+        output.flush();
+        System.err.printf("%d scrambles in %.3f s, %.1f scrambles/s, seed %d%n",
+                count, elapsed / 1e9, count * 1e9 / Math.max(1, elapsed), seed);
+    }
+}
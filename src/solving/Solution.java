@@ -0,0 +1,63 @@
+package solving;
+
+import representation.moves.MoveTables;
+
+/**
+ * Sequence of face moves, as indices from MoveTables.
+ */
+public final class Solution {
+    private final int[] moves;
+
+    public Solution(int[] moves) {
+        this.moves = moves;
+    }
+
+    /**
+     * Returns the moves of the solution. The array is shared and must not be modified.
+     *
+     * @return indices of the moves, as in MoveTables
+     */
+    public int[] getMoves() {
+        return moves;
+    }
+
+    /**
+     * Returns the amount of moves in the solution.
+     *
+     * @return the amount of moves in the solution
+     */
+    public int length() {
+        return moves.length;
+    }
+
+    /**
+     * Returns the sequence undoing this one: the inverse moves in reverse order.
+     * The inverse of a solution of a state is a scramble reaching it from solved.
+     *
+     * @return the inverse sequence
+     */
+    public Solution inverse() {
+        int[] inverse = new int[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            inverse[i] = MoveTables.inverse(moves[moves.length - 1 - i]);
+        }
+        return new Solution(inverse);
+    }
+
+    /**
+     * Returns the solution in scramble notation, moves separated by spaces.
+     *
+     * @return the solution in scramble notation
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int move : moves) {
+            if (!sb.isEmpty()) {
+                sb.append(' ');
+            }
+            sb.append(MoveTables.toNotation(move));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,341 @@
+package solving;
+
+import representation.CubeStateEncoding;
+import representation.PackedCubeStateRepresentation;
+import representation.moves.MoveTables;
+import representation.symmetries.SymmetryTables;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache of solutions, bounded in size and optionally in entry age, evicting the least recently used entries.
+ * Entries are keyed by the canonical encoding of the state (see PackedCubeStateRepresentation.canonicalize()),
+ * so scrambles reaching the same or a symmetric state share an entry, whatever their notation.
+ * Solutions are stored for the canonical representative and conjugated back on every hit.
+ * <p>
+ * The cache is split into independently locked segments, each an access-ordered map,
+ * so threads looking up different states rarely wait for each other.
+ * <p>
+ * Snapshot file format, big-endian:
+ * <pre>
+ * 4 bytes  magic "NSSC"
+ * int      format version
+ * int      amount of entries
+ * entries, each:
+ *   9 bytes  canonical state, as written by CubeStateEncoding
+ *   long     age of the entry, in milliseconds
+ *   byte     amount of moves
+ *   bytes    indices of the moves, as in MoveTables
+ * </pre>
+ */
+public class SolutionCache {
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = ('N' << 24) | ('S' << 16) | ('S' << 8) | 'C';
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maximumSize the maximal amount of entries
+     * @param ttlMillis   time after which an entry expires, in milliseconds, or 0 if entries never expire
+     */
+    public SolutionCache(int maximumSize, long ttlMillis) {
+        if (maximumSize < SEGMENTS) {
+            throw new IllegalArgumentException("Maximal size must be at least " + SEGMENTS);
+        }
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("Time to live must not be negative");
+        }
+        for (int i = 0; i < SEGMENTS; i++) {
+            // spread the remainder so that the segments add up to the maximal size exactly
+            segments[i] = new Segment(maximumSize / SEGMENTS + (i < maximumSize % SEGMENTS ? 1 : 0));
+        }
+        this.ttlNanos = ttlMillis * 1_000_000;
+    }
+
+    /**
+     * Returns the cached solution of the given state.
+     *
+     * @param state a solvable cube state, not modified
+     * @return the solution, or null if the state or any symmetric one is not cached
+     */
+    public Solution get(PackedCubeStateRepresentation state) {
+        PackedCubeStateRepresentation canonical = new PackedCubeStateRepresentation(state);
+        int symmetry = canonical.canonicalize();
+        Key key = new Key(canonical);
+        Segment segment = segmentFor(key);
+        byte[] moves;
+        synchronized (segment) {
+            Entry entry = segment.get(key);
+            if (entry != null && isExpired(entry, System.nanoTime())) {
+                segment.remove(key);
+                evictions.increment();
+                entry = null;
+            }
+            moves = entry == null ? null : entry.moves;
+        }
+        if (moves == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return toSolution(moves, SymmetryTables.getInverse(symmetry));
+    }
+
+    /**
+     * Stores the solution of the given state, replacing any solution of it or of a symmetric state.
+     *
+     * @param state    a solvable cube state, not modified
+     * @param solution a solution of the state
+     */
+    public void put(PackedCubeStateRepresentation state, Solution solution) {
+        PackedCubeStateRepresentation canonical = new PackedCubeStateRepresentation(state);
+        int symmetry = canonical.canonicalize();
+        int[] moves = solution.getMoves();
+        byte[] canonicalMoves = new byte[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            canonicalMoves[i] = (byte) SymmetryTables.getConjugateMove(symmetry, moves[i]);
+        }
+        put(new Key(canonical), new Entry(canonicalMoves, System.nanoTime()));
+    }
+
+    /**
+     * Returns the cached solution of the given state, solving and caching it on a miss.
+     * Concurrent misses of the same state may solve it more than once.
+     *
+     * @param state  a solvable cube state, not modified
+     * @param solver function finding a solution of a state, or null if there is none within its limits
+     * @return the solution, or null if it wasn't cached and the solver found none
+     */
+    public Solution get(PackedCubeStateRepresentation state, Function<PackedCubeStateRepresentation, Solution> solver) {
+        Solution solution = get(state);
+        if (solution == null) {
+            solution = solver.apply(new PackedCubeStateRepresentation(state));
+            if (solution != null) {
+                put(state, solution);
+            }
+        }
+        return solution;
+    }
+
+    /**
+     * Removes all the entries. Counters are kept.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the amount of entries, including expired ones not removed yet.
+     *
+     * @return the amount of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the amount of entries removed to make room for new ones or because they expired.
+     *
+     * @return the amount of evicted entries
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Writes all the entries that have not expired to the given file. The file is replaced atomically.
+     * Entries are copied segment by segment, so concurrent updates may be only partly included.
+     *
+     * @param file the file to be written
+     * @throws IOException if the file could not be written
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        List<Map.Entry<Key, Entry>> entries = new ArrayList<>();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (Map.Entry<Key, Entry> entry : segment.entrySet()) {
+                    entries.add(Map.entry(entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+        long now = System.nanoTime();
+        entries.removeIf(entry -> isExpired(entry.getValue(), now));
+
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            byte[] encoding = new byte[CubeStateEncoding.BYTES];
+            for (Map.Entry<Key, Entry> entry : entries) {
+                CubeStateEncoding.write(entry.getKey().toState(), encoding, 0);
+                out.write(encoding);
+                out.writeLong((now - entry.getValue().createdNanos) / 1_000_000);
+                out.writeByte(entry.getValue().moves.length);
+                out.write(entry.getValue().moves);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds the entries of a snapshot written by writeSnapshot, skipping the ones that have expired since.
+     * Entries keep their age, and evict older ones if the cache is full.
+     *
+     * @param file the file to be read
+     * @throws IOException if the file could not be read or is not a snapshot of this version
+     */
+    public void readSnapshot(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a solution cache snapshot: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported solution cache snapshot version: " + version);
+            }
+            int size = in.readInt();
+            long now = System.nanoTime();
+            byte[] encoding = new byte[CubeStateEncoding.BYTES];
+            for (int i = 0; i < size; i++) {
+                in.readFully(encoding);
+                long ageMillis = in.readLong();
+                byte[] moves = new byte[in.readUnsignedByte()];
+                in.readFully(moves);
+                for (byte move : moves) {
+                    if (move < 0 || move >= MoveTables.MOVES) {
+                        throw new IOException("Invalid move " + move + " in solution cache snapshot: " + file);
+                    }
+                }
+                PackedCubeStateRepresentation state;
+                try {
+                    state = CubeStateEncoding.read(encoding, 0);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid state in solution cache snapshot: " + file, e);
+                }
+                Entry entry = new Entry(moves, now - ageMillis * 1_000_000);
+                if (!isExpired(entry, now)) {
+                    put(new Key(state), entry);
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated solution cache snapshot: " + file, e);
+        }
+    }
+
+    private void put(Key key, Entry entry) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, entry);
+        }
+    }
+
+    private Segment segmentFor(Key key) {
+        return segments[key.hashCode() & (SEGMENTS - 1)];
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlNanos > 0 && now - entry.createdNanos >= ttlNanos;
+    }
+
+    private static Solution toSolution(byte[] moves, int symmetry) {
+        int[] conjugated = new int[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            conjugated[i] = SymmetryTables.getConjugateMove(symmetry, moves[i]);
+        }
+        return new Solution(conjugated);
+    }
+
+    /**
+     * Canonical state as its 66 bit encoding, see CubeStateEncoding.
+     */
+    private record Key(long high, int remainder) {
+        Key(PackedCubeStateRepresentation state) {
+            this(CubeStateEncoding.getHigh(state), CubeStateEncoding.getRemainder(state));
+        }
+
+        PackedCubeStateRepresentation toState() {
+            return CubeStateEncoding.decode(high, remainder);
+        }
+
+        @Override
+        public int hashCode() {
+            // the low bits pick the segment, so mix the whole encoding into them
+            long hash = (high ^ remainder) * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+
+    /**
+     * Moves solving the canonical state and the time the entry was created, as given by System.nanoTime().
+     */
+    private record Entry(byte[] moves, long createdNanos) {
+    }
+
+    /**
+     * Access-ordered map dropping its least recently used entry once it grows over its capacity.
+     * Must only be used while holding its lock. Never serialized, like the cache itself.
+     */
+    @SuppressWarnings("serial")
+    private final class Segment extends LinkedHashMap<Key, Entry> {
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package solving;
+
+import representation.coordinates.SymmetryClasses;
+import representation.symmetries.SymmetryTables;
+
+/**
+ * Pruning table over a pair of coordinates, the first one reduced to its symmetry class.
+ * A pair is looked up by conjugating both coordinates so that the first one becomes its class representative,
+ * which is exact because conjugate states are equally far from solved.
+ */
+public class SymmetricPruningTable {
+    private final PruningTable table;
+    private final SymmetryClasses firstClasses;
+    private final int[] secondConjugate;
+
+    /**
+     * Wraps a table indexed by the class of the first coordinate and the conjugated second coordinate.
+     *
+     * @param table           distances, the first coordinate being the class index
+     * @param firstClasses    symmetry classes of the first coordinate
+     * @param secondConjugate conjugation table of the second coordinate, as in CoordinateSymmetryTables
+     */
+    public SymmetricPruningTable(PruningTable table, SymmetryClasses firstClasses, int[] secondConjugate) {
+        this.table = table;
+        this.firstClasses = firstClasses;
+        this.secondConjugate = secondConjugate;
+    }
+
+    /**
+     * Returns the amount of moves needed to bring both coordinates to 0.
+     *
+     * @param first  value of the first coordinate
+     * @param second value of the second coordinate
+     * @return the distance to solved
+     */
+    public int getDistance(int first, int second) {
+        int symmetry = firstClasses.getSymmetry(first);
+        return table.getDistance(firstClasses.getClassIndex(first),
+                secondConjugate[second * SymmetryTables.UD_SYMMETRIES + symmetry]);
+    }
+
+    public PruningTable getTable() {
+        return table;
+    }
+}
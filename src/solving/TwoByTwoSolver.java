@@ -0,0 +1,217 @@
+package solving;
+
+import representation.ArrayCubeStateRepresentation;
+import representation.PackedCubeStateRepresentation;
+import representation.moves.Face;
+import representation.moves.MoveTables;
+import representation.pieces.Corner;
+import representation.symmetries.SymmetryTables;
+
+import java.util.Arrays;
+
+/**
+ * Optimal solver of the 2x2x2 cube, the corners of the 3x3x3 cube without the centres to align them to.
+ * <p>
+ * A 2x2x2 cube has no fixed centres, so turning a face is the same as turning the opposite one and rotating the cube.
+ * Every state is therefore first rotated so that the DBL corner is in its place and oriented, and only R, U and F,
+ * the faces not touching it, are turned. That leaves 7! * 3^6 = 3,674,160 states, few enough for a table of the exact
+ * distance of every one of them, built by a breadth-first search on first use. At 4 bits per state it takes 1.8 MB.
+ * <p>
+ * Solving needs no search: from the state, a move decreasing the distance by one is always among the 9 moves,
+ * so the optimal solution is found by at most 9 lookups per move. Solutions are in the half-turn metric,
+ * and no state is further than MAX_DISTANCE moves from solved.
+ * <p>
+ * For the 3x3x3 cube the distance is a lower bound of the moves needed to solve the corners, as every sequence solving
+ * them also solves the 2x2x2 cube. Thread-safe.
+ */
+public final class TwoByTwoSolver {
+    public static final int PERMUTATIONS = 5040; // 7!
+    public static final int ORIENTATIONS = 729; // 3^6
+    public static final int MAX_DISTANCE = 11;
+
+    // DBL, never moved by the search
+    private static final int FIXED_SLOT = 4;
+    // the other slots, in coordinate order
+    private static final int[] SLOTS = {0, 1, 2, 3, 5, 6, 7};
+    private static final int[] FACTORIAL = {1, 1, 2, 6, 24, 120, 720};
+    private static final int[] MOVES = {
+            MoveTables.moveIndex(Face.RIGHT, 1), MoveTables.moveIndex(Face.RIGHT, 2), MoveTables.moveIndex(Face.RIGHT, 3),
+            MoveTables.moveIndex(Face.UP, 1), MoveTables.moveIndex(Face.UP, 2), MoveTables.moveIndex(Face.UP, 3),
+            MoveTables.moveIndex(Face.FRONT, 1), MoveTables.moveIndex(Face.FRONT, 2), MoveTables.moveIndex(Face.FRONT, 3),
+    };
+
+    // [coordinate * MoveTables.MOVES + move], -1 for the moves turning the fixed corner
+    private static final int[] PERMUTATION_MOVE = new int[PERMUTATIONS * MoveTables.MOVES];
+    private static final int[] ORIENTATION_MOVE = new int[ORIENTATIONS * MoveTables.MOVES];
+
+    static {
+        Arrays.fill(PERMUTATION_MOVE, -1);
+        Arrays.fill(ORIENTATION_MOVE, -1);
+        for (int coordinate = 0; coordinate < PERMUTATIONS; coordinate++) {
+            for (int move : MOVES) {
+                PackedCubeStateRepresentation state = fromCoordinates(coordinate, 0);
+                state.makeMove(move);
+                PERMUTATION_MOVE[coordinate * MoveTables.MOVES + move] = getPermutation(state);
+            }
+        }
+        for (int coordinate = 0; coordinate < ORIENTATIONS; coordinate++) {
+            for (int move : MOVES) {
+                PackedCubeStateRepresentation state = fromCoordinates(0, coordinate);
+                state.makeMove(move);
+                ORIENTATION_MOVE[coordinate * MoveTables.MOVES + move] = getOrientation(state);
+            }
+        }
+    }
+
+    private TwoByTwoSolver() {
+    }
+
+    /**
+     * Returns the amount of moves needed to solve the corners of the state as a 2x2x2 cube.
+     *
+     * @param state a cube state, only the corners are looked at, not modified
+     * @return the optimal distance, at most MAX_DISTANCE
+     */
+    public static int getDistance(PackedCubeStateRepresentation state) {
+        PackedCubeStateRepresentation normalized = rotated(state, findRotation(state));
+        return Table.DISTANCES.getDistance(getPermutation(normalized), getOrientation(normalized));
+    }
+
+    /**
+     * Returns an optimal solution of the corners of the state as a 2x2x2 cube.
+     * After it, every face of the corners has a single colour, though the cube may be rotated
+     * (it isn't when the DBL corner starts in its place and oriented).
+     *
+     * @param state a cube state, only the corners are looked at, not modified
+     * @return the optimal solution
+     */
+    public static Solution solve(PackedCubeStateRepresentation state) {
+        int rotation = findRotation(state);
+        PackedCubeStateRepresentation normalized = rotated(state, rotation);
+        int permutation = getPermutation(normalized);
+        int orientation = getOrientation(normalized);
+        int distance = Table.DISTANCES.getDistance(permutation, orientation);
+        int[] solution = new int[distance];
+        for (int i = 0; i < solution.length; i++) {
+            for (int move : MOVES) {
+                int nextPermutation = PERMUTATION_MOVE[permutation * MoveTables.MOVES + move];
+                int nextOrientation = ORIENTATION_MOVE[orientation * MoveTables.MOVES + move];
+                if (Table.DISTANCES.getDistance(nextPermutation, nextOrientation) == distance - 1) {
+                    // the move of the rotated cube, as made on the cube held the original way
+                    solution[i] = SymmetryTables.getConjugateMove(rotation, move);
+                    permutation = nextPermutation;
+                    orientation = nextOrientation;
+                    distance--;
+                    break;
+                }
+            }
+        }
+        return new Solution(solution);
+    }
+
+    /**
+     * Returns an optimal solution of the 2x2x2 cube with the given corners.
+     *
+     * @param corners the corners, as in ArrayCubeStateRepresentation, not modified
+     * @return the optimal solution
+     */
+    public static Solution solve(Corner[][] corners) {
+        ArrayCubeStateRepresentation state = new ArrayCubeStateRepresentation();
+        for (int layer = 0; layer < Corner.LAYERS; layer++) {
+            System.arraycopy(corners[layer], 0, state.getCorners()[layer], 0, Corner.POSITIONS);
+        }
+        return solve(new PackedCubeStateRepresentation(state));
+    }
+
+    // rotation (non-mirrored symmetry) bringing the DBL corner to its place, oriented, when applied like a move
+    private static int findRotation(PackedCubeStateRepresentation state) {
+        for (int symmetry = 0; symmetry < SymmetryTables.SYMMETRIES; symmetry++) {
+            if (SymmetryTables.isMirrored(symmetry)) {
+                continue;
+            }
+            int source = SymmetryTables.getCornerSource(symmetry, FIXED_SLOT);
+            if (state.getCornerId(source) == FIXED_SLOT
+                    && (state.getCornerOrientation(source) + SymmetryTables.getCornerTwist(symmetry, FIXED_SLOT)) % 3 == 0) {
+                return symmetry;
+            }
+        }
+        throw new IllegalArgumentException("Invalid corners");
+    }
+
+    // corners of the state moved as the whole cube is rotated by the symmetry, edges solved
+    private static PackedCubeStateRepresentation rotated(PackedCubeStateRepresentation state, int rotation) {
+        int[] ids = new int[MoveTables.CORNER_SLOTS];
+        int[] orientations = new int[MoveTables.CORNER_SLOTS];
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            int source = SymmetryTables.getCornerSource(rotation, slot);
+            ids[slot] = state.getCornerId(source);
+            orientations[slot] = (state.getCornerOrientation(source) + SymmetryTables.getCornerTwist(rotation, slot)) % 3;
+        }
+        return new PackedCubeStateRepresentation(ids, orientations, identity(MoveTables.EDGE_SLOTS), new int[MoveTables.EDGE_SLOTS]);
+    }
+
+    private static int getPermutation(PackedCubeStateRepresentation state) {
+        int coordinate = 0;
+        for (int i = 0; i < SLOTS.length; i++) {
+            int smaller = 0;
+            for (int j = i + 1; j < SLOTS.length; j++) {
+                if (state.getCornerId(SLOTS[j]) < state.getCornerId(SLOTS[i])) {
+                    smaller++;
+                }
+            }
+            coordinate += smaller * FACTORIAL[SLOTS.length - 1 - i];
+        }
+        return coordinate;
+    }
+
+    private static int getOrientation(PackedCubeStateRepresentation state) {
+        // the last one follows from the twists adding up to 0 mod 3
+        int coordinate = 0;
+        for (int i = 0; i < SLOTS.length - 1; i++) {
+            coordinate = 3 * coordinate + state.getCornerOrientation(SLOTS[i]);
+        }
+        return coordinate;
+    }
+
+    private static PackedCubeStateRepresentation fromCoordinates(int permutation, int orientation) {
+        int[] ids = new int[MoveTables.CORNER_SLOTS];
+        int[] orientations = new int[MoveTables.CORNER_SLOTS];
+        ids[FIXED_SLOT] = FIXED_SLOT;
+        boolean[] used = new boolean[SLOTS.length];
+        for (int i = 0; i < SLOTS.length; i++) {
+            int smaller = permutation / FACTORIAL[SLOTS.length - 1 - i];
+            permutation %= FACTORIAL[SLOTS.length - 1 - i];
+            int index = 0;
+            while (used[index] || smaller > 0) {
+                if (!used[index]) {
+                    smaller--;
+                }
+                index++;
+            }
+            used[index] = true;
+            ids[SLOTS[i]] = SLOTS[index];
+        }
+        int twist = 0;
+        for (int i = SLOTS.length - 2; i >= 0; i--) {
+            orientations[SLOTS[i]] = orientation % 3;
+            twist += orientation % 3;
+            orientation /= 3;
+        }
+        orientations[SLOTS[SLOTS.length - 1]] = (3 - twist % 3) % 3;
+        return new PackedCubeStateRepresentation(ids, orientations, identity(MoveTables.EDGE_SLOTS), new int[MoveTables.EDGE_SLOTS]);
+    }
+
+    private static int[] identity(int size) {
+        int[] identity = new int[size];
+        for (int i = 0; i < size; i++) {
+            identity[i] = i;
+        }
+        return identity;
+    }
+
+    // built on first use only, by the breadth-first search of PruningTableBuilder
+    private static final class Table {
+        private static final PruningTable DISTANCES = PruningTableBuilder.build(PERMUTATION_MOVE, PERMUTATIONS,
+                ORIENTATION_MOVE, ORIENTATIONS, MOVES);
+    }
+}
@@ -0,0 +1,303 @@
+package solving;
+
+import instrumentation.Instrumentation;
+import instrumentation.SearchStatistics;
+import representation.ArrayCubeStateRepresentation;
+import representation.PackedCubeStateRepresentation;
+import representation.coordinates.CoordinateMoveTables;
+import representation.coordinates.Coordinates;
+import representation.moves.MoveSequences;
+import representation.moves.MoveTables;
+
+import java.util.Arrays;
+
+/**
+ * Kociemba's two-phase algorithm.
+ * Phase one brings the cube into the domino group (oriented pieces, middle layer edges in the middle layer),
+ * phase two solves it using only U, D, R2, L2, F2 and B2.
+ * <p>
+ * Phase one solutions are searched by increasing length, and every one of them is completed by the shortest
+ * phase two that makes the whole solution shorter than the best one so far. The search stops as soon as a solution
+ * of at most the target length is found, once the phase one length reaches the best solution, at which point
+ * no shorter two-phase solution is left, or when the time budget runs out. With the default limits a random state
+ * takes about 7 ms on one core, some 150 solves per second, for solutions of 21.6 moves on average; a lower target
+ * length buys shorter solutions with more search, a target of 20 already averages 25 ms.
+ * <p>
+ * A solver keeps its search state in fields, so an instance must not be shared between threads.
+ */
+public class TwoPhaseSolver {
+    public static final int DEFAULT_MAX_LENGTH = 22;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 1000;
+    public static final String SOLVER_NAME = "two-phase";
+
+    // Every domino group state is solvable within 18 moves
+    private static final int MAX_PHASE_TWO_LENGTH = 18;
+    // How many nodes are expanded between checks of the clock
+    private static final int NODES_PER_TIME_CHECK = 1 << 12;
+
+    private final int maxLength;
+    private final int targetLength;
+    private final long timeoutNanos;
+
+    private final int[] moves;
+    private final int[] bestMoves;
+    // coordinates phase two starts from, by phase one depth, valid up to coordinatesDepth for the current moves
+    private final int[] cornerPermutations;
+    private final int[] upEdges;
+    private final int[] downEdges;
+    private final int[] sliceEdges;
+    private int coordinatesDepth;
+    private int bestLength;
+    private long deadline;
+    private int nodesUntilTimeCheck;
+    private boolean timedOut;
+    // only while solving with instrumentation enabled
+    private SearchStatistics statistics;
+
+    /**
+     * Creates a solver with the default limits.
+     */
+    public TwoPhaseSolver() {
+        this(DEFAULT_MAX_LENGTH, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Creates a solver that returns the first solution of at most the maximal length.
+     *
+     * @param maxLength     the maximal amount of moves of a returned solution
+     * @param timeoutMillis time budget of a single solve, in milliseconds
+     */
+    public TwoPhaseSolver(int maxLength, long timeoutMillis) {
+        this(maxLength, maxLength, timeoutMillis);
+    }
+
+    /**
+     * Creates a solver with the given limits.
+     *
+     * @param maxLength     the maximal amount of moves of a returned solution
+     * @param targetLength  length of a solution good enough to stop searching for a shorter one
+     * @param timeoutMillis time budget of a single solve, in milliseconds
+     */
+    public TwoPhaseSolver(int maxLength, int targetLength, long timeoutMillis) {
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("Maximal length must not be negative");
+        }
+        if (targetLength < 0 || targetLength > maxLength) {
+            throw new IllegalArgumentException("Target length must be between 0 and the maximal length");
+        }
+        this.maxLength = maxLength;
+        this.targetLength = targetLength;
+        this.timeoutNanos = timeoutMillis * 1_000_000;
+        this.moves = new int[maxLength + 1];
+        this.bestMoves = new int[maxLength];
+        this.cornerPermutations = new int[maxLength + 1];
+        this.upEdges = new int[maxLength + 1];
+        this.downEdges = new int[maxLength + 1];
+        this.sliceEdges = new int[maxLength + 1];
+    }
+
+    /**
+     * Finds a sequence of moves solving the given state.
+     *
+     * @param state a solvable cube state
+     * @return the shortest solution found within the time budget, of at most the maximal length,
+     * or null if none was found
+     */
+    public Solution solve(ArrayCubeStateRepresentation state) {
+        return solve(new PackedCubeStateRepresentation(state));
+    }
+
+    /**
+     * Finds a sequence of moves solving the given state.
+     *
+     * @param state a solvable cube state
+     * @return the shortest solution found within the time budget, of at most the maximal length,
+     * or null if none was found
+     */
+    public Solution solve(PackedCubeStateRepresentation state) {
+        int cornerOrientation = Coordinates.getCornerOrientation(state);
+        int edgeOrientation = Coordinates.getEdgeOrientation(state);
+        int udSlice = Coordinates.getUdSlice(state);
+        // loads the pruning tables on the first solve, before its time budget starts
+        int phaseOneDistance = phaseOneDistance(cornerOrientation, edgeOrientation, udSlice);
+        cornerPermutations[0] = Coordinates.getCornerPermutation(state);
+        upEdges[0] = Coordinates.getUpEdges(state);
+        downEdges[0] = Coordinates.getDownEdges(state);
+        sliceEdges[0] = Coordinates.getSliceEdges(state);
+        coordinatesDepth = 0;
+
+        deadline = System.nanoTime() + timeoutNanos;
+        nodesUntilTimeCheck = NODES_PER_TIME_CHECK;
+        timedOut = false;
+        bestLength = maxLength + 1;
+        if (Instrumentation.ENABLED) {
+            statistics = Instrumentation.startSolve(SOLVER_NAME);
+        }
+        Solution solution = null;
+        try {
+            // a solution is never shorter than its phase one
+            for (int length = phaseOneDistance; length < bestLength && !timedOut; length++) {
+                if (Instrumentation.ENABLED) {
+                    statistics.startIteration(length);
+                }
+                if (searchPhaseOne(cornerOrientation, edgeOrientation, udSlice, 0, length)) {
+                    break;
+                }
+            }
+            if (bestLength <= maxLength) {
+                solution = new Solution(MoveSequences.simplify(Arrays.copyOf(bestMoves, bestLength)));
+            }
+            return solution;
+        } finally {
+            if (Instrumentation.ENABLED) {
+                Instrumentation.solved(statistics, solution == null ? -1 : solution.length());
+                statistics = null;
+            }
+        }
+    }
+
+    // returns whether the search can stop with a solution of at most the target length
+    private boolean searchPhaseOne(int cornerOrientation, int edgeOrientation, int udSlice, int depth, int togo) {
+        if (depth + togo >= bestLength) {
+            // a shorter solution was found meanwhile, this phase one can't improve it
+            return false;
+        }
+        if (togo == 0) {
+            // a phase one ending with a domino move would have been found one move earlier
+            if (cornerOrientation == 0 && edgeOrientation == 0 && udSlice == 0
+                    && (depth == 0 || !MoveTables.isDominoMove(moves[depth - 1]))) {
+                return startPhaseTwo(depth);
+            }
+            return false;
+        }
+        if (isOutOfTime()) {
+            return false;
+        }
+        if (Instrumentation.ENABLED) {
+            statistics.nodeExpanded(0, depth);
+        }
+
+        int previous = depth == 0 ? -1 : moves[depth - 1];
+        for (int move = 0; move < MoveTables.MOVES; move++) {
+            if (isRedundant(previous, move)) {
+                continue;
+            }
+            int nextCornerOrientation = CoordinateMoveTables.moveCornerOrientation(cornerOrientation, move);
+            int nextEdgeOrientation = CoordinateMoveTables.moveEdgeOrientation(edgeOrientation, move);
+            int nextUdSlice = CoordinateMoveTables.moveUdSlice(udSlice, move);
+            int distance = phaseOneDistance(nextCornerOrientation, nextEdgeOrientation, nextUdSlice);
+            if (Instrumentation.ENABLED) {
+                statistics.pruningLookup(distance);
+            }
+            if (distance >= togo) {
+                continue;
+            }
+            moves[depth] = move;
+            coordinatesDepth = Math.min(coordinatesDepth, depth);
+            if (searchPhaseOne(nextCornerOrientation, nextEdgeOrientation, nextUdSlice, depth + 1, togo - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean startPhaseTwo(int depth) {
+        // only the moves changed since the previous phase one are applied, most of the path is shared
+        for (int i = coordinatesDepth; i < depth; i++) {
+            cornerPermutations[i + 1] = CoordinateMoveTables.moveCornerPermutation(cornerPermutations[i], moves[i]);
+            upEdges[i + 1] = CoordinateMoveTables.moveUpEdges(upEdges[i], moves[i]);
+            downEdges[i + 1] = CoordinateMoveTables.moveDownEdges(downEdges[i], moves[i]);
+            sliceEdges[i + 1] = CoordinateMoveTables.moveSliceEdges(sliceEdges[i], moves[i]);
+        }
+        coordinatesDepth = depth;
+        // within the domino group the edge groups give the phase two coordinates by a lookup
+        int cornerPermutation = cornerPermutations[depth];
+        int udEdgePermutation = Coordinates.getUdEdgePermutation(upEdges[depth], downEdges[depth]);
+        int slicePermutation = sliceEdges[depth];
+
+        // only phase twos making the solution shorter than the best one are searched, the shortest one first
+        int limit = Math.min(bestLength - 1 - depth, MAX_PHASE_TWO_LENGTH);
+        int distance = phaseTwoDistance(cornerPermutation, udEdgePermutation, slicePermutation);
+        for (int length = distance; length <= limit && !timedOut; length++) {
+            if (searchPhaseTwo(cornerPermutation, udEdgePermutation, slicePermutation, depth, depth, length)) {
+                bestLength = depth + length;
+                System.arraycopy(moves, 0, bestMoves, 0, bestLength);
+                return bestLength <= targetLength;
+            }
+        }
+        return false;
+    }
+
+    private boolean searchPhaseTwo(int cornerPermutation, int udEdgePermutation, int slicePermutation,
+                                   int phaseOneLength, int depth, int togo) {
+        if (togo == 0) {
+            return cornerPermutation == 0 && udEdgePermutation == 0 && slicePermutation == 0;
+        }
+        if (isOutOfTime()) {
+            return false;
+        }
+        if (Instrumentation.ENABLED) {
+            statistics.nodeExpanded(1, depth);
+        }
+
+        // the first move may turn the face phase one ended with, simplification merges the two
+        int previous = depth == phaseOneLength ? -1 : moves[depth - 1];
+        for (int move = 0; move < MoveTables.MOVES; move++) {
+            if (!MoveTables.isDominoMove(move) || isRedundant(previous, move)) {
+                continue;
+            }
+            int nextCornerPermutation = CoordinateMoveTables.moveCornerPermutation(cornerPermutation, move);
+            int nextUdEdgePermutation = CoordinateMoveTables.moveUdEdgePermutation(udEdgePermutation, move);
+            int nextSlicePermutation = CoordinateMoveTables.moveSlicePermutation(slicePermutation, move);
+            int distance = phaseTwoDistance(nextCornerPermutation, nextUdEdgePermutation, nextSlicePermutation);
+            if (Instrumentation.ENABLED) {
+                statistics.pruningLookup(distance);
+            }
+            if (distance >= togo) {
+                continue;
+            }
+            moves[depth] = move;
+            if (searchPhaseTwo(nextCornerPermutation, nextUdEdgePermutation, nextSlicePermutation,
+                    phaseOneLength, depth + 1, togo - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int phaseOneDistance(int cornerOrientation, int edgeOrientation, int udSlice) {
+        return Math.max(
+                PruningTables.CORNER_ORIENTATION_UD_SLICE.getDistance(cornerOrientation, udSlice),
+                PruningTables.EDGE_ORIENTATION_UD_SLICE.getDistance(edgeOrientation, udSlice));
+    }
+
+    private static int phaseTwoDistance(int cornerPermutation, int udEdgePermutation, int slicePermutation) {
+        return Math.max(
+                PruningTables.CORNER_PERMUTATION_SLICE_PERMUTATION.getDistance(cornerPermutation, slicePermutation),
+                PruningTables.UD_EDGE_PERMUTATION_SLICE_PERMUTATION.getDistance(udEdgePermutation, slicePermutation));
+    }
+
+    /**
+     * Returns whether the move can be skipped after the previous one: turning the same face twice in a row
+     * can be merged, and of two commuting opposite faces only one order is searched.
+     */
+    static boolean isRedundant(int previous, int move) {
+        if (previous < 0) {
+            return false;
+        }
+        int face = move / 3;
+        int previousFace = previous / 3;
+        return face == previousFace || (face == (previousFace ^ 1) && face < previousFace);
+    }
+
+    private boolean isOutOfTime() {
+        if (--nodesUntilTimeCheck > 0) {
+            return timedOut;
+        }
+        nodesUntilTimeCheck = NODES_PER_TIME_CHECK;
+        if (System.nanoTime() > deadline) {
+            timedOut = true;
+        }
+        return timedOut;
+    }
+}
@@ -0,0 +1,48 @@
+package solving.algorithms;
+
+import interaction.parsing.CompactScrambleParser;
+import solving.Solution;
+
+/**
+ * Named last layer algorithm, as written by the user and as parsed into face moves.
+ *
+ * @param name     name of the algorithm, e.g. "T-perm"
+ * @param notation the algorithm as written, may contain wide moves, slices and rotations
+ * @param moves    indices of the moves, as in MoveTables; the array is shared and must not be modified
+ */
+public record Algorithm(String name, String notation, int[] moves) {
+    /**
+     * Parses the algorithm from notation.
+     *
+     * @param name     name of the algorithm
+     * @param notation the algorithm, in the notation accepted by CompactScrambleParser
+     * @return the algorithm
+     * @throws interaction.parsing.ScrambleParseException if the notation is not valid
+     */
+    public static Algorithm parse(String name, String notation) {
+        byte[] parsed = CompactScrambleParser.parse(notation);
+        int[] moves = new int[parsed.length];
+        for (int i = 0; i < parsed.length; i++) {
+            moves[i] = parsed[i];
+        }
+        return new Algorithm(name, notation, moves);
+    }
+
+    /**
+     * Returns the amount of face moves of the algorithm, slices counting as two.
+     *
+     * @return the amount of face moves
+     */
+    public int length() {
+        return moves.length;
+    }
+
+    public Solution toSolution() {
+        return new Solution(moves);
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + notation;
+    }
+}
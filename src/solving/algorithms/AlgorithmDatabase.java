@@ -0,0 +1,341 @@
+package solving.algorithms;
+
+import representation.ArrayCubeStateRepresentation;
+import representation.PackedCubeStateRepresentation;
+import representation.moves.Face;
+import representation.moves.MoveTables;
+import representation.symmetries.SymmetryTables;
+import solving.Solution;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Last layer algorithms indexed by the case they solve, for recognising the case of a state with the first two layers solved.
+ * <p>
+ * The case of an algorithm is the last layer of the state it solves, which is the inverse of the algorithm applied to
+ * solved. Turning U before or after the algorithm (AUF) and seeing the cube rotated around the U axis or mirrored
+ * left to right doesn't change the case, so its signature is the smallest of the 32 last layers it can be turned into
+ * by the 8 symmetries keeping the U face up followed by a U turn. Computing it takes a constant amount of work,
+ * and the algorithms are kept in a hash map from the signature, so a lookup doesn't depend on the size of the database.
+ * <p>
+ * ORIENTATION cases (OLL) only look at the orientation of the last layer pieces, FULL cases (PLL, ZBLL, 1LLL)
+ * also at their permutation. A database holds cases of one kind.
+ * <p>
+ * Adding is synchronized and lookups may run concurrently with it.
+ */
+public class AlgorithmDatabase {
+    private static final int U = MoveTables.moveIndex(Face.UP, 1);
+    // symmetries 2 * u4 + lr2, rotations around the U axis, each optionally mirrored
+    private static final int U_SYMMETRIES = 8;
+    private static final int MIRROR = 1;
+
+    // the last layer is slots 0-3 of both corners and edges, 5 bits each in a packed state
+    private static final int LAST_LAYER_BITS = 20;
+    private static final long LAST_LAYER_MASK = (1L << LAST_LAYER_BITS) - 1;
+    // orientation bits of the 4 slots, above 3 bits of corner id and 4 bits of edge id
+    private static final long CORNER_ORIENTATION_MASK = 0b11000_11000_11000_11000L;
+    private static final long EDGE_ORIENTATION_MASK = 0b10000_10000_10000_10000L;
+
+    private static final PackedCubeStateRepresentation SOLVED = new PackedCubeStateRepresentation();
+
+    private final CaseKind kind;
+    // signature -> algorithms solving the case, shortest first; arrays are replaced, never modified
+    private final Map<Long, Entry[]> cases = new ConcurrentHashMap<>();
+    private int size;
+
+    /**
+     * Creates an empty database.
+     *
+     * @param kind which part of the last layer tells the cases apart
+     */
+    public AlgorithmDatabase(CaseKind kind) {
+        this.kind = kind;
+    }
+
+    public CaseKind getKind() {
+        return kind;
+    }
+
+    /**
+     * Adds the algorithm under the case it solves.
+     *
+     * @param algorithm the algorithm
+     * @throws IllegalArgumentException if the algorithm doesn't keep the first two layers solved
+     */
+    public void add(Algorithm algorithm) {
+        insert(prepare(algorithm));
+    }
+
+    /**
+     * Adds the algorithms, computing the cases they solve in parallel. The order of algorithms of equal length
+     * within a case is the order of the list, as if they were added one by one.
+     *
+     * @param algorithms the algorithms
+     * @throws IllegalArgumentException if any of the algorithms doesn't keep the first two layers solved
+     */
+    public void addAll(List<Algorithm> algorithms) {
+        Entry[] entries = algorithms.parallelStream().map(this::prepare).toArray(Entry[]::new);
+        for (Entry entry : entries) {
+            insert(entry);
+        }
+    }
+
+    /**
+     * Returns the best algorithm solving the last layer of the given state.
+     *
+     * @param state a state with the first two layers solved, not modified
+     * @return the shortest matching algorithm with the turns around it, or null if the case is not in the database
+     * @throws IllegalArgumentException if the first two layers of the state are not solved
+     */
+    public Match lookup(ArrayCubeStateRepresentation state) {
+        return lookup(new PackedCubeStateRepresentation(state));
+    }
+
+    /**
+     * Returns the best algorithm solving the last layer of the given state.
+     *
+     * @param state a state with the first two layers solved, not modified
+     * @return the shortest matching algorithm with the turns around it, or null if the case is not in the database
+     * @throws IllegalArgumentException if the first two layers of the state are not solved
+     */
+    public Match lookup(PackedCubeStateRepresentation state) {
+        Entry[] entries = cases.get(signature(state, kind));
+        if (entries == null) {
+            return null;
+        }
+        // the case is known, only the AUFs and whether to mirror are left to be found
+        for (Entry entry : entries) {
+            Match match = align(state, entry.algorithm, false);
+            if (match == null) {
+                match = align(state, entry.algorithm, true);
+            }
+            if (match != null) {
+                return match;
+            }
+        }
+        throw new IllegalStateException("No algorithm of the case matches the state");
+    }
+
+    /**
+     * Returns all the algorithms solving the case of the given state.
+     *
+     * @param state a state with the first two layers solved, not modified
+     * @return the algorithms, shortest first, empty if the case is not in the database
+     * @throws IllegalArgumentException if the first two layers of the state are not solved
+     */
+    public List<Algorithm> getAlgorithms(PackedCubeStateRepresentation state) {
+        Entry[] entries = cases.get(signature(state, kind));
+        if (entries == null) {
+            return List.of();
+        }
+        return Arrays.stream(entries).map(Entry::algorithm).toList();
+    }
+
+    /**
+     * Returns the amount of algorithms in the database.
+     *
+     * @return the amount of algorithms
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the amount of distinct cases the algorithms of the database solve.
+     *
+     * @return the amount of cases
+     */
+    public int caseCount() {
+        return cases.size();
+    }
+
+    /**
+     * Returns the signature of the last layer case of the state, shared by all the states differing from it
+     * by AUF, rotation around the U axis or mirroring.
+     *
+     * @param state a state with the first two layers solved, not modified
+     * @param kind  which part of the last layer is looked at
+     * @return the signature, a non-negative number below 2^40
+     * @throws IllegalArgumentException if the first two layers of the state are not solved
+     */
+    public static long signature(PackedCubeStateRepresentation state, CaseKind kind) {
+        if (!isFirstTwoLayersSolved(state)) {
+            throw new IllegalArgumentException("First two layers are not solved");
+        }
+        long best = Long.MAX_VALUE;
+        for (int symmetry = 0; symmetry < U_SYMMETRIES; symmetry++) {
+            PackedCubeStateRepresentation conjugated = new PackedCubeStateRepresentation(state);
+            conjugated.conjugate(symmetry);
+            for (int auf = 0; auf < 4; auf++) {
+                best = Math.min(best, lastLayer(conjugated, kind));
+                conjugated.makeMove(U);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns whether all the pieces outside the U layer are in their places and oriented.
+     *
+     * @param state the state, not modified
+     * @return whether the first two layers are solved
+     */
+    public static boolean isFirstTwoLayersSolved(PackedCubeStateRepresentation state) {
+        return state.getPackedCorners() >>> LAST_LAYER_BITS == SOLVED.getPackedCorners() >>> LAST_LAYER_BITS
+                && state.getPackedEdges() >>> LAST_LAYER_BITS == SOLVED.getPackedEdges() >>> LAST_LAYER_BITS;
+    }
+
+    /**
+     * Reads algorithms from a text file and adds them to a new database, computing their cases in parallel.
+     * Every line holds an algorithm, optionally preceded by its name and a colon, e.g. "T-perm: R U R' U' R' F R2 U' R' U' R U R' F'".
+     * Empty lines and lines starting with # are skipped. Algorithms without a name are named after their line number.
+     *
+     * @param file the file, in UTF-8
+     * @param kind which part of the last layer tells the cases apart
+     * @return the database
+     * @throws IOException if the file can't be read or one of the algorithms is not valid
+     */
+    public static AlgorithmDatabase load(Path file, CaseKind kind) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        AlgorithmDatabase database = new AlgorithmDatabase(kind);
+        Object[] prepared = IntStream.range(0, lines.size()).parallel()
+                .mapToObj(i -> prepareLine(database, lines.get(i), i + 1))
+                .toArray();
+        for (int i = 0; i < prepared.length; i++) {
+            if (prepared[i] instanceof IllegalArgumentException e) {
+                throw new IOException("Invalid algorithm at line " + (i + 1) + " of " + file + ": " + e.getMessage(), e);
+            }
+            if (prepared[i] instanceof Entry entry) {
+                database.insert(entry);
+            }
+        }
+        return database;
+    }
+
+    // entry of the line, null for skipped lines and the exception for invalid ones, so that the first one can be reported
+    private static Object prepareLine(AlgorithmDatabase database, String line, int lineNumber) {
+        String trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+        int colon = trimmed.indexOf(':');
+        String name = colon >= 0 ? trimmed.substring(0, colon).strip() : "#" + lineNumber;
+        try {
+            return database.prepare(Algorithm.parse(name, trimmed.substring(colon + 1).strip()));
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    private Entry prepare(Algorithm algorithm) {
+        // the algorithm solves the state reached from solved by its inverse
+        PackedCubeStateRepresentation state = new PackedCubeStateRepresentation();
+        int[] moves = algorithm.moves();
+        for (int i = moves.length - 1; i >= 0; i--) {
+            state.makeMove(MoveTables.inverse(moves[i]));
+        }
+        if (!isFirstTwoLayersSolved(state)) {
+            throw new IllegalArgumentException("Algorithm " + algorithm.name() + " doesn't keep the first two layers solved");
+        }
+        return new Entry(signature(state, kind), algorithm);
+    }
+
+    private synchronized void insert(Entry entry) {
+        cases.merge(entry.signature, new Entry[]{entry}, (entries, added) -> {
+            Entry[] merged = Arrays.copyOf(entries, entries.length + 1);
+            merged[entries.length] = added[0];
+            // stable, so equally long algorithms stay in the order they were added
+            Arrays.sort(merged, Comparator.comparingInt(e -> e.algorithm.length()));
+            return merged;
+        });
+        size++;
+    }
+
+    // tries all the AUFs before and after the algorithm, null if none of them solves the last layer of the state
+    private Match align(PackedCubeStateRepresentation state, Algorithm algorithm, boolean mirrored) {
+        for (int preAuf = 0; preAuf < 4; preAuf++) {
+            PackedCubeStateRepresentation turned = new PackedCubeStateRepresentation(state);
+            for (int i = 0; i < preAuf; i++) {
+                turned.makeMove(U);
+            }
+            for (int move : algorithm.moves()) {
+                turned.makeMove(mirrored ? SymmetryTables.getConjugateMove(MIRROR, move) : move);
+            }
+            if (kind == CaseKind.ORIENTATION) {
+                if (lastLayer(turned, kind) == 0) {
+                    return new Match(algorithm, mirrored, preAuf, 0);
+                }
+                continue;
+            }
+            for (int postAuf = 0; postAuf < 4; postAuf++) {
+                if (turned.isSolved()) {
+                    return new Match(algorithm, mirrored, preAuf, postAuf);
+                }
+                turned.makeMove(U);
+            }
+        }
+        return null;
+    }
+
+    private static long lastLayer(PackedCubeStateRepresentation state, CaseKind kind) {
+        long corners = state.getPackedCorners() & LAST_LAYER_MASK;
+        long edges = state.getPackedEdges() & LAST_LAYER_MASK;
+        if (kind == CaseKind.ORIENTATION) {
+            corners &= CORNER_ORIENTATION_MASK;
+            edges &= EDGE_ORIENTATION_MASK;
+        }
+        return corners | edges << LAST_LAYER_BITS;
+    }
+
+    private record Entry(long signature, Algorithm algorithm) {
+    }
+
+    /**
+     * Which part of the last layer tells the cases apart.
+     */
+    public enum CaseKind {
+        // orientation of the pieces only, as in OLL
+        ORIENTATION,
+        // orientation and permutation, as in PLL, ZBLL and 1LLL
+        FULL
+    }
+
+    /**
+     * Algorithm solving the last layer of a state, with the U turns to be made around it.
+     *
+     * @param algorithm the algorithm from the database
+     * @param mirrored  whether the algorithm is to be performed mirrored left to right
+     * @param preAuf    clockwise quarter turns of U before the algorithm
+     * @param postAuf   clockwise quarter turns of U after the algorithm, always 0 for ORIENTATION cases
+     */
+    public record Match(Algorithm algorithm, boolean mirrored, int preAuf, int postAuf) {
+        /**
+         * Returns all the face moves to be made, AUFs included.
+         *
+         * @return the moves solving the last layer, or orienting it for ORIENTATION cases
+         */
+        public Solution toSolution() {
+            List<Integer> moves = new ArrayList<>();
+            if (preAuf != 0) {
+                moves.add(MoveTables.moveIndex(Face.UP, preAuf));
+            }
+            for (int move : algorithm.moves()) {
+                moves.add(mirrored ? SymmetryTables.getConjugateMove(MIRROR, move) : move);
+            }
+            if (postAuf != 0) {
+                moves.add(MoveTables.moveIndex(Face.UP, postAuf));
+            }
+            return new Solution(moves.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package solving.algorithms;
+
+import representation.PackedCubeStateRepresentation;
+import representation.moves.MoveTables;
+import representation.pieces.Corner;
+import representation.pieces.Edge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What a move sequence does to the pieces, whatever state it is applied to: the slot every slot takes its piece from
+ * and the orientation the piece gains, in the same form as the move transitions of MoveTables.
+ * <p>
+ * The sequence is composed once, in O(length). Everything else follows from the cycle decomposition in O(pieces):
+ * a piece cycle of length L returns its pieces home after L repetitions, twisted or flipped by the total orientation
+ * of the cycle, so the cycle needs L, 2 * L or 3 * L repetitions to be solved again, and the order of the sequence
+ * is the least common multiple of those. Repeating the sequence k times moves every piece k mod L steps along
+ * its cycle, which makes power(k) as cheap as a single application.
+ * <p>
+ * Immutable and thread-safe.
+ */
+public final class AlgorithmEffect {
+    public static final AlgorithmEffect IDENTITY = new AlgorithmEffect(identity(MoveTables.CORNER_SLOTS),
+            new int[MoveTables.CORNER_SLOTS], identity(MoveTables.EDGE_SLOTS), new int[MoveTables.EDGE_SLOTS]);
+
+    // [slot], names as used by cycle notation
+    private static final String[] CORNER_NAMES = {"ULB", "UBR", "URF", "UFL", "DBL", "DRB", "DFR", "DLF"};
+    private static final String[] EDGE_NAMES = {"UB", "UR", "UF", "UL", "BL", "BR", "FR", "FL", "DB", "DR", "DF", "DL"};
+
+    // [slot] - slot the piece is taken from
+    private final int[] cornerSource;
+    // [slot] - orientation added (mod 3) to the piece after it lands in the slot
+    private final int[] cornerTwist;
+    private final int[] edgeSource;
+    // [slot] - 1 if the piece is flipped after it lands in the slot
+    private final int[] edgeFlip;
+
+    private final List<Cycle> cornerCycles;
+    private final List<Cycle> edgeCycles;
+    private final long order;
+
+    private AlgorithmEffect(int[] cornerSource, int[] cornerTwist, int[] edgeSource, int[] edgeFlip) {
+        this.cornerSource = cornerSource;
+        this.cornerTwist = cornerTwist;
+        this.edgeSource = edgeSource;
+        this.edgeFlip = edgeFlip;
+        this.cornerCycles = cycles(cornerSource, cornerTwist, Corner.ORIENTATIONS);
+        this.edgeCycles = cycles(edgeSource, edgeFlip, Edge.ORIENTATIONS);
+        long order = 1;
+        for (Cycle cycle : cornerCycles) {
+            order = lcm(order, cycle.order());
+        }
+        for (Cycle cycle : edgeCycles) {
+            order = lcm(order, cycle.order());
+        }
+        this.order = order;
+    }
+
+    /**
+     * Composes the moves into their effect.
+     *
+     * @param moves indices of the moves, as in MoveTables, not modified
+     * @return the effect of the sequence
+     */
+    public static AlgorithmEffect of(int[] moves) {
+        // applied to the solved state, every slot ends up with the id of the slot its piece came from
+        PackedCubeStateRepresentation state = new PackedCubeStateRepresentation();
+        for (int move : moves) {
+            state.makeMove(move);
+        }
+        return of(state);
+    }
+
+    public static AlgorithmEffect of(Algorithm algorithm) {
+        return of(algorithm.moves());
+    }
+
+    /**
+     * Returns the effect of any sequence reaching the given state from the solved one.
+     *
+     * @param state a cube state, not modified
+     * @return the effect of the state's sequences
+     */
+    public static AlgorithmEffect of(PackedCubeStateRepresentation state) {
+        int[] cornerSource = new int[MoveTables.CORNER_SLOTS];
+        int[] cornerTwist = new int[MoveTables.CORNER_SLOTS];
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            cornerSource[slot] = state.getCornerId(slot);
+            cornerTwist[slot] = state.getCornerOrientation(slot);
+        }
+        int[] edgeSource = new int[MoveTables.EDGE_SLOTS];
+        int[] edgeFlip = new int[MoveTables.EDGE_SLOTS];
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            edgeSource[slot] = state.getEdgeId(slot);
+            edgeFlip[slot] = state.getEdgeOrientation(slot);
+        }
+        return new AlgorithmEffect(cornerSource, cornerTwist, edgeSource, edgeFlip);
+    }
+
+    /**
+     * Returns the amount of repetitions returning every state to itself, between 1 and 1260.
+     *
+     * @return the order of the sequence
+     */
+    public long getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns the corner cycles, pieces twisted in place included as cycles of length 1.
+     * Corners neither moved nor twisted are in no cycle.
+     *
+     * @return the cycles, by their first slot
+     */
+    public List<Cycle> getCornerCycles() {
+        return cornerCycles;
+    }
+
+    /**
+     * Returns the edge cycles, pieces flipped in place included as cycles of length 1.
+     * Edges neither moved nor flipped are in no cycle.
+     *
+     * @return the cycles, by their first slot
+     */
+    public List<Cycle> getEdgeCycles() {
+        return edgeCycles;
+    }
+
+    /**
+     * Returns the slots whose pieces are neither moved nor twisted.
+     *
+     * @return the slots, in ascending order
+     */
+    public int[] getFixedCorners() {
+        return fixed(cornerSource, cornerTwist);
+    }
+
+    /**
+     * Returns the slots whose pieces are neither moved nor flipped.
+     *
+     * @return the slots, in ascending order
+     */
+    public int[] getFixedEdges() {
+        return fixed(edgeSource, edgeFlip);
+    }
+
+    public boolean isIdentity() {
+        return order == 1;
+    }
+
+    /**
+     * Returns the effect of this sequence followed by the other one.
+     *
+     * @param next the sequence made afterwards
+     * @return the effect of both
+     */
+    public AlgorithmEffect then(AlgorithmEffect next) {
+        int[] newCornerSource = new int[MoveTables.CORNER_SLOTS];
+        int[] newCornerTwist = new int[MoveTables.CORNER_SLOTS];
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            newCornerSource[slot] = cornerSource[next.cornerSource[slot]];
+            newCornerTwist[slot] = (cornerTwist[next.cornerSource[slot]] + next.cornerTwist[slot]) % Corner.ORIENTATIONS;
+        }
+        int[] newEdgeSource = new int[MoveTables.EDGE_SLOTS];
+        int[] newEdgeFlip = new int[MoveTables.EDGE_SLOTS];
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            newEdgeSource[slot] = edgeSource[next.edgeSource[slot]];
+            newEdgeFlip[slot] = edgeFlip[next.edgeSource[slot]] ^ next.edgeFlip[slot];
+        }
+        return new AlgorithmEffect(newCornerSource, newCornerTwist, newEdgeSource, newEdgeFlip);
+    }
+
+    /**
+     * Returns the effect of the inverse sequence.
+     *
+     * @return the inverse effect
+     */
+    public AlgorithmEffect inverse() {
+        return power(-1);
+    }
+
+    /**
+     * Returns the effect of the sequence repeated the given amount of times, in O(pieces) whatever the amount.
+     *
+     * @param k amount of repetitions, negative for repetitions of the inverse
+     * @return the effect of the repetitions
+     */
+    public AlgorithmEffect power(long k) {
+        int[] newCornerSource = identity(MoveTables.CORNER_SLOTS);
+        int[] newCornerTwist = new int[MoveTables.CORNER_SLOTS];
+        for (Cycle cycle : cornerCycles) {
+            power(cycle, k, cornerTwist, Corner.ORIENTATIONS, newCornerSource, newCornerTwist);
+        }
+        int[] newEdgeSource = identity(MoveTables.EDGE_SLOTS);
+        int[] newEdgeFlip = new int[MoveTables.EDGE_SLOTS];
+        for (Cycle cycle : edgeCycles) {
+            power(cycle, k, edgeFlip, Edge.ORIENTATIONS, newEdgeSource, newEdgeFlip);
+        }
+        return new AlgorithmEffect(newCornerSource, newCornerTwist, newEdgeSource, newEdgeFlip);
+    }
+
+    /**
+     * Returns the state reached by making the sequence on the given state.
+     *
+     * @param state a cube state, not modified
+     * @return the new state
+     */
+    public PackedCubeStateRepresentation apply(PackedCubeStateRepresentation state) {
+        int[] cornerIds = new int[MoveTables.CORNER_SLOTS];
+        int[] cornerOrientations = new int[MoveTables.CORNER_SLOTS];
+        for (int slot = 0; slot < MoveTables.CORNER_SLOTS; slot++) {
+            cornerIds[slot] = state.getCornerId(cornerSource[slot]);
+            cornerOrientations[slot] = (state.getCornerOrientation(cornerSource[slot]) + cornerTwist[slot]) % Corner.ORIENTATIONS;
+        }
+        int[] edgeIds = new int[MoveTables.EDGE_SLOTS];
+        int[] edgeOrientations = new int[MoveTables.EDGE_SLOTS];
+        for (int slot = 0; slot < MoveTables.EDGE_SLOTS; slot++) {
+            edgeIds[slot] = state.getEdgeId(edgeSource[slot]);
+            edgeOrientations[slot] = state.getEdgeOrientation(edgeSource[slot]) ^ edgeFlip[slot];
+        }
+        return new PackedCubeStateRepresentation(cornerIds, cornerOrientations, edgeIds, edgeOrientations);
+    }
+
+    /**
+     * Returns the state reached by making the sequence on the given state the given amount of times.
+     *
+     * @param state a cube state, not modified
+     * @param k     amount of repetitions, negative for repetitions of the inverse
+     * @return the new state
+     */
+    public PackedCubeStateRepresentation apply(PackedCubeStateRepresentation state, long k) {
+        return power(k).apply(state);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof AlgorithmEffect other
+                && Arrays.equals(cornerSource, other.cornerSource) && Arrays.equals(cornerTwist, other.cornerTwist)
+                && Arrays.equals(edgeSource, other.edgeSource) && Arrays.equals(edgeFlip, other.edgeFlip);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(cornerSource);
+        result = 31 * result + Arrays.hashCode(cornerTwist);
+        result = 31 * result + Arrays.hashCode(edgeSource);
+        return 31 * result + Arrays.hashCode(edgeFlip);
+    }
+
+    /**
+     * Returns the cycles in the usual notation, every piece moving to the next slot, e.g. (UFL URF UBR) (UF UR UB).
+     * A cycle followed by + or - twists its pieces clockwise or counter-clockwise per round, + flips an edge cycle.
+     *
+     * @return the cycle notation, "()" for the identity
+     */
+    @Override
+    public String toString() {
+        if (isIdentity()) {
+            return "()";
+        }
+        StringBuilder sb = new StringBuilder();
+        appendCycles(sb, cornerCycles, CORNER_NAMES, "?+-");
+        appendCycles(sb, edgeCycles, EDGE_NAMES, "?+");
+        return sb.toString();
+    }
+
+    /**
+     * Cycle of slots, every slot taking its piece from the next one, like the slot cycles of a face turn.
+     *
+     * @param slots       the slots, starting from the smallest one; the array is shared and must not be modified
+     * @param orientation orientation added to every piece per round of the cycle, 0 if the pieces come back oriented
+     * @param order       amount of repetitions returning the pieces home and oriented
+     */
+    public record Cycle(int[] slots, int orientation, int order) {
+        public int length() {
+            return slots.length;
+        }
+    }
+
+    private static List<Cycle> cycles(int[] source, int[] orientation, int orientations) {
+        List<Cycle> cycles = new ArrayList<>();
+        boolean[] visited = new boolean[source.length];
+        for (int start = 0; start < source.length; start++) {
+            if (visited[start] || (source[start] == start && orientation[start] == 0)) {
+                continue;
+            }
+            int length = 0;
+            int total = 0;
+            for (int slot = start; !visited[slot]; slot = source[slot]) {
+                visited[slot] = true;
+                total += orientation[slot];
+                length++;
+            }
+            int[] slots = new int[length];
+            for (int i = 0, slot = start; i < length; i++, slot = source[slot]) {
+                slots[i] = slot;
+            }
+            total %= orientations;
+            // the pieces come home after every round, oriented after orientations / gcd(total, orientations) rounds
+            int rounds = total == 0 ? 1 : orientations / gcd(total, orientations);
+            cycles.add(new Cycle(slots, total, length * rounds));
+        }
+        return List.copyOf(cycles);
+    }
+
+    // after k repetitions a slot takes its piece from k steps further along the cycle,
+    // having gained the orientation of every slot on the way
+    private static void power(Cycle cycle, long k, int[] orientation, int orientations, int[] newSource, int[] newOrientation) {
+        int[] slots = cycle.slots();
+        int length = slots.length;
+        int steps = (int) Math.floorMod(k, (long) cycle.order());
+        int rounds = steps / length;
+        int rest = steps % length;
+        // [i] - orientation gained over the first i slots of the cycle, twice around
+        int[] prefix = new int[2 * length + 1];
+        for (int i = 0; i < 2 * length; i++) {
+            prefix[i + 1] = prefix[i] + orientation[slots[i % length]];
+        }
+        for (int i = 0; i < length; i++) {
+            newSource[slots[i]] = slots[(i + rest) % length];
+            newOrientation[slots[i]] = (rounds * cycle.orientation() + prefix[i + rest] - prefix[i]) % orientations;
+        }
+    }
+
+    private static int[] fixed(int[] source, int[] orientation) {
+        int count = 0;
+        int[] fixed = new int[source.length];
+        for (int slot = 0; slot < source.length; slot++) {
+            if (source[slot] == slot && orientation[slot] == 0) {
+                fixed[count++] = slot;
+            }
+        }
+        return Arrays.copyOf(fixed, count);
+    }
+
+    private static void appendCycles(StringBuilder sb, List<Cycle> cycles, String[] names, String suffixes) {
+        for (Cycle cycle : cycles) {
+            if (!sb.isEmpty()) {
+                sb.append(' ');
+            }
+            sb.append('(');
+            // the piece of slots[i + 1] moves to slots[i], so the notation goes backwards
+            int[] slots = cycle.slots();
+            for (int i = 0; i < slots.length; i++) {
+                if (i > 0) {
+                    sb.append(' ');
+                }
+                sb.append(names[slots[(slots.length - i) % slots.length]]);
+            }
+            sb.append(')');
+            if (cycle.orientation() != 0) {
+                sb.append(suffixes.charAt(cycle.orientation()));
+            }
+        }
+    }
+
+    private static int[] identity(int size) {
+        int[] identity = new int[size];
+        for (int i = 0; i < size; i++) {
+            identity[i] = i;
+        }
+        return identity;
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static long lcm(long a, long b) {
+        long gcd = a;
+        for (long r = b; r != 0; ) {
+            long t = gcd % r;
+            gcd = r;
+            r = t;
+        }
+        return a / gcd * b;
+    }
+}
@@ -0,0 +1,111 @@
+package representation;
+
+import org.junit.jupiter.api.Test;
+import representation.moves.MoveTables;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that CubeStateEncoding ranks, encodes and decodes states without loss, on random scrambles
+ * of both parities and on the first and the last rank.
+ */
+class CubeStateEncodingTest {
+    private static final int SCRAMBLES = 10_000;
+    private static final int MAX_SCRAMBLE_LENGTH = 40;
+    private static final long SEED = 0;
+
+    @Test
+    void randomStatesRoundTrip() {
+        Random random = new Random(SEED);
+        byte[] bytes = new byte[CubeStateEncoding.BYTES + 1];
+        for (int scramble = 0; scramble < SCRAMBLES; scramble++) {
+            PackedCubeStateRepresentation state = scramble(random, random.nextInt(MAX_SCRAMBLE_LENGTH + 1));
+
+            BigInteger rank = CubeStateEncoding.rank(state);
+            assertTrue(rank.signum() >= 0 && rank.compareTo(CubeStateEncoding.STATES) < 0, "rank out of range: " + rank);
+            assertEquals(state, CubeStateEncoding.unrank(rank), "unranking differs for rank " + rank);
+
+            long high = CubeStateEncoding.getHigh(state);
+            int remainder = CubeStateEncoding.getRemainder(state);
+            assertEquals(state, CubeStateEncoding.decode(high, remainder), "decoding differs for rank " + rank);
+
+            CubeStateEncoding.write(state, bytes, 1);
+            assertEquals(0, bytes[1] & 0xFC, "leading bits set for rank " + rank);
+            assertEquals(state, CubeStateEncoding.read(bytes, 1), "reading differs for rank " + rank);
+        }
+    }
+
+    @Test
+    void edgeParityFollowsCorners() {
+        Random random = new Random(SEED);
+        boolean[] seen = new boolean[2];
+        for (int scramble = 0; scramble < SCRAMBLES; scramble++) {
+            long cornerIndex = random.nextLong(CubeStateEncoding.CORNER_STATES);
+            long edgeIndex = random.nextLong(CubeStateEncoding.EDGE_STATES);
+            PackedCubeStateRepresentation state = CubeStateEncoding.fromIndices(cornerIndex, edgeIndex);
+
+            int cornerParity = cornerParity(state);
+            assertEquals(cornerParity, edgeParity(state), "parities differ for indices " + cornerIndex + ", " + edgeIndex);
+            assertEquals(cornerIndex, CubeStateEncoding.getCornerIndex(state), "corner index differs");
+            assertEquals(edgeIndex, CubeStateEncoding.getEdgeIndex(state), "edge index differs");
+            seen[cornerParity] = true;
+        }
+        assertTrue(seen[0] && seen[1], "both parities should have been drawn");
+    }
+
+    @Test
+    void boundaryRanks() {
+        PackedCubeStateRepresentation first = CubeStateEncoding.unrank(BigInteger.ZERO);
+        assertTrue(first.isSolved(), "rank 0 is not the solved state");
+        assertEquals(BigInteger.ZERO, CubeStateEncoding.rank(new PackedCubeStateRepresentation()));
+
+        BigInteger lastRank = CubeStateEncoding.STATES.subtract(BigInteger.ONE);
+        PackedCubeStateRepresentation last = CubeStateEncoding.unrank(lastRank);
+        assertEquals(lastRank, CubeStateEncoding.rank(last));
+        assertEquals(cornerParity(last), edgeParity(last), "last state has mismatched parities");
+
+        assertThrows(IllegalArgumentException.class, () -> CubeStateEncoding.unrank(BigInteger.ONE.negate()));
+        assertThrows(IllegalArgumentException.class, () -> CubeStateEncoding.unrank(CubeStateEncoding.STATES));
+    }
+
+    private static PackedCubeStateRepresentation scramble(Random random, int length) {
+        PackedCubeStateRepresentation state = new PackedCubeStateRepresentation();
+        for (int i = 0; i < length; i++) {
+            state.makeMove(random.nextInt(MoveTables.MOVES));
+        }
+        return state;
+    }
+
+    private static int cornerParity(PackedCubeStateRepresentation state) {
+        int[] ids = new int[MoveTables.CORNER_SLOTS];
+        for (int slot = 0; slot < ids.length; slot++) {
+            ids[slot] = state.getCornerId(slot);
+        }
+        return parity(ids);
+    }
+
+    private static int edgeParity(PackedCubeStateRepresentation state) {
+        int[] ids = new int[MoveTables.EDGE_SLOTS];
+        for (int slot = 0; slot < ids.length; slot++) {
+            ids[slot] = state.getEdgeId(slot);
+        }
+        return parity(ids);
+    }
+
+    private static int parity(int[] permutation) {
+        int parity = 0;
+        for (int i = 0; i < permutation.length; i++) {
+            for (int j = i + 1; j < permutation.length; j++) {
+                if (permutation[j] < permutation[i]) {
+                    parity ^= 1;
+                }
+            }
+        }
+        return parity;
+    }
+}
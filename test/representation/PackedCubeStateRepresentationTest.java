@@ -0,0 +1,99 @@
+package representation;
+
+import org.junit.jupiter.api.Test;
+import representation.moves.Face;
+import representation.pieces.Corner;
+import representation.pieces.Edge;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that PackedCubeStateRepresentation agrees with ArrayCubeStateRepresentation on random scrambles.
+ * Both states are scrambled through the makeXMove(amount) API, compared slot by slot after every move,
+ * and converted into each other without loss.
+ */
+class PackedCubeStateRepresentationTest {
+    private static final int SCRAMBLES = 10_000;
+    private static final int MAX_SCRAMBLE_LENGTH = 40;
+    private static final int[] AMOUNTS = {-1, 0, 1, 2, 3};
+    private static final long SEED = 0;
+
+    @Test
+    void solvedStatesAgree() {
+        ArrayCubeStateRepresentation array = new ArrayCubeStateRepresentation();
+        PackedCubeStateRepresentation packed = new PackedCubeStateRepresentation();
+        assertAgree(array, packed, "solved");
+        assertTrue(packed.isSolved(), "solved packed state is not solved");
+    }
+
+    @Test
+    void randomScramblesAgree() {
+        Random random = new Random(SEED);
+        for (int scramble = 0; scramble < SCRAMBLES; scramble++) {
+            testScramble(random, random.nextInt(MAX_SCRAMBLE_LENGTH + 1));
+        }
+    }
+
+    private static void testScramble(Random random, int length) {
+        ArrayCubeStateRepresentation array = new ArrayCubeStateRepresentation();
+        PackedCubeStateRepresentation packed = new PackedCubeStateRepresentation();
+        StringBuilder scramble = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            Face face = Face.values()[random.nextInt(Face.values().length)];
+            int amount = AMOUNTS[random.nextInt(AMOUNTS.length)];
+            scramble.append(face).append('(').append(amount).append(") ");
+            makeMove(array, face, amount);
+            makeMove(packed, face, amount);
+            assertAgree(array, packed, scramble.toString());
+        }
+
+        PackedCubeStateRepresentation packedCopy = new PackedCubeStateRepresentation(array);
+        assertEquals(packed, packedCopy, "packing the array state differs after " + scramble);
+        ArrayCubeStateRepresentation arrayCopy = packed.toArrayCubeStateRepresentation();
+        assertEquals(array, arrayCopy, "unpacking the packed state differs after " + scramble);
+        assertEquals(packed, new PackedCubeStateRepresentation(arrayCopy), "round trip differs after " + scramble);
+        assertEquals(packed.hashCode(), array.hashCode(), "hash codes differ after " + scramble);
+    }
+
+    private static void assertAgree(ArrayCubeStateRepresentation array, PackedCubeStateRepresentation packed, String scramble) {
+        Corner[][] corners = array.getCorners();
+        for (int slot = 0; slot < Corner.LAYERS * Corner.POSITIONS; slot++) {
+            Corner corner = corners[slot / Corner.POSITIONS][slot % Corner.POSITIONS];
+            assertTrue(corner.getId() == packed.getCornerId(slot)
+                            && corner.getOrientation() == packed.getCornerOrientation(slot),
+                    "corner slot " + slot + " differs after " + scramble);
+        }
+        Edge[][] edges = array.getEdges();
+        for (int slot = 0; slot < Edge.LAYERS * Edge.POSITIONS; slot++) {
+            Edge edge = edges[slot / Edge.POSITIONS][slot % Edge.POSITIONS];
+            assertTrue(edge.getId() == packed.getEdgeId(slot)
+                            && edge.getOrientation() == packed.getEdgeOrientation(slot),
+                    "edge slot " + slot + " differs after " + scramble);
+        }
+    }
+
+    private static void makeMove(ArrayCubeStateRepresentation state, Face face, int amount) {
+        switch (face) {
+            case RIGHT -> state.makeRightMove(amount);
+            case LEFT -> state.makeLeftMove(amount);
+            case UP -> state.makeUpMove(amount);
+            case DOWN -> state.makeDownMove(amount);
+            case FRONT -> state.makeFrontMove(amount);
+            case BACK -> state.makeBackMove(amount);
+        }
+    }
+
+    private static void makeMove(PackedCubeStateRepresentation state, Face face, int amount) {
+        switch (face) {
+            case RIGHT -> state.makeRightMove(amount);
+            case LEFT -> state.makeLeftMove(amount);
+            case UP -> state.makeUpMove(amount);
+            case DOWN -> state.makeDownMove(amount);
+            case FRONT -> state.makeFrontMove(amount);
+            case BACK -> state.makeBackMove(amount);
+        }
+    }
+}
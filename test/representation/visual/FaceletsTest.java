@@ -0,0 +1,118 @@
+package representation.visual;
+
+import org.junit.jupiter.api.Test;
+import representation.PackedCubeStateRepresentation;
+import representation.moves.MoveTables;
+import representation.visual.Facelets.Validity;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that facelet strings and states convert into each other without loss,
+ * and that every kind of invalid facelet string is told apart by validate.
+ */
+class FaceletsTest {
+    private static final int SCRAMBLES = 10_000;
+    private static final int MAX_SCRAMBLE_LENGTH = 40;
+    private static final long SEED = 0;
+
+    @Test
+    void randomStatesRoundTrip() {
+        Random random = new Random(SEED);
+        for (int scramble = 0; scramble < SCRAMBLES; scramble++) {
+            PackedCubeStateRepresentation state = new PackedCubeStateRepresentation();
+            int length = random.nextInt(MAX_SCRAMBLE_LENGTH + 1);
+            for (int i = 0; i < length; i++) {
+                state.makeMove(random.nextInt(MoveTables.MOVES));
+            }
+
+            String facelets = Facelets.toFacelets(state);
+            assertEquals(Validity.VALID, Facelets.validate(facelets), facelets);
+            assertEquals(state, Facelets.toPackedState(facelets), "decoding differs for " + facelets);
+            assertEquals(facelets, Facelets.toFacelets(Facelets.toPackedState(facelets)));
+            assertEquals(state, new PackedCubeStateRepresentation(Facelets.toArrayState(facelets)));
+            // other letters, told apart by the centres
+            assertEquals(state, Facelets.toPackedState(Facelets.toColours(state)), "colours differ for " + facelets);
+        }
+    }
+
+    @Test
+    void solvedFacelets() {
+        assertEquals(Facelets.SOLVED, Facelets.toFacelets(new PackedCubeStateRepresentation()));
+        assertEquals(Validity.VALID, Facelets.validate(Facelets.SOLVED));
+    }
+
+    @Test
+    void invalidLength() {
+        assertInvalid(Validity.INVALID_LENGTH, Facelets.SOLVED.substring(1));
+        assertInvalid(Validity.INVALID_LENGTH, Facelets.SOLVED + "U");
+    }
+
+    @Test
+    void invalidCentres() {
+        // R centre
+        assertInvalid(Validity.INVALID_CENTRES, replace(Facelets.SOLVED, 13, 'U'));
+    }
+
+    @Test
+    void invalidFacelet() {
+        assertInvalid(Validity.INVALID_FACELET, replace(Facelets.SOLVED, 0, 'X'));
+    }
+
+    @Test
+    void invalidCorner() {
+        // ULB corner as U, D, B
+        assertInvalid(Validity.INVALID_CORNER, replace(Facelets.SOLVED, 36, 'D'));
+    }
+
+    @Test
+    void invalidEdge() {
+        // UB edge as U, D
+        assertInvalid(Validity.INVALID_EDGE, replace(Facelets.SOLVED, 46, 'D'));
+    }
+
+    @Test
+    void duplicateCorner() {
+        // URF corner in the ULB slot as well
+        assertInvalid(Validity.DUPLICATE_CORNER, replace(replace(Facelets.SOLVED, 36, 'R'), 47, 'F'));
+    }
+
+    @Test
+    void duplicateEdge() {
+        // UR edge in the UB slot as well
+        assertInvalid(Validity.DUPLICATE_EDGE, replace(Facelets.SOLVED, 46, 'R'));
+    }
+
+    @Test
+    void twistedCorner() {
+        // URF corner twisted in place
+        assertInvalid(Validity.TWISTED_CORNER, replace(replace(replace(Facelets.SOLVED, 8, 'F'), 9, 'U'), 20, 'R'));
+    }
+
+    @Test
+    void flippedEdge() {
+        // UF edge flipped in place
+        assertInvalid(Validity.FLIPPED_EDGE, replace(replace(Facelets.SOLVED, 7, 'F'), 19, 'U'));
+    }
+
+    @Test
+    void parity() {
+        // UB and UR edges swapped
+        assertInvalid(Validity.PARITY, replace(replace(Facelets.SOLVED, 46, 'R'), 10, 'B'));
+    }
+
+    private static void assertInvalid(Validity expected, String facelets) {
+        assertEquals(expected, Facelets.validate(facelets), facelets);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Facelets.toPackedState(facelets));
+        assertEquals("Invalid facelets: " + expected.getDescription(), e.getMessage());
+    }
+
+    private static String replace(String facelets, int index, char c) {
+        StringBuilder sb = new StringBuilder(facelets);
+        sb.setCharAt(index, c);
+        return sb.toString();
+    }
+}
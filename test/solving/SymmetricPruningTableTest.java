@@ -0,0 +1,50 @@
+package solving;
+
+import org.junit.jupiter.api.Test;
+import representation.coordinates.CoordinateMoveTables;
+import representation.coordinates.Coordinates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that every lookup of the symmetry-reduced pruning tables equals the distance in the table
+ * built over all the pairs of coordinates, without symmetry reduction.
+ */
+class SymmetricPruningTableTest {
+
+    @Test
+    void cornerOrientationUdSliceMatchesUnreducedTable() {
+        PruningTable unreduced = PruningTableBuilder.build(CoordinateMoveTables.getCornerOrientationTable(),
+                Coordinates.CORNER_ORIENTATIONS, CoordinateMoveTables.getUdSliceTable(), Coordinates.UD_SLICES, false);
+        assertSameDistances(unreduced, PruningTables.CORNER_ORIENTATION_UD_SLICE);
+    }
+
+    @Test
+    void cornerPermutationSlicePermutationMatchesUnreducedTable() {
+        PruningTable unreduced = PruningTableBuilder.build(CoordinateMoveTables.getCornerPermutationTable(),
+                Coordinates.CORNER_PERMUTATIONS, CoordinateMoveTables.getSlicePermutationTable(),
+                Coordinates.SLICE_PERMUTATIONS, true);
+        assertSameDistances(unreduced, PruningTables.CORNER_PERMUTATION_SLICE_PERMUTATION);
+    }
+
+    @Test
+    void udEdgePermutationSlicePermutationMatchesUnreducedTable() {
+        PruningTable unreduced = PruningTableBuilder.build(CoordinateMoveTables.getUdEdgePermutationTable(),
+                Coordinates.UD_EDGE_PERMUTATIONS, CoordinateMoveTables.getSlicePermutationTable(),
+                Coordinates.SLICE_PERMUTATIONS, true);
+        assertSameDistances(unreduced, PruningTables.UD_EDGE_PERMUTATION_SLICE_PERMUTATION);
+    }
+
+    private static void assertSameDistances(PruningTable unreduced, SymmetricPruningTable symmetric) {
+        for (int first = 0; first < unreduced.getFirstSize(); first++) {
+            for (int second = 0; second < unreduced.getSecondSize(); second++) {
+                int expected = unreduced.getDistance(first, second);
+                int actual = symmetric.getDistance(first, second);
+                if (expected != actual) {
+                    // only build the message on failure, there are about a million pairs per table
+                    assertEquals(expected, actual, "distance of (" + first + ", " + second + ")");
+                }
+            }
+        }
+    }
+}
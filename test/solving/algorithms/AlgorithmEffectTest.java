@@ -0,0 +1,126 @@
+package solving.algorithms;
+
+import org.junit.jupiter.api.Test;
+import representation.PackedCubeStateRepresentation;
+import representation.moves.MoveTables;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks AlgorithmEffect against making the moves one by one on random states.
+ */
+class AlgorithmEffectTest {
+    private static final int SEQUENCES = 1000;
+    private static final int MAX_SEQUENCE_LENGTH = 20;
+    private static final int MAX_POWER = 12;
+    private static final long SEED = 0;
+
+    @Test
+    void applyMatchesMoves() {
+        Random random = new Random(SEED);
+        for (int sequence = 0; sequence < SEQUENCES; sequence++) {
+            int[] moves = randomMoves(random);
+            PackedCubeStateRepresentation start = randomState(random);
+            assertEquals(made(start, moves, 1), AlgorithmEffect.of(moves).apply(start));
+        }
+    }
+
+    @Test
+    void thenMatchesConcatenation() {
+        Random random = new Random(SEED);
+        for (int sequence = 0; sequence < SEQUENCES; sequence++) {
+            int[] first = randomMoves(random);
+            int[] second = randomMoves(random);
+            int[] both = new int[first.length + second.length];
+            System.arraycopy(first, 0, both, 0, first.length);
+            System.arraycopy(second, 0, both, first.length, second.length);
+            assertEquals(AlgorithmEffect.of(both), AlgorithmEffect.of(first).then(AlgorithmEffect.of(second)));
+        }
+    }
+
+    @Test
+    void inverseMatchesReversedInverseMoves() {
+        Random random = new Random(SEED);
+        for (int sequence = 0; sequence < SEQUENCES; sequence++) {
+            int[] moves = randomMoves(random);
+            int[] inverse = new int[moves.length];
+            for (int i = 0; i < moves.length; i++) {
+                inverse[moves.length - 1 - i] = MoveTables.inverse(moves[i]);
+            }
+            AlgorithmEffect effect = AlgorithmEffect.of(moves);
+            assertEquals(AlgorithmEffect.of(inverse), effect.inverse());
+            assertTrue(effect.then(effect.inverse()).isIdentity());
+        }
+    }
+
+    @Test
+    void powerMatchesRepetition() {
+        Random random = new Random(SEED);
+        for (int sequence = 0; sequence < SEQUENCES; sequence++) {
+            int[] moves = randomMoves(random);
+            PackedCubeStateRepresentation start = randomState(random);
+            AlgorithmEffect effect = AlgorithmEffect.of(moves);
+            for (int k = 0; k <= MAX_POWER; k++) {
+                PackedCubeStateRepresentation expected = made(start, moves, k);
+                assertEquals(expected, effect.power(k).apply(start), "power " + k);
+                assertEquals(expected, effect.apply(start, k), "apply " + k);
+                assertEquals(start, effect.power(-k).apply(expected), "power " + -k);
+            }
+            assertTrue(effect.power(effect.getOrder()).isIdentity());
+        }
+    }
+
+    @Test
+    void orderOfRU() {
+        Algorithm algorithm = Algorithm.parse("RU", "R U");
+        AlgorithmEffect effect = AlgorithmEffect.of(algorithm);
+        assertEquals(105, effect.getOrder());
+
+        PackedCubeStateRepresentation state = new PackedCubeStateRepresentation();
+        for (int k = 1; k <= 105; k++) {
+            for (int move : algorithm.moves()) {
+                state.makeMove(move);
+            }
+            assertEquals(k == 105, state.isSolved(), "solved after " + k + " repetitions");
+            if (k == 7) {
+                assertEquals(state, effect.power(7).apply(new PackedCubeStateRepresentation()));
+            }
+        }
+    }
+
+    @Test
+    void cycleNotation() {
+        assertEquals("()", AlgorithmEffect.IDENTITY.toString());
+        assertEquals("(ULB UBR DRB DFR UFL)+ (URF)- (UB UR BR DR FR UF UL)",
+                AlgorithmEffect.of(Algorithm.parse("RU", "R U")).toString());
+        assertEquals("(UBR DFR) (URF DRB) (UR DR) (BR FR)", AlgorithmEffect.of(Algorithm.parse("R2", "R2")).toString());
+        assertEquals("(UBR URF) (UR UL)",
+                AlgorithmEffect.of(Algorithm.parse("T", "R U R' U' R' F R2 U' R' U' R U R' F'")).toString());
+    }
+
+    private static int[] randomMoves(Random random) {
+        int[] moves = new int[random.nextInt(MAX_SEQUENCE_LENGTH + 1)];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = random.nextInt(MoveTables.MOVES);
+        }
+        return moves;
+    }
+
+    private static PackedCubeStateRepresentation randomState(Random random) {
+        return made(new PackedCubeStateRepresentation(), randomMoves(random), 1);
+    }
+
+    // the state after making the moves the given amount of times, one by one
+    private static PackedCubeStateRepresentation made(PackedCubeStateRepresentation start, int[] moves, int times) {
+        PackedCubeStateRepresentation state = new PackedCubeStateRepresentation(start);
+        for (int k = 0; k < times; k++) {
+            for (int move : moves) {
+                state.makeMove(move);
+            }
+        }
+        return state;
+    }
+}